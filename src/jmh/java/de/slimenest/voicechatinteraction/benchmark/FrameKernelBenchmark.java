@@ -0,0 +1,48 @@
+package de.slimenest.voicechatinteraction.benchmark;
+
+import de.slimenest.voicechatinteraction.util.FrameFeatures;
+import de.slimenest.voicechatinteraction.util.FrameKernel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar and the SIMD frame kernel (sum of squares, peak and zero crossings in one pass)
+ * for common Opus frame sizes. The forked JVM enables the incubating Vector API module.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class FrameKernelBenchmark {
+
+    @Param({"scalar", "vector"})
+    public String kernelName;
+
+    @Param({"480", "960", "1920"})
+    public int frameSize;
+
+    private FrameKernel kernel;
+    private short[] samples;
+
+    @Setup
+    public void setup() {
+        kernel = "vector".equals(kernelName) ? FrameKernel.vector() : FrameKernel.scalar();
+        if (kernel == null) {
+            throw new IllegalStateException("jdk.incubator.vector is not available in the benchmark JVM");
+        }
+        final SplittableRandom random = new SplittableRandom(42);
+        samples = new short[frameSize];
+        for (int i = 0; i < frameSize; i++) {
+            samples[i] = (short) random.nextInt(-4096, 4096);
+        }
+    }
+
+    @Benchmark
+    public FrameFeatures analyze() {
+        return kernel.analyze(samples, 0, samples.length);
+    }
+}
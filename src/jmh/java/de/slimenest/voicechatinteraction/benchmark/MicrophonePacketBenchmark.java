@@ -0,0 +1,160 @@
+package de.slimenest.voicechatinteraction.benchmark;
+
+import de.maxhenkel.voicechat.api.VoicechatServerApi;
+import de.maxhenkel.voicechat.api.events.MicrophonePacketEvent;
+import de.slimenest.voicechatinteraction.VoiceChatEventBridge;
+import de.slimenest.voicechatinteraction.VoiceChatInteraction;
+import de.slimenest.voicechatinteraction.config.ServerConfig;
+import de.slimenest.voicechatinteraction.loadtest.HarnessStubs;
+import de.slimenest.voicechatinteraction.scheduler.PluginScheduler;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Measures the whole microphone packet handler of a real {@link VoiceChatEventBridge}: snapshot reads,
+ * pre-classification, cooldown, decode, analysis and trigger submission, with a simulated tick
+ * draining pending triggers once per round of speakers.
+ *
+ * <p>Bukkit and voice chat objects are the load test's stubs. The fake decoder burns no CPU, so the score
+ * is the plugin's own per-packet cost; analysis runs inline on the benchmark thread (no worker pool).</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MicrophonePacketBenchmark {
+
+    /** Payload sizes relative to the default pre-classifier: silence is rejected before decoding. */
+    private static final int SILENCE_BYTES = 3;
+    private static final int VOICE_BYTES = 40;
+
+    @Param({"16", "256"})
+    public int speakers;
+
+    @Param({"silence", "voice"})
+    public String payload;
+
+    /** 0 decodes and submits every voice packet, 20 (the default) rejects most of them in the cooldown gate. */
+    @Param({"0", "20"})
+    public int cooldownTicks;
+
+    private final LongAdder gameEvents = new LongAdder();
+    private VoiceChatEventBridge bridge;
+    private Consumer<MicrophonePacketEvent> handler;
+    private MicrophonePacketEvent[] events;
+    private int index;
+
+    /**
+     * Runs entity tasks inline: the benchmark thread doubles as the main thread that drains triggers.
+     */
+    private static final class InlineScheduler implements PluginScheduler {
+
+        @Override
+        public void runRepeating(final Runnable task, final long delayTicks, final long periodTicks) {
+        }
+
+        @Override
+        public void runRepeatingAsync(final Runnable task, final long delayTicks, final long periodTicks) {
+        }
+
+        @Override
+        public void runGlobal(final Runnable task) {
+            task.run();
+        }
+
+        @Override
+        public void runAsync(final Runnable task) {
+            task.run();
+        }
+
+        @Override
+        public void runForEntity(final Entity entity, final Runnable task) {
+            task.run();
+        }
+
+        @Override
+        public void runAtLocation(final Location location, final Runnable task) {
+            task.run();
+        }
+
+        @Override
+        public void cancelAll() {
+        }
+
+        @Override
+        public boolean isRegionized() {
+            return false;
+        }
+    }
+
+    @Setup
+    public void setup() throws ReflectiveOperationException, IOException {
+        final Logger logger = Logger.getLogger(VoiceChatInteraction.PLUGIN_ID);
+        final YamlConfiguration fileConfig = new YamlConfiguration();
+        fileConfig.set("analysis_workers", 0);
+        fileConfig.set("activation_cooldown_ticks", cooldownTicks);
+
+        final UUID worldId = new UUID(0L, 1L);
+        final World world = HarnessStubs.world(worldId, gameEvents);
+        final Map<UUID, Player> players = new LinkedHashMap<>();
+        for (int i = 0; i < speakers; i++) {
+            final UUID playerUuid = new UUID(0xBE7CL, i);
+            players.put(playerUuid, HarnessStubs.player(playerUuid, world, i * 64, 0));
+        }
+        HarnessStubs.installServer(players, 20.0, logger);
+
+        VoiceChatInteraction.logger = logger;
+        VoiceChatInteraction.scheduler = new InlineScheduler();
+        VoiceChatInteraction.config = new ServerConfig(fileConfig, logger);
+        bridge = new VoiceChatEventBridge(HarnessStubs.plugin(VoiceChatInteraction.PLUGIN_ID,
+                Files.createTempDirectory("voicechat-interaction-benchmark").toFile(), logger));
+        VoiceChatInteraction.voiceChatBridge = bridge;
+        bridge.configureWorkers(VoiceChatInteraction.config);
+        final AtomicReference<Consumer<MicrophonePacketEvent>> captured = new AtomicReference<>();
+        bridge.registerEvents(HarnessStubs.captureMicrophoneHandler(captured::set));
+        handler = captured.get();
+
+        final VoicechatServerApi api = HarnessStubs.voicechatApi(0L);
+        final byte[] frame = new byte["voice".equals(payload) ? VOICE_BYTES : SILENCE_BYTES];
+        frame[0] = 1 << 3; // SILK-only, 20 ms, one frame
+        events = new MicrophonePacketEvent[speakers];
+        int i = 0;
+        for (final Player player : players.values()) {
+            bridge.refreshPlayerState(player);
+            events[i++] = HarnessStubs.microphoneEvent(player.getUniqueId(), api, () -> frame);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        bridge.shutdownWorkers();
+        bridge.closeDecoders();
+    }
+
+    @Benchmark
+    public void onMicrophonePacket() {
+        handler.accept(events[index]);
+        if (++index == speakers) {
+            index = 0;
+            // One simulated tick per round, like the per-tick dispatch task
+            bridge.dispatchPendingTriggers();
+        }
+    }
+}
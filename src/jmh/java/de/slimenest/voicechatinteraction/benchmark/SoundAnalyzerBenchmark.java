@@ -0,0 +1,53 @@
+package de.slimenest.voicechatinteraction.benchmark;
+
+import de.slimenest.voicechatinteraction.util.FrameFeatures;
+import de.slimenest.voicechatinteraction.util.SoundAnalyzer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-frame cost of the loudness analysis for common Opus frame sizes
+ * (10, 20 and 40 ms at 48 kHz). With {@code -prof gc}, {@code gc.alloc.rate.norm} shows the bytes
+ * allocated per frame.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SoundAnalyzerBenchmark {
+
+    @Param({"480", "960", "1920"})
+    public int frameSize;
+
+    private short[] samples;
+    private double meanSquareThreshold;
+
+    @Setup
+    public void setup() {
+        final SplittableRandom random = new SplittableRandom(42);
+        samples = new short[frameSize];
+        for (int i = 0; i < frameSize; i++) {
+            samples[i] = (short) random.nextInt(-4096, 4096);
+        }
+        meanSquareThreshold = SoundAnalyzer.decibelToMeanSquare(-50);
+    }
+
+    @Benchmark
+    public double computeDecibelLevel() {
+        return SoundAnalyzer.computeDecibelLevel(samples);
+    }
+
+    @Benchmark
+    public FrameFeatures analyzeFrame() {
+        return SoundAnalyzer.analyzeFrame(samples, 0, samples.length);
+    }
+
+    @Benchmark
+    public boolean meetsThreshold() {
+        return SoundAnalyzer.analyzeFrame(samples, 0, samples.length).meanSquare() >= meanSquareThreshold;
+    }
+}
@@ -0,0 +1,60 @@
+package de.slimenest.voicechatinteraction.benchmark;
+
+import de.slimenest.voicechatinteraction.util.SpeechBandAnalyzer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time per frame of the speech band check. The work is fixed (two banks of six Goertzel filters
+ * over at most four 240-sample segments), so the result should not depend on the signal and must stay well
+ * below the cost of an Opus decode, which is the budget the stage is allowed per frame.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SpeechBandBenchmark {
+
+    @Param({"voice", "clatter"})
+    public String signal;
+
+    @Param({"960", "1920"})
+    public int frameSize;
+
+    private short[] samples;
+
+    @Setup
+    public void setup() {
+        final SplittableRandom random = new SplittableRandom(42);
+        samples = new short[frameSize];
+        if ("voice".equals(signal)) {
+            // Harmonics of a 140 Hz fundamental falling off with frequency, plus a little noise
+            for (int i = 0; i < frameSize; i++) {
+                double value = 0.0;
+                for (int harmonic = 1; harmonic * 140 < 4000; harmonic++) {
+                    value += Math.sin(2.0 * Math.PI * harmonic * 140 * i / 48_000.0) / harmonic;
+                }
+                samples[i] = (short) (value * 6000 + random.nextInt(-64, 64));
+            }
+        } else {
+            // Sharp decaying clicks on a noise bed
+            for (int i = 0; i < frameSize; i++) {
+                samples[i] = (short) random.nextInt(-64, 64);
+            }
+            for (int click = 100; click + 30 < frameSize; click += 300) {
+                for (int j = 0; j < 30; j++) {
+                    samples[click + j] = (short) (20000 * Math.exp(-j / 4.0) * (j % 2 == 0 ? 1 : -1));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public double bandRatio() {
+        return SpeechBandAnalyzer.bandRatio(samples, 0, samples.length);
+    }
+}
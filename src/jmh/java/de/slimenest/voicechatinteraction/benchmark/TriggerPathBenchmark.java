@@ -0,0 +1,87 @@
+package de.slimenest.voicechatinteraction.benchmark;
+
+import de.slimenest.voicechatinteraction.SculkTriggerDispatcher;
+import de.slimenest.voicechatinteraction.loadtest.HarnessStubs;
+import de.slimenest.voicechatinteraction.util.CooldownGate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Measures the voice-thread side of the cooldown gate and trigger dispatch
+ * with several concurrent speakers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class TriggerPathBenchmark {
+
+    private static final long COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Param({"16", "256"})
+    public int speakers;
+
+    private UUID[] speakerIds;
+    private CooldownGate cooldownGate;
+    private SculkTriggerDispatcher dispatcher;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+    }
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        speakerIds = new UUID[speakers];
+        for (int i = 0; i < speakers; i++) {
+            speakerIds[i] = new UUID(0L, i);
+        }
+        // Draining resolves players through Bukkit; an empty server measures the queue without triggering
+        HarnessStubs.installServer(Map.of(), 20.0, Logger.getLogger("benchmark"));
+        cooldownGate = new CooldownGate();
+        dispatcher = new SculkTriggerDispatcher((player, arrivalNanos) -> { });
+    }
+
+    /**
+     * Starts every iteration with all speakers inside their cooldown, as on a server where everyone spoke recently.
+     */
+    @Setup(Level.Iteration)
+    public void populate() {
+        cooldownGate.clear();
+        dispatcher.clear();
+        final long now = System.nanoTime();
+        for (final UUID speakerId : speakerIds) {
+            cooldownGate.tryAcquire(speakerId, now, COOLDOWN_NANOS);
+        }
+    }
+
+    private UUID next(final Cursor cursor) {
+        cursor.index = (cursor.index + 1) % speakers;
+        return speakerIds[cursor.index];
+    }
+
+    @Benchmark
+    public boolean cooldownCheck(final Cursor cursor) {
+        return cooldownGate.isCoolingDown(next(cursor), System.nanoTime(), COOLDOWN_NANOS);
+    }
+
+    @Benchmark
+    public boolean cooldownAcquire(final Cursor cursor) {
+        return cooldownGate.tryAcquire(next(cursor), System.nanoTime(), COOLDOWN_NANOS);
+    }
+
+    @Benchmark
+    public boolean dispatchSubmit(final Cursor cursor) {
+        final boolean queued = dispatcher.submit(next(cursor), System.nanoTime());
+        // Drain like the per-tick task does, otherwise every speaker stays deduplicated after its first submission
+        dispatcher.drain(Integer.MAX_VALUE);
+        return queued;
+    }
+}
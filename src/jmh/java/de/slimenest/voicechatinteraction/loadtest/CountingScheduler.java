@@ -0,0 +1,164 @@
+package de.slimenest.voicechatinteraction.loadtest;
+
+import de.slimenest.voicechatinteraction.scheduler.PluginScheduler;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler stand-in with a simulated main thread. {@link #tick()} runs due repeating tasks and
+ * queued entity tasks like the Bukkit scheduler does, and counts every main-thread task and the
+ * time spent in them per tick. Async tasks run on a small executor.
+ */
+final class CountingScheduler implements PluginScheduler {
+
+    private static final long TICK_MILLIS = 50L;
+
+    /**
+     * A repeating main-thread task.
+     */
+    private record Repeating(Runnable task, long firstTick, long periodTicks) {
+        boolean isDue(final long tick) {
+            return tick >= firstTick && (tick - firstTick) % periodTicks == 0;
+        }
+    }
+
+    private final List<Repeating> repeating = new CopyOnWriteArrayList<>();
+    private final Queue<Runnable> queuedTasks = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService asyncExecutor = Executors.newScheduledThreadPool(2, runnable -> {
+        final Thread thread = new Thread(runnable, "load-test-async");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Thread mainThread;
+
+    // Guarded by the instance lock; tick() holds it while tasks run
+    private long tick;
+    private int tasksThisTick;
+    private long ticks;
+    private long totalTasks;
+    private int maxTasksPerTick;
+    private long totalTickNanos;
+    private long maxTickNanos;
+
+    @Override
+    public synchronized void runRepeating(final Runnable task, final long delayTicks, final long periodTicks) {
+        repeating.add(new Repeating(task, tick + Math.max(1L, delayTicks), Math.max(1L, periodTicks)));
+    }
+
+    @Override
+    public void runRepeatingAsync(final Runnable task, final long delayTicks, final long periodTicks) {
+        asyncExecutor.scheduleAtFixedRate(task, delayTicks * TICK_MILLIS, Math.max(1L, periodTicks) * TICK_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void runGlobal(final Runnable task) {
+        runOnMainThread(task);
+    }
+
+    @Override
+    public void runAsync(final Runnable task) {
+        asyncExecutor.execute(task);
+    }
+
+    @Override
+    public void runForEntity(final Entity entity, final Runnable task) {
+        runOnMainThread(task);
+    }
+
+    @Override
+    public void runAtLocation(final Location location, final Runnable task) {
+        runOnMainThread(task);
+    }
+
+    /**
+     * Runs the task inline when called on the simulated main thread, otherwise queues it for the next tick.
+     */
+    private void runOnMainThread(final Runnable task) {
+        if (Thread.currentThread() == mainThread) {
+            tasksThisTick++;
+            task.run();
+        } else {
+            queuedTasks.offer(task);
+        }
+    }
+
+    @Override
+    public void cancelAll() {
+        repeating.clear();
+        queuedTasks.clear();
+        asyncExecutor.shutdownNow();
+    }
+
+    @Override
+    public boolean isRegionized() {
+        return false;
+    }
+
+    /**
+     * Runs one server tick. Must always be called from the same thread, which then counts as the main thread.
+     * Synchronized with the statistics accessors so reports only see whole ticks.
+     */
+    synchronized void tick() {
+        mainThread = Thread.currentThread();
+        final long startNanos = System.nanoTime();
+        tick++;
+        tasksThisTick = 0;
+        for (final Repeating task : repeating) {
+            if (task.isDue(tick)) {
+                tasksThisTick++;
+                task.task().run();
+            }
+        }
+        // Only tasks queued before this tick started; tasks they queue themselves run next tick
+        for (int pending = queuedTasks.size(); pending > 0; pending--) {
+            final Runnable task = queuedTasks.poll();
+            if (task == null) {
+                break;
+            }
+            tasksThisTick++;
+            task.run();
+        }
+        final long tickNanos = System.nanoTime() - startNanos;
+        ticks++;
+        totalTasks += tasksThisTick;
+        maxTasksPerTick = Math.max(maxTasksPerTick, tasksThisTick);
+        totalTickNanos += tickNanos;
+        maxTickNanos = Math.max(maxTickNanos, tickNanos);
+    }
+
+    /**
+     * Clears the per-tick statistics, e.g. after the warmup.
+     */
+    synchronized void resetStats() {
+        ticks = 0L;
+        totalTasks = 0L;
+        maxTasksPerTick = 0;
+        totalTickNanos = 0L;
+        maxTickNanos = 0L;
+    }
+
+    /**
+     * Formats tasks and plugin time per tick since the last reset.
+     */
+    synchronized String describe() {
+        if (ticks == 0L) {
+            return "main thread: no ticks";
+        }
+        return String.format(java.util.Locale.ROOT,
+                "main thread: %d ticks, tasks/tick mean=%.1f max=%d, plugin time/tick mean=%.3fms max=%.3fms",
+                ticks,
+                (double) totalTasks / ticks,
+                maxTasksPerTick,
+                totalTickNanos / (double) ticks / 1_000_000.0,
+                maxTickNanos / 1_000_000.0);
+    }
+}
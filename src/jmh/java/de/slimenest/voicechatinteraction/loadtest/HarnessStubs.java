@@ -0,0 +1,271 @@
+package de.slimenest.voicechatinteraction.loadtest;
+
+import de.maxhenkel.voicechat.api.ServerPlayer;
+import de.maxhenkel.voicechat.api.VoicechatConnection;
+import de.maxhenkel.voicechat.api.VoicechatServerApi;
+import de.maxhenkel.voicechat.api.events.EventRegistration;
+import de.maxhenkel.voicechat.api.events.MicrophonePacketEvent;
+import de.maxhenkel.voicechat.api.opus.OpusDecoder;
+import de.maxhenkel.voicechat.api.packets.MicrophonePacket;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Dynamic-proxy stand-ins for the Bukkit and voice chat objects the event bridge touches.
+ * Shared by the load test and the end-to-end packet benchmark.
+ * Only the methods on the bridge's code paths answer anything meaningful; all others return
+ * {@code null}, {@code false} or zero, so the stubs stay valid across API versions.
+ */
+public final class HarnessStubs {
+
+    /** Returned by an {@link Answer} to fall back to the default value of the method's return type. */
+    static final Object DEFAULT = new Object();
+
+    /** PCM samples per decoded frame: 20 ms at 48 kHz mono. */
+    private static final int FRAME_SAMPLES = 960;
+    /** Decoded amplitude per payload byte; larger Opus packets carry more energy. */
+    private static final int AMPLITUDE_PER_BYTE = 96;
+
+    /**
+     * Answers a stubbed method call.
+     */
+    @FunctionalInterface
+    interface Answer {
+        Object answer(String method, Object[] args);
+    }
+
+    private HarnessStubs() {
+    }
+
+    /**
+     * Creates a proxy of the interface. {@code equals}, {@code hashCode} and {@code toString} use identity.
+     */
+    static <T> T stub(final Class<T> type, final Answer answer) {
+        return type.cast(Proxy.newProxyInstance(HarnessStubs.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    final Object[] arguments = args == null ? new Object[0] : args;
+                    switch (method.getName()) {
+                        case "equals":
+                            if (arguments.length == 1) {
+                                return proxy == arguments[0];
+                            }
+                            break;
+                        case "hashCode":
+                            if (arguments.length == 0) {
+                                return System.identityHashCode(proxy);
+                            }
+                            break;
+                        case "toString":
+                            if (arguments.length == 0) {
+                                return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    final Object result = answer.answer(method.getName(), arguments);
+                    return result == DEFAULT ? defaultValue(method.getReturnType()) : result;
+                }));
+    }
+
+    private static Object defaultValue(final Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0.0F;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+
+    /**
+     * Installs a server that resolves the given players and reports a fixed tick time.
+     * The field is set directly because {@link Bukkit#setServer} queries build information
+     * that only exists inside a real server.
+     */
+    public static Server installServer(final Map<UUID, Player> players, final double averageTickTime, final Logger logger)
+            throws ReflectiveOperationException {
+        final Collection<Player> online = List.copyOf(players.values());
+        final Server server = stub(Server.class, (method, args) -> switch (method) {
+            case "getPlayer" -> args.length == 1 && args[0] instanceof UUID uuid ? players.get(uuid) : null;
+            case "getOnlinePlayers" -> online;
+            case "getAverageTickTime" -> averageTickTime;
+            case "getLogger" -> logger;
+            case "isPrimaryThread" -> false;
+            case "getName", "getVersion", "getBukkitVersion" -> "load-test";
+            default -> DEFAULT;
+        });
+        final Field field = Bukkit.class.getDeclaredField("server");
+        field.setAccessible(true);
+        field.set(null, server);
+        return server;
+    }
+
+    /**
+     * Creates the plugin the bridge derives its data paths and namespaced key from.
+     */
+    public static Plugin plugin(final String name, final File dataFolder, final Logger logger) {
+        return stub(Plugin.class, (method, args) -> switch (method) {
+            case "getName" -> name;
+            case "getDataFolder" -> dataFolder;
+            case "getLogger" -> logger;
+            case "isEnabled" -> true;
+            default -> DEFAULT;
+        });
+    }
+
+    /**
+     * Creates a world that counts the game events sent to it.
+     */
+    public static World world(final UUID worldId, final LongAdder gameEvents) {
+        return stub(World.class, (method, args) -> switch (method) {
+            case "getUID" -> worldId;
+            case "getName" -> "load_test";
+            case "sendGameEvent" -> {
+                gameEvents.increment();
+                yield null;
+            }
+            default -> DEFAULT;
+        });
+    }
+
+    /**
+     * Creates an online, standing player at a fixed position with an empty persistent data container.
+     */
+    public static Player player(final UUID playerUuid, final World world, final int blockX, final int blockZ) {
+        final PersistentDataContainer dataContainer = stub(PersistentDataContainer.class, (method, args) -> DEFAULT);
+        return stub(Player.class, (method, args) -> switch (method) {
+            case "getUniqueId" -> playerUuid;
+            case "getName" -> "speaker-" + playerUuid.getLeastSignificantBits();
+            case "getWorld" -> world;
+            case "getLocation" -> args.length == 0 ? new Location(world, blockX + 0.5, 64.0, blockZ + 0.5) : DEFAULT;
+            case "getPersistentDataContainer" -> dataContainer;
+            case "isOnline", "isValid" -> true;
+            default -> DEFAULT;
+        });
+    }
+
+    /**
+     * Creates a voice chat API whose decoders produce PCM from the payload size instead of real Opus decoding,
+     * busy-waiting for the given time per frame to stand in for the native decoder's CPU cost.
+     */
+    public static VoicechatServerApi voicechatApi(final long decodeNanos) {
+        return stub(VoicechatServerApi.class, (method, args) -> switch (method) {
+            case "createDecoder" -> fakeDecoder(decodeNanos);
+            default -> DEFAULT;
+        });
+    }
+
+    private static OpusDecoder fakeDecoder(final long decodeNanos) {
+        final long[] noiseState = {System.nanoTime() | 1L};
+        final boolean[] closed = {false};
+        return stub(OpusDecoder.class, (method, args) -> switch (method) {
+            case "decode" -> {
+                final long end = System.nanoTime() + decodeNanos;
+                while (System.nanoTime() < end) {
+                    Thread.onSpinWait();
+                }
+                final byte[] payload = (byte[]) args[0];
+                yield synthesize(payload == null ? 0 : payload.length, noiseState);
+            }
+            case "isClosed" -> closed[0];
+            case "close" -> {
+                closed[0] = true;
+                yield null;
+            }
+            default -> DEFAULT;
+        });
+    }
+
+    /**
+     * Fills a frame with xorshift noise whose amplitude scales with the payload size.
+     */
+    private static short[] synthesize(final int payloadBytes, final long[] noiseState) {
+        final int amplitude = Math.min(Short.MAX_VALUE, payloadBytes * AMPLITUDE_PER_BYTE);
+        final short[] samples = new short[FRAME_SAMPLES];
+        long state = noiseState[0];
+        for (int i = 0; i < samples.length; i++) {
+            state ^= state << 13;
+            state ^= state >>> 7;
+            state ^= state << 17;
+            samples[i] = (short) (state % (amplitude + 1));
+        }
+        noiseState[0] = state;
+        return samples;
+    }
+
+    /**
+     * Creates a reusable microphone event for one speaker. Each call to {@code getPacket()} reads
+     * the speaker's current payload, so the same event object can be posted for every frame.
+     */
+    public static MicrophonePacketEvent microphoneEvent(final UUID playerUuid, final VoicechatServerApi api,
+                                                 final Supplier<byte[]> payload) {
+        final ServerPlayer voicePlayer = stub(ServerPlayer.class, (method, args) -> switch (method) {
+            case "getUuid" -> playerUuid;
+            default -> DEFAULT;
+        });
+        final VoicechatConnection connection = stub(VoicechatConnection.class, (method, args) -> switch (method) {
+            case "getPlayer" -> voicePlayer;
+            case "isConnected", "isInstalled" -> true;
+            default -> DEFAULT;
+        });
+        final MicrophonePacket packet = stub(MicrophonePacket.class, (method, args) -> switch (method) {
+            case "getOpusEncodedData" -> payload.get();
+            default -> DEFAULT;
+        });
+        return stub(MicrophonePacketEvent.class, (method, args) -> switch (method) {
+            case "getSenderConnection" -> connection;
+            case "getPacket" -> packet;
+            case "getVoicechat" -> api;
+            default -> DEFAULT;
+        });
+    }
+
+    /**
+     * Creates an event registration that hands the microphone packet handler to the consumer.
+     */
+    @SuppressWarnings("unchecked")
+    public static EventRegistration captureMicrophoneHandler(final Consumer<Consumer<MicrophonePacketEvent>> handlerSink) {
+        return stub(EventRegistration.class, (method, args) -> {
+            if ("registerEvent".equals(method) && args.length >= 2 && args[0] == MicrophonePacketEvent.class) {
+                handlerSink.accept((Consumer<MicrophonePacketEvent>) args[1]);
+            }
+            return DEFAULT;
+        });
+    }
+}
@@ -0,0 +1,342 @@
+package de.slimenest.voicechatinteraction.loadtest;
+
+import de.maxhenkel.voicechat.api.VoicechatServerApi;
+import de.maxhenkel.voicechat.api.events.MicrophonePacketEvent;
+import de.slimenest.voicechatinteraction.VoiceChatEventBridge;
+import de.slimenest.voicechatinteraction.VoiceChatInteraction;
+import de.slimenest.voicechatinteraction.config.ServerConfig;
+import de.slimenest.voicechatinteraction.stats.LatencyHistogram;
+import org.bukkit.World;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import javax.annotation.Nullable;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Headless load test for the voice pipeline. Drives a real {@link VoiceChatEventBridge} with synthetic
+ * microphone packets from stubbed players at the 20 ms voice cadence, ticks a simulated main thread every 50 ms,
+ * and reports sustained packet rate, handler and decode time, main-thread tasks per tick and heap growth.
+ *
+ * <p>Runs offline: there is no server, no network and no native Opus. Decoding is replaced by a fake decoder
+ * that burns a configurable amount of CPU per frame, so decode cost is an input, not a measurement.</p>
+ *
+ * <p>Run with: {@code mvn -Pbenchmark test-compile exec:exec@loadtest -Dloadtest.args="--speakers 300 --seconds 120"}</p>
+ */
+public final class LoadTestHarness {
+
+    private static final String USAGE = """
+            Options (all optional):
+              --speakers N            simulated speakers (default 300)
+              --seconds N             measured duration (default 60)
+              --warmup-seconds N      run before measuring (default 10)
+              --voice-threads N       threads posting packets, speakers are split between them (default 1)
+              --decode-micros N       CPU time burned per fake Opus decode (default 40)
+              --listener-coverage F   share of speakers with a Sculk sensor nearby, 0..1 (default 1)
+              --mspt F                tick time reported to the load governor (default 20)
+              --report-seconds N      interval of progress lines (default 10)
+              --seed N                random seed for speaker behaviour (default 42)
+              --payloads FILE         recorded Opus packets (u16 big-endian length + bytes) instead of generated ones
+              --config FILE           config.yml to load instead of the built-in defaults""";
+
+    private static final long FRAME_MILLIS = 20L;
+    private static final long TICK_MILLIS = 50L;
+    /** Speakers stand four chunks apart so listener coverage can be set per speaker. */
+    private static final int SPEAKER_SPACING_BLOCKS = 64;
+    // Same periods as the tasks scheduled by VoiceChatInteraction
+    private static final long LOAD_SAMPLE_PERIOD_TICKS = 20L;
+    private static final long POSITION_REFRESH_PERIOD_TICKS = 10L;
+    private static final long MAINTENANCE_PERIOD_TICKS = 20L * 30L;
+    private static final long DECODER_MAX_IDLE_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final double MEGABYTE = 1024.0 * 1024.0;
+
+    /**
+     * Command line options.
+     */
+    private record Options(int speakers, int seconds, int warmupSeconds, int voiceThreads, int decodeMicros,
+                           double listenerCoverage, double mspt, int reportSeconds, long seed,
+                           @Nullable Path payloads, @Nullable Path config) {
+
+        static Options parse(final String[] args) {
+            final Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < args.length; i += 2) {
+                if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Expected --option value pairs, got " + args[i]);
+                }
+                values.put(args[i].substring(2), args[i + 1]);
+            }
+            final Options options = new Options(
+                    positive(values, "speakers", 300),
+                    positive(values, "seconds", 60),
+                    Integer.parseInt(values.getOrDefault("warmup-seconds", "10")),
+                    positive(values, "voice-threads", 1),
+                    Integer.parseInt(values.getOrDefault("decode-micros", "40")),
+                    Double.parseDouble(values.getOrDefault("listener-coverage", "1")),
+                    Double.parseDouble(values.getOrDefault("mspt", "20")),
+                    positive(values, "report-seconds", 10),
+                    Long.parseLong(values.getOrDefault("seed", "42")),
+                    values.containsKey("payloads") ? Path.of(values.get("payloads")) : null,
+                    values.containsKey("config") ? Path.of(values.get("config")) : null
+            );
+            values.keySet().removeAll(List.of("speakers", "seconds", "warmup-seconds", "voice-threads", "decode-micros",
+                    "listener-coverage", "mspt", "report-seconds", "seed", "payloads", "config"));
+            if (!values.isEmpty()) {
+                throw new IllegalArgumentException("Unknown option --" + values.keySet().iterator().next());
+            }
+            if (options.warmupSeconds < 0 || options.decodeMicros < 0
+                    || options.listenerCoverage < 0.0 || options.listenerCoverage > 1.0) {
+                throw new IllegalArgumentException("Option out of range");
+            }
+            return options;
+        }
+
+        private static int positive(final Map<String, String> values, final String key, final int defaultValue) {
+            final int value = Integer.parseInt(values.getOrDefault(key, String.valueOf(defaultValue)));
+            if (value <= 0) {
+                throw new IllegalArgumentException("--" + key + " must be positive");
+            }
+            return value;
+        }
+    }
+
+    private final Options options;
+    private final CountingScheduler scheduler = new CountingScheduler();
+    private final LatencyHistogram handlerLatency = new LatencyHistogram();
+    private final LongAdder packets = new LongAdder();
+    private final LongAdder handlerErrors = new LongAdder();
+    private final LongAdder lateRounds = new LongAdder();
+    private final LongAdder gameEvents = new LongAdder();
+    private final List<ScheduledExecutorService> executors = new ArrayList<>();
+
+    private LoadTestHarness(final Options options) {
+        this.options = options;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final Options options;
+        try {
+            options = Options.parse(args);
+        } catch (final IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        new LoadTestHarness(options).run();
+    }
+
+    private void run() throws Exception {
+        final Logger logger = Logger.getLogger(VoiceChatInteraction.PLUGIN_ID);
+        final Path dataFolder = Files.createTempDirectory("voicechat-interaction-loadtest");
+        final YamlConfiguration fileConfig = new YamlConfiguration();
+        if (options.config() != null) {
+            fileConfig.load(options.config().toFile());
+        }
+        final List<byte[]> recording = options.payloads() == null
+                ? null
+                : SyntheticSpeaker.readRecording(options.payloads());
+
+        // Players must exist before the server stub, which resolves them by UUID
+        final SplittableRandom random = new SplittableRandom(options.seed());
+        final UUID worldId = new UUID(0L, 1L);
+        final World world = HarnessStubs.world(worldId, gameEvents);
+        final Map<UUID, Player> players = new LinkedHashMap<>();
+        final List<SyntheticSpeaker> speakers = new ArrayList<>(options.speakers());
+        for (int i = 0; i < options.speakers(); i++) {
+            final UUID playerUuid = new UUID(0x10AD7E57L, i);
+            final Player player = HarnessStubs.player(playerUuid, world, i * SPEAKER_SPACING_BLOCKS, 0);
+            players.put(playerUuid, player);
+            speakers.add(new SyntheticSpeaker(playerUuid, player, random.split(), recording));
+        }
+        HarnessStubs.installServer(players, options.mspt(), logger);
+
+        VoiceChatInteraction.logger = logger;
+        VoiceChatInteraction.scheduler = scheduler;
+        VoiceChatInteraction.config = new ServerConfig(fileConfig, logger);
+        final VoiceChatEventBridge bridge = new VoiceChatEventBridge(
+                HarnessStubs.plugin(VoiceChatInteraction.PLUGIN_ID, dataFolder.toFile(), logger));
+        VoiceChatInteraction.voiceChatBridge = bridge;
+        bridge.configureWorkers(VoiceChatInteraction.config);
+        final AtomicReference<Consumer<MicrophonePacketEvent>> handler = new AtomicReference<>();
+        bridge.registerEvents(HarnessStubs.captureMicrophoneHandler(handler::set));
+        if (handler.get() == null) {
+            throw new IllegalStateException("Bridge did not register a microphone packet handler");
+        }
+
+        final VoicechatServerApi api = HarnessStubs.voicechatApi(TimeUnit.MICROSECONDS.toNanos(options.decodeMicros()));
+        int covered = 0;
+        for (int i = 0; i < speakers.size(); i++) {
+            final SyntheticSpeaker speaker = speakers.get(i);
+            speaker.bindEvent(HarnessStubs.microphoneEvent(speaker.playerUuid(), api, speaker::currentPayload));
+            bridge.refreshPlayerState(speaker.player());
+            if (random.nextDouble() < options.listenerCoverage()) {
+                bridge.getListenerIndex().setChunk(worldId, (i * SPEAKER_SPACING_BLOCKS) >> 4, 0, 1);
+                covered++;
+            }
+        }
+
+        scheduler.runRepeating(() -> {
+            bridge.dispatchPendingTriggers();
+            bridge.getLoudnessPublisher().sweepSilentPlayers(System.nanoTime());
+            bridge.getLoudnessPublisher().drainMainThread();
+        }, 1L, 1L);
+        scheduler.runRepeating(() -> bridge.getLoadGovernor().sample(), LOAD_SAMPLE_PERIOD_TICKS, LOAD_SAMPLE_PERIOD_TICKS);
+        scheduler.runRepeating(bridge::refreshPlayerPositions, POSITION_REFRESH_PERIOD_TICKS, POSITION_REFRESH_PERIOD_TICKS);
+        scheduler.runRepeatingAsync(() -> {
+            bridge.evictIdleDecoders(DECODER_MAX_IDLE_NANOS);
+            bridge.cleanupExpiredCooldowns();
+        }, MAINTENANCE_PERIOD_TICKS, MAINTENANCE_PERIOD_TICKS);
+
+        System.out.printf(Locale.ROOT, "Load test: %d speakers (%d near a listener), %d voice thread(s), fake decode %d us, %s payloads%n",
+                speakers.size(), covered, options.voiceThreads(), options.decodeMicros(),
+                recording == null ? "generated" : recording.size() + " recorded");
+
+        startVoiceThreads(speakers, handler.get());
+        startMainThread();
+        try {
+            measure(bridge);
+        } finally {
+            for (final ScheduledExecutorService executor : executors) {
+                executor.shutdownNow();
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            }
+            bridge.shutdownWorkers();
+            bridge.closeDecoders();
+            scheduler.cancelAll();
+            Files.deleteIfExists(dataFolder);
+        }
+    }
+
+    /**
+     * Splits the speakers round-robin between the voice threads; each thread posts one frame per speaker every 20 ms.
+     */
+    private void startVoiceThreads(final List<SyntheticSpeaker> speakers, final Consumer<MicrophonePacketEvent> handler) {
+        for (int t = 0; t < options.voiceThreads(); t++) {
+            final List<SyntheticSpeaker> group = new ArrayList<>();
+            for (int i = t; i < speakers.size(); i += options.voiceThreads()) {
+                group.add(speakers.get(i));
+            }
+            final ScheduledExecutorService executor = singleThread("load-test-voice-" + t);
+            executor.scheduleAtFixedRate(() -> postFrames(group, handler), 0L, FRAME_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void postFrames(final List<SyntheticSpeaker> group, final Consumer<MicrophonePacketEvent> handler) {
+        final long roundStart = System.nanoTime();
+        for (final SyntheticSpeaker speaker : group) {
+            final MicrophonePacketEvent event = speaker.nextFrame();
+            final long start = System.nanoTime();
+            try {
+                handler.accept(event);
+            } catch (final RuntimeException e) {
+                handlerErrors.increment();
+            }
+            handlerLatency.record(System.nanoTime() - start);
+            packets.increment();
+        }
+        // A round longer than the frame interval means this thread cannot keep up with real time
+        if (System.nanoTime() - roundStart > TimeUnit.MILLISECONDS.toNanos(FRAME_MILLIS)) {
+            lateRounds.increment();
+        }
+    }
+
+    private void startMainThread() {
+        singleThread("load-test-main").scheduleAtFixedRate(scheduler::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private ScheduledExecutorService singleThread(final String name) {
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executors.add(executor);
+        return executor;
+    }
+
+    /**
+     * Waits out the warmup, resets all counters, then prints progress lines and the final report.
+     */
+    private void measure(final VoiceChatEventBridge bridge) throws InterruptedException {
+        Thread.sleep(TimeUnit.SECONDS.toMillis(options.warmupSeconds()));
+        bridge.resetStats();
+        handlerLatency.reset();
+        lateRounds.reset();
+        scheduler.resetStats();
+        final long startHeap = usedHeapAfterGc();
+        final long startPackets = packets.sum();
+        final long startEvents = gameEvents.sum();
+        final long startNanos = System.nanoTime();
+
+        long lastPackets = startPackets;
+        long lastNanos = startNanos;
+        long remainingMillis = TimeUnit.SECONDS.toMillis(options.seconds());
+        while (remainingMillis > 0L) {
+            final long sleepMillis = Math.min(remainingMillis, TimeUnit.SECONDS.toMillis(options.reportSeconds()));
+            Thread.sleep(sleepMillis);
+            remainingMillis -= sleepMillis;
+            final long now = System.nanoTime();
+            final long total = packets.sum();
+            System.out.printf(Locale.ROOT, "[%4ds] %.0f packets/s, heap used %.1f MB, decoders %d, pending triggers %d%n",
+                    TimeUnit.NANOSECONDS.toSeconds(now - startNanos),
+                    perSecond(total - lastPackets, now - lastNanos),
+                    usedHeap() / MEGABYTE,
+                    bridge.getDecoderPoolSize(),
+                    bridge.getPendingTriggerCount());
+            lastPackets = total;
+            lastNanos = now;
+        }
+
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        final long endHeap = usedHeapAfterGc();
+        final double targetRate = options.speakers() * 1000.0 / FRAME_MILLIS;
+        final double sustainedRate = perSecond(packets.sum() - startPackets, elapsedNanos);
+        final double minutes = elapsedNanos / 60_000_000_000.0;
+
+        System.out.println("=== Load test report ===");
+        System.out.printf(Locale.ROOT, "packets/s sustained: %.0f of %.0f target (%.1f%%)%n",
+                sustainedRate, targetRate, 100.0 * sustainedRate / targetRate);
+        System.out.println("voice handler time per packet: " + handlerLatency.summary());
+        System.out.println("voice rounds over " + FRAME_MILLIS + " ms: " + lateRounds.sum() + ", handler errors: " + handlerErrors.sum());
+        System.out.println(scheduler.describe());
+        System.out.printf(Locale.ROOT, "game events: %d (%.1f/s)%n",
+                gameEvents.sum() - startEvents, perSecond(gameEvents.sum() - startEvents, elapsedNanos));
+        System.out.printf(Locale.ROOT, "heap used after GC: %.1f MB -> %.1f MB (%+.2f MB/min)%n",
+                startHeap / MEGABYTE, endHeap / MEGABYTE, (endHeap - startHeap) / MEGABYTE / minutes);
+        for (final String line : bridge.formatStats()) {
+            System.out.println(line);
+        }
+    }
+
+    private static double perSecond(final long count, final long nanos) {
+        return nanos <= 0L ? 0.0 : count * 1_000_000_000.0 / nanos;
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        System.gc();
+        Thread.sleep(200L);
+        System.gc();
+        return usedHeap();
+    }
+}
@@ -0,0 +1,137 @@
+package de.slimenest.voicechatinteraction.loadtest;
+
+import de.maxhenkel.voicechat.api.events.MicrophonePacketEvent;
+import org.bukkit.entity.Player;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * One simulated voice chat user producing a 20 ms Opus frame per {@link #nextFrame()} call.
+ *
+ * <p>Generated speakers alternate talk spurts and pauses. Talking frames are CELT full-band 20 ms packets
+ * of typical voice size, pauses are the 2-byte frames clients send while the microphone is idle.
+ * Recorded speakers loop over captured packets instead, each starting at a random offset.</p>
+ *
+ * <p>Not thread-safe: every speaker is driven by exactly one voice thread.</p>
+ */
+final class SyntheticSpeaker {
+
+    /** TOC byte: CELT-only, full band, 20 ms frame, one frame per packet. */
+    private static final byte CELT_FB_20MS = (byte) 0xF8;
+    private static final int MIN_TALK_FRAMES = 50;
+    private static final int MAX_TALK_FRAMES = 200;
+    private static final int MIN_PAUSE_FRAMES = 50;
+    private static final int MAX_PAUSE_FRAMES = 300;
+    private static final int MIN_VOICE_BYTES = 60;
+    private static final int MAX_VOICE_BYTES = 120;
+    private static final int SILENCE_BYTES = 2;
+
+    private final UUID playerUuid;
+    private final Player player;
+    private final SplittableRandom random;
+    @Nullable
+    private final List<byte[]> recording;
+    private MicrophonePacketEvent event;
+    private byte[] payload = new byte[0];
+    private boolean talking;
+    private int remainingFrames;
+    private int recordingIndex;
+
+    SyntheticSpeaker(final UUID playerUuid, final Player player, final SplittableRandom random,
+                     @Nullable final List<byte[]> recording) {
+        this.playerUuid = playerUuid;
+        this.player = player;
+        this.random = random;
+        this.recording = recording;
+        // Desynchronize speakers so talk spurts do not start in lockstep
+        this.remainingFrames = random.nextInt(1, MAX_PAUSE_FRAMES);
+        this.recordingIndex = recording == null ? 0 : random.nextInt(recording.size());
+    }
+
+    UUID playerUuid() {
+        return playerUuid;
+    }
+
+    Player player() {
+        return player;
+    }
+
+    /**
+     * Sets the reusable event posted for this speaker; it reads the payload through {@link #currentPayload()}.
+     */
+    void bindEvent(final MicrophonePacketEvent event) {
+        this.event = event;
+    }
+
+    /**
+     * Returns the payload of the frame produced last.
+     */
+    byte[] currentPayload() {
+        return payload;
+    }
+
+    /**
+     * Produces the next frame and returns the event carrying it.
+     */
+    MicrophonePacketEvent nextFrame() {
+        payload = recording != null ? nextRecorded(recording) : nextGenerated();
+        return event;
+    }
+
+    private byte[] nextRecorded(final List<byte[]> frames) {
+        final byte[] frame = frames.get(recordingIndex);
+        recordingIndex = (recordingIndex + 1) % frames.size();
+        // The bridge treats payloads as read-only, but the voice chat server hands out a fresh array per packet
+        return frame.clone();
+    }
+
+    private byte[] nextGenerated() {
+        if (--remainingFrames <= 0) {
+            talking = !talking;
+            remainingFrames = talking
+                    ? random.nextInt(MIN_TALK_FRAMES, MAX_TALK_FRAMES + 1)
+                    : random.nextInt(MIN_PAUSE_FRAMES, MAX_PAUSE_FRAMES + 1);
+        }
+        final byte[] frame = new byte[talking ? random.nextInt(MIN_VOICE_BYTES, MAX_VOICE_BYTES + 1) : SILENCE_BYTES];
+        frame[0] = CELT_FB_20MS;
+        for (int i = 1; i < frame.length; i++) {
+            frame[i] = (byte) random.nextInt(256);
+        }
+        return frame;
+    }
+
+    /**
+     * Reads recorded Opus packets, each stored as an unsigned 16-bit big-endian length followed by the packet bytes.
+     * A truncated trailing record is ignored.
+     *
+     * @throws IOException if the file cannot be read or holds no packets
+     */
+    static List<byte[]> readRecording(final Path file) throws IOException {
+        final List<byte[]> frames = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                try {
+                    final byte[] frame = new byte[in.readUnsignedShort()];
+                    in.readFully(frame);
+                    frames.add(frame);
+                } catch (final EOFException e) {
+                    break;
+                }
+            }
+        }
+        if (frames.isEmpty()) {
+            throw new IOException("No packets in " + file);
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,254 @@
+package de.slimenest.voicechatinteraction.replay;
+
+import de.slimenest.voicechatinteraction.config.ServerConfig;
+import de.slimenest.voicechatinteraction.stats.RejectReason;
+import de.slimenest.voicechatinteraction.stats.TraceRecorder;
+import de.slimenest.voicechatinteraction.util.LoudnessEnvelope;
+import de.slimenest.voicechatinteraction.util.OpusPacketClassifier;
+import de.slimenest.voicechatinteraction.util.SoundAnalyzer;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Replays a loudness trace written by {@link TraceRecorder} against alternative configurations and reports
+ * how many Sculk triggers and main-thread game events each would have produced.
+ *
+ * <p>Per frame the replay applies what depends on the level: the activation threshold (or, with
+ * {@code noise_floor_enabled}, the per-frame threshold recorded on the server), the envelope, and the cooldown.
+ * Rejections made before decoding (group, whisper, sneak, toggle, no listener) are taken from the trace as they
+ * were. The server decodes frames inside the cooldown while recording, so a shorter cooldown can add triggers.
+ * Frames the Opus pre-classifier judged without decoding carry no level: silent ones replay as silence, loud ones
+ * as {@link OpusPacketClassifier#LOUD_LEVEL_FACTOR} above the threshold, as on the server. Players whose rules
+ * came from a profile keep the threshold and cooldown recorded for that profile; only players on the default
+ * profile follow the replayed config's global values. Load shedding is not simulated.</p>
+ *
+ * <p>Run with: {@code mvn -Pbenchmark test-compile exec:exec@replay -Dreplay.args="--trace t.trace --config a.yml"}</p>
+ */
+public final class TraceReplay {
+
+    private static final String USAGE = """
+            Options:
+              --trace FILE     trace written by trace_recorder_enabled (required)
+              --config FILE    config.yml to replay against; repeat to compare several (default: built-in defaults)""";
+
+    private static final long TICK_NANOS = 50_000_000L;
+    /** Receives config validation warnings; there is no server logger offline. */
+    private static final Logger LOGGER = Logger.getLogger(TraceReplay.class.getSimpleName());
+
+    /**
+     * One decoded trace record.
+     *
+     * @param timeNanos   nanoseconds since the recording started
+     * @param player      player index
+     * @param levelDb     frame level in dB, or NaN if the frame was not measured
+     * @param thresholdDb threshold the frame was judged by, or NaN
+     * @param rejection   rejection reason, or null if the frame triggered
+     * @param flags       {@code TraceRecorder.FLAG_*} bits
+     * @param profileDb   activation threshold of the player's profile in dB
+     * @param profileCooldownNanos cooldown of the player's profile
+     */
+    private record Frame(long timeNanos, int player, double levelDb, double thresholdDb, RejectReason rejection,
+                         int flags, int profileDb, long profileCooldownNanos) {
+
+        private boolean has(final int flag) {
+            return (flags & flag) != 0;
+        }
+    }
+
+    /**
+     * Outcome counts of one replay.
+     */
+    private static final class Result {
+        private final EnumMap<RejectReason, Long> rejected = new EnumMap<>(RejectReason.class);
+        private final Map<Long, Integer> eventsPerTick = new HashMap<>();
+        private long triggers;
+
+        private void reject(final RejectReason reason) {
+            rejected.merge(reason, 1L, Long::sum);
+        }
+
+        /**
+         * Counts a trigger; each becomes one game event on the main thread in the tick after it.
+         */
+        private void trigger(final long timeNanos) {
+            triggers++;
+            eventsPerTick.merge(timeNanos / TICK_NANOS, 1, Integer::sum);
+        }
+    }
+
+    private TraceReplay() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        Path trace = null;
+        final List<Path> configs = new ArrayList<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--trace" -> trace = Path.of(args[i + 1]);
+                case "--config" -> configs.add(Path.of(args[i + 1]));
+                default -> {
+                    System.err.println("Unknown option " + args[i]);
+                    System.err.println(USAGE);
+                    System.exit(2);
+                }
+            }
+        }
+        if (trace == null || args.length % 2 != 0) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        final List<Frame> frames = read(trace);
+        final Result recorded = new Result();
+        for (final Frame frame : frames) {
+            if (frame.rejection() == null) {
+                recorded.trigger(frame.timeNanos());
+            } else {
+                recorded.reject(frame.rejection());
+            }
+        }
+        System.out.printf(Locale.ROOT, "%s: %d frames over %.1f s%n", trace.getFileName(), frames.size(),
+                frames.isEmpty() ? 0.0 : frames.get(frames.size() - 1).timeNanos() / 1e9);
+        print("recorded", recorded);
+        final long profiled = frames.stream().filter(frame -> frame.has(TraceRecorder.FLAG_PROFILED)).count();
+        final long loud = frames.stream().filter(frame -> frame.has(TraceRecorder.FLAG_PRECLASSIFIED_LOUD)).count();
+        if (profiled > 0 || loud > 0) {
+            System.out.printf(Locale.ROOT, "%d frames of profiled players replay with their recorded profile threshold"
+                    + " and cooldown; %d loud frames were pre-classified without a level%n", profiled, loud);
+        }
+
+        if (configs.isEmpty()) {
+            print("defaults", replay(frames, new ServerConfig(new YamlConfiguration(), LOGGER)));
+        }
+        for (final Path config : configs) {
+            print(config.getFileName().toString(), replay(frames, load(config)));
+        }
+    }
+
+    private static ServerConfig load(final Path file) throws IOException, InvalidConfigurationException {
+        final YamlConfiguration yaml = new YamlConfiguration();
+        yaml.load(file.toFile());
+        return new ServerConfig(yaml, LOGGER);
+    }
+
+    /**
+     * Reads all used slots of a trace and sorts them by time, undoing the ring order.
+     */
+    private static List<Frame> read(final Path file) throws IOException {
+        final ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size()).order(ByteOrder.BIG_ENDIAN);
+        }
+        if (buffer.limit() < TraceRecorder.HEADER_BYTES || buffer.getInt(0) != TraceRecorder.MAGIC) {
+            throw new IOException(file + " is not a loudness trace");
+        }
+        if (buffer.getInt(4) != TraceRecorder.VERSION || buffer.getInt(8) != TraceRecorder.RECORD_BYTES) {
+            throw new IOException("Unsupported trace version " + buffer.getInt(4));
+        }
+        final int capacity = buffer.getInt(12);
+        final RejectReason[] reasons = RejectReason.values();
+        final List<Frame> frames = new ArrayList<>();
+        for (int slot = 0; slot < capacity; slot++) {
+            final int offset = TraceRecorder.HEADER_BYTES + slot * TraceRecorder.RECORD_BYTES;
+            if (offset + TraceRecorder.RECORD_BYTES > buffer.limit()) {
+                break;
+            }
+            final long time = buffer.getLong(offset);
+            if (time == 0L) {
+                continue;
+            }
+            final short level = buffer.getShort(offset + 12);
+            final byte threshold = buffer.get(offset + 14);
+            final int outcome = buffer.get(offset + 15);
+            if (outcome < 0 || outcome > reasons.length) {
+                continue;
+            }
+            frames.add(new Frame(time - 1L, buffer.getInt(offset + 8),
+                    level == TraceRecorder.UNKNOWN_LEVEL ? Double.NaN : level / 100.0,
+                    threshold == TraceRecorder.UNKNOWN_THRESHOLD ? Double.NaN : threshold,
+                    outcome == TraceRecorder.OUTCOME_TRIGGERED ? null : reasons[outcome - 1],
+                    buffer.get(offset + 16), buffer.get(offset + 17), buffer.getShort(offset + 18) * TICK_NANOS));
+        }
+        frames.sort((a, b) -> Long.compare(a.timeNanos(), b.timeNanos()));
+        return frames;
+    }
+
+    /**
+     * Re-runs the level-dependent decisions of the trace with the given configuration.
+     */
+    private static Result replay(final List<Frame> frames, final ServerConfig config) {
+        final Result result = new Result();
+        final Map<Integer, LoudnessEnvelope> envelopes = new HashMap<>();
+        final Map<Integer, Long> lastTrigger = new HashMap<>();
+        for (final Frame frame : frames) {
+            final boolean profiled = frame.has(TraceRecorder.FLAG_PROFILED);
+            final long cooldownNanos = profiled ? frame.profileCooldownNanos() : config.activationCooldownNanos;
+            final double threshold;
+            if (config.noiseFloorEnabled && !Double.isNaN(frame.thresholdDb())) {
+                threshold = SoundAnalyzer.decibelToMeanSquare(frame.thresholdDb());
+            } else if (profiled) {
+                threshold = SoundAnalyzer.decibelToMeanSquare(frame.profileDb());
+            } else {
+                threshold = config.activationMeanSquareThreshold;
+            }
+            final double level;
+            if (frame.has(TraceRecorder.FLAG_PRECLASSIFIED_SILENT)) {
+                level = 0.0;
+            } else if (frame.has(TraceRecorder.FLAG_PRECLASSIFIED_LOUD)) {
+                level = threshold * OpusPacketClassifier.LOUD_LEVEL_FACTOR;
+            } else if (!Double.isNaN(frame.levelDb())) {
+                level = SoundAnalyzer.decibelToMeanSquare(frame.levelDb());
+            } else {
+                // Rejected before decoding by rules the level does not affect
+                result.reject(frame.rejection() == null ? RejectReason.DECODE_FAILED : frame.rejection());
+                continue;
+            }
+            final boolean talking;
+            if (config.envelopeEnabled) {
+                final LoudnessEnvelope envelope = envelopes.computeIfAbsent(frame.player(), p -> new LoudnessEnvelope());
+                final LoudnessEnvelope.Edge edge = envelope.update(level, config.envelopeAttackCoeff,
+                        config.envelopeReleaseCoeff, threshold, threshold * config.envelopeHysteresisFactor);
+                talking = edge == LoudnessEnvelope.Edge.START || (edge == LoudnessEnvelope.Edge.NONE && envelope.isTalking());
+            } else {
+                talking = level >= threshold;
+            }
+            if (!talking) {
+                result.reject(RejectReason.THRESHOLD);
+                continue;
+            }
+            final Long last = lastTrigger.get(frame.player());
+            if (last != null && frame.timeNanos() - last < cooldownNanos) {
+                result.reject(RejectReason.COOLDOWN);
+                continue;
+            }
+            lastTrigger.put(frame.player(), frame.timeNanos());
+            result.trigger(frame.timeNanos());
+        }
+        return result;
+    }
+
+    private static void print(final String name, final Result result) {
+        final StringBuilder rejected = new StringBuilder();
+        for (final Map.Entry<RejectReason, Long> entry : result.rejected.entrySet()) {
+            rejected.append(rejected.isEmpty() ? "" : ", ").append(entry.getKey().key()).append(' ').append(entry.getValue());
+        }
+        final int maxPerTick = result.eventsPerTick.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        System.out.printf(Locale.ROOT, "%-20s triggers (main-thread game events) %d in %d ticks, max %d per tick; rejected: %s%n",
+                name, result.triggers, result.eventsPerTick.size(), maxPerTick, rejected);
+    }
+}
@@ -0,0 +1,316 @@
+package de.slimenest.voicechatinteraction;
+
+import de.slimenest.voicechatinteraction.stats.RejectReason;
+import de.slimenest.voicechatinteraction.util.MessageProvider;
+import de.slimenest.voicechatinteraction.util.SoundAnalyzer;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live level monitor behind {@code /voicechat_interaction monitor}: shows an admin a player's frame level,
+ * activation threshold, envelope state and last reject reason on the action bar.
+ *
+ * <p>The voice path publishes into a per-player {@link Slot}, a single packed {@code long} updated with
+ * compare-and-set, so publishing neither locks nor allocates. Slots exist only for monitored players and are
+ * looked up in an immutable map that is replaced when a monitor starts or stops; for everyone else the voice
+ * path pays one lookup in an empty map. The main thread samples the slots every {@value #SAMPLE_PERIOD_TICKS}
+ * ticks, so the action bar updates at a fixed 4 Hz however fast frames arrive.</p>
+ */
+public final class LevelMonitor {
+
+    /** Ticks between two action bar updates (4 Hz). */
+    public static final long SAMPLE_PERIOD_TICKS = 5L;
+    /** Monitors stop on their own after this time. */
+    public static final long TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    /**
+     * State of the speaker's loudness envelope.
+     */
+    public enum EnvelopeState {
+        /** The envelope is disabled, or the speaker has no envelope yet. */
+        OFF,
+        QUIET,
+        TALKING
+    }
+
+    static final short UNKNOWN_LEVEL = Short.MIN_VALUE;
+    private static final EnvelopeState[] ENVELOPE_STATES = EnvelopeState.values();
+    private static final RejectReason[] REJECT_REASONS = RejectReason.values();
+
+    /**
+     * Latest analysis state of one monitored player, packed into one {@code long} so readers always see
+     * a consistent combination:
+     * <ul>
+     *     <li>bits 0-15: frame level in hundredths of a dB, or {@link #UNKNOWN_LEVEL}</li>
+     *     <li>bits 16-31: activation threshold in hundredths of a dB, or {@link #UNKNOWN_LEVEL}</li>
+     *     <li>bits 32-39: last reject reason ordinal plus one, 0 if none yet</li>
+     *     <li>bits 40-41: {@link EnvelopeState} ordinal</li>
+     *     <li>bit 42: whether the latest frame triggered</li>
+     *     <li>bits 48-63: frame counter, used to detect that no frames arrived</li>
+     * </ul>
+     */
+    public static final class Slot {
+        private final AtomicLong state = new AtomicLong(pack(UNKNOWN_LEVEL, UNKNOWN_LEVEL, 0, 0, false, 0));
+
+        /**
+         * Publishes the outcome of a frame. Unknown (NaN) values keep the previously published ones.
+         *
+         * @param levelMeanSquare     frame level, or NaN if the frame was rejected before it was measured
+         * @param thresholdMeanSquare activation threshold, or NaN
+         * @param envelope            envelope state after the frame
+         * @param rejection           rejection reason, or null if the frame triggered
+         */
+        public void publishOutcome(final double levelMeanSquare, final double thresholdMeanSquare,
+                                   final EnvelopeState envelope, @Nullable final RejectReason rejection) {
+            long current;
+            long next;
+            do {
+                current = state.get();
+                next = pack(
+                        Double.isNaN(levelMeanSquare) ? level(current) : toCentiDecibel(levelMeanSquare),
+                        Double.isNaN(thresholdMeanSquare) ? threshold(current) : toCentiDecibel(thresholdMeanSquare),
+                        rejection == null ? reason(current) : rejection.ordinal() + 1,
+                        envelope.ordinal(),
+                        rejection == null,
+                        sequence(current) + 1);
+            } while (!state.compareAndSet(current, next));
+        }
+
+        /**
+         * Publishes the level of a frame that was rejected before analysis and only measured for the monitor.
+         */
+        public void publishLevel(final double levelMeanSquare, final double thresholdMeanSquare) {
+            if (Double.isNaN(levelMeanSquare)) {
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = state.get();
+                next = pack(toCentiDecibel(levelMeanSquare), toCentiDecibel(thresholdMeanSquare), reason(current),
+                        envelope(current), triggered(current), sequence(current));
+            } while (!state.compareAndSet(current, next));
+        }
+
+        /**
+         * Returns the packed state; decode it with the static accessors.
+         */
+        long packed() {
+            return state.get();
+        }
+
+        private static long pack(final int level, final int threshold, final int reason, final int envelope,
+                                 final boolean triggered, final int sequence) {
+            return (level & 0xFFFFL)
+                    | (threshold & 0xFFFFL) << 16
+                    | (reason & 0xFFL) << 32
+                    | (envelope & 0x3L) << 40
+                    | (triggered ? 1L : 0L) << 42
+                    | (sequence & 0xFFFFL) << 48;
+        }
+
+        static short level(final long packed) {
+            return (short) packed;
+        }
+
+        static short threshold(final long packed) {
+            return (short) (packed >>> 16);
+        }
+
+        static int reason(final long packed) {
+            return (int) (packed >>> 32) & 0xFF;
+        }
+
+        static int envelope(final long packed) {
+            return (int) (packed >>> 40) & 0x3;
+        }
+
+        static boolean triggered(final long packed) {
+            return (packed >>> 42 & 1L) != 0L;
+        }
+
+        static int sequence(final long packed) {
+            return (int) (packed >>> 48) & 0xFFFF;
+        }
+
+        private static short toCentiDecibel(final double meanSquare) {
+            final double decibel = SoundAnalyzer.meanSquareToDecibel(meanSquare);
+            return (short) Math.max(UNKNOWN_LEVEL + 1, Math.min(Short.MAX_VALUE, Math.round(decibel * 100.0)));
+        }
+    }
+
+    /**
+     * A viewer watching a target. Only touched by the sampling task, apart from creation and removal.
+     */
+    private static final class Session {
+        private final UUID viewerUuid;
+        private final UUID targetUuid;
+        private final String targetName;
+        private final long deadlineNanos;
+        private int lastSequence = -1;
+
+        private Session(final UUID viewerUuid, final UUID targetUuid, final String targetName, final long deadlineNanos) {
+            this.viewerUuid = viewerUuid;
+            this.targetUuid = targetUuid;
+            this.targetName = targetName;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+
+    private final ConcurrentHashMap<UUID, Session> sessions = new ConcurrentHashMap<>();
+    private volatile Map<UUID, Slot> slots = Map.of();
+
+    /**
+     * Returns the slot of a monitored player, or null if nobody monitors the player. Safe to call from any thread.
+     */
+    @Nullable
+    public Slot slot(final UUID playerUuid) {
+        return slots.get(playerUuid);
+    }
+
+    /**
+     * Starts monitoring a target for a viewer, replacing the viewer's previous monitor.
+     */
+    public synchronized void start(final Player viewer, final Player target) {
+        sessions.put(viewer.getUniqueId(), new Session(viewer.getUniqueId(), target.getUniqueId(), target.getName(),
+                System.nanoTime() + TIMEOUT_NANOS));
+        rebuildSlots();
+    }
+
+    /**
+     * Stops the viewer's monitor.
+     *
+     * @return the name of the player that was monitored, or null if the viewer had no monitor
+     */
+    @Nullable
+    public synchronized String stop(final UUID viewerUuid) {
+        final Session session = sessions.remove(viewerUuid);
+        if (session == null) {
+            return null;
+        }
+        rebuildSlots();
+        return session.targetName;
+    }
+
+    /**
+     * Removes a session unless the viewer has replaced it meanwhile.
+     *
+     * @return true if the session was still active
+     */
+    private synchronized boolean expire(final Session session) {
+        if (!sessions.remove(session.viewerUuid, session)) {
+            return false;
+        }
+        rebuildSlots();
+        return true;
+    }
+
+    /**
+     * Stops all monitors of a player who left, as viewer or as target. Viewers of the player are notified.
+     */
+    public synchronized void removePlayer(final UUID playerUuid) {
+        boolean changed = sessions.remove(playerUuid) != null;
+        for (final Session session : sessions.values()) {
+            if (session.targetUuid.equals(playerUuid)) {
+                sessions.remove(session.viewerUuid);
+                notifyStopped(session);
+                changed = true;
+            }
+        }
+        if (changed) {
+            rebuildSlots();
+        }
+    }
+
+    /**
+     * Stops all monitors without notifying anyone, e.g. on disable.
+     */
+    public synchronized void clear() {
+        sessions.clear();
+        slots = Map.of();
+    }
+
+    /**
+     * Returns the number of active monitors.
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Publishes a new slot map for the current targets, keeping the slots of targets that stay monitored.
+     */
+    private void rebuildSlots() {
+        final Map<UUID, Slot> previous = slots;
+        final Map<UUID, Slot> next = new HashMap<>();
+        for (final Session session : sessions.values()) {
+            next.computeIfAbsent(session.targetUuid, uuid -> {
+                final Slot existing = previous.get(uuid);
+                return existing != null ? existing : new Slot();
+            });
+        }
+        slots = Map.copyOf(next);
+    }
+
+    /**
+     * Samples every monitored slot and sends the result to its viewer, each on the thread owning the viewer.
+     * Expired monitors and monitors whose viewer or target went offline are stopped.
+     * Called every {@value #SAMPLE_PERIOD_TICKS} ticks on the main thread (global region thread on Folia).
+     */
+    public void sample() {
+        if (sessions.isEmpty()) {
+            return;
+        }
+        final long now = System.nanoTime();
+        final Map<UUID, Slot> currentSlots = slots;
+        for (final Session session : sessions.values()) {
+            final Player viewer = Bukkit.getPlayer(session.viewerUuid);
+            final Slot slot = currentSlots.get(session.targetUuid);
+            if (viewer == null || slot == null || Bukkit.getPlayer(session.targetUuid) == null
+                    || now - session.deadlineNanos >= 0L) {
+                if (expire(session)) {
+                    notifyStopped(session);
+                }
+                continue;
+            }
+            final long packed = slot.packed();
+            final boolean idle = Slot.sequence(packed) == session.lastSequence;
+            session.lastSequence = Slot.sequence(packed);
+            VoiceChatInteraction.scheduler.runForEntity(viewer, () -> show(viewer, session.targetName, packed, idle));
+        }
+    }
+
+    private static void show(final Player viewer, final String targetName, final long packed, final boolean idle) {
+        final MessageProvider messages = VoiceChatInteraction.messages;
+        final int reason = Slot.reason(packed);
+        final String envelope = ENVELOPE_STATES[Slot.envelope(packed)].name().toLowerCase(Locale.ROOT);
+        messages.sendActionBar(viewer, idle ? "monitor_idle" : Slot.triggered(packed) ? "monitor_triggered" : "monitor_level", Map.of(
+                "player", targetName,
+                "level", formatCentiDecibel(Slot.level(packed)),
+                "threshold", formatCentiDecibel(Slot.threshold(packed)),
+                "envelope", messages.get(viewer, "monitor_envelope_" + envelope),
+                "reason", reason == 0 ? "-" : REJECT_REASONS[reason - 1].key()
+        ));
+    }
+
+    private static String formatCentiDecibel(final short centiDecibel) {
+        return centiDecibel == UNKNOWN_LEVEL ? "-" : String.format(Locale.ROOT, "%.1f", centiDecibel / 100.0);
+    }
+
+    private static void notifyStopped(final Session session) {
+        final Player viewer = Bukkit.getPlayer(session.viewerUuid);
+        if (viewer != null) {
+            VoiceChatInteraction.scheduler.runForEntity(viewer, () -> VoiceChatInteraction.messages.send(viewer,
+                    "monitor_stopped", Map.of("player", session.targetName)));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package de.slimenest.voicechatinteraction;
+
+import de.slimenest.voicechatinteraction.config.ServerConfig;
+import org.bukkit.Bukkit;
+
+import java.util.Locale;
+
+/**
+ * Adaptive load shedding driven by the server's tick time.
+ * Samples the average MSPT periodically and derives a degradation level between 0 (normal)
+ * and 1 (fully degraded). The level raises the effective cooldown and dB threshold and caps
+ * the number of game events per tick. It rises immediately and recovers gradually.
+ */
+public final class LoadGovernor {
+
+    /** Level decrease per sample while the server recovers, i.e. full recovery takes ten samples. */
+    private static final double RECOVERY_STEP = 0.1;
+
+    /**
+     * Effective settings for the current load level, together with the configuration they were derived from.
+     * Published atomically and read once per packet, so a packet never sees a mix of old and new settings.
+     *
+     * @param config           configuration snapshot
+     * @param level            degradation level in [0, 1]
+     * @param cooldownFactor   factor applied to trigger cooldowns
+     * @param thresholdFactor  mean-square factor applied to activation and envelope thresholds
+     * @param maxEventsPerTick cap for emitted game events per tick
+     */
+    public record Adjustments(ServerConfig config, double level, double cooldownFactor, double thresholdFactor,
+                              int maxEventsPerTick) {
+
+        /**
+         * Returns the unmodified settings of a configuration.
+         */
+        public static Adjustments normal(final ServerConfig config) {
+            return new Adjustments(config, 0.0, 1.0, 1.0, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Returns the effective global trigger cooldown.
+         */
+        public long cooldownNanos() {
+            return cooldownNanos(config.activationCooldownNanos);
+        }
+
+        /**
+         * Returns the effective trigger cooldown for a base cooldown, e.g. that of a rule profile.
+         */
+        public long cooldownNanos(final long baseNanos) {
+            return cooldownFactor == 1.0 ? baseNanos : (long) (baseNanos * cooldownFactor);
+        }
+
+        /**
+         * Returns the longest cooldown a base cooldown can reach under load shedding with this configuration.
+         * Entries older than this are expired at every load level.
+         */
+        public long maxCooldownNanos(final long baseNanos) {
+            final double maxFactor = config.loadSheddingEnabled
+                    ? Math.max(cooldownFactor, config.loadSheddingMaxCooldownMultiplier)
+                    : cooldownFactor;
+            return maxFactor == 1.0 ? baseNanos : (long) (baseNanos * maxFactor);
+        }
+    }
+
+    private volatile Adjustments current;
+    private volatile double lastMspt;
+    private double level;
+
+    public LoadGovernor(final ServerConfig config) {
+        this.current = Adjustments.normal(config);
+    }
+
+    /**
+     * Returns the effective settings. Safe to call from any thread.
+     */
+    public Adjustments current() {
+        return current;
+    }
+
+    /**
+     * Samples the server tick time and updates the degradation level.
+     * Called periodically on the main thread (global region thread on Folia).
+     */
+    public synchronized void sample() {
+        final ServerConfig config = VoiceChatInteraction.config;
+        final double mspt = readAverageTickTime();
+        lastMspt = mspt;
+
+        double target = 0.0;
+        if (config.loadSheddingEnabled && mspt > config.loadSheddingStartMspt) {
+            final double span = Math.max(1.0, config.loadSheddingFullMspt - config.loadSheddingStartMspt);
+            target = Math.min(1.0, (mspt - config.loadSheddingStartMspt) / span);
+        }
+        level = target >= level ? target : Math.max(target, level - RECOVERY_STEP);
+        publish(config);
+    }
+
+    /**
+     * Recomputes the effective settings from the current configuration, e.g. after a reload.
+     * May be called from any thread.
+     */
+    public synchronized void refresh() {
+        publish(VoiceChatInteraction.config);
+    }
+
+    private void publish(final ServerConfig config) {
+        if (level <= 0.0) {
+            current = Adjustments.normal(config);
+            return;
+        }
+        final double cooldownFactor = 1.0 + level * (config.loadSheddingMaxCooldownMultiplier - 1.0);
+        final double thresholdFactor = Math.pow(10.0, level * config.loadSheddingMaxDbRaise / 10.0);
+        final int minEvents = config.loadSheddingMinEventsPerTick;
+        current = new Adjustments(
+                config,
+                level,
+                cooldownFactor,
+                thresholdFactor,
+                (int) Math.max(minEvents, Math.min(Integer.MAX_VALUE, Math.round(minEvents / level)))
+        );
+    }
+
+    /**
+     * Reads the average tick time in milliseconds, or 0 if the server does not expose it.
+     */
+    private static double readAverageTickTime() {
+        try {
+            return Bukkit.getServer().getAverageTickTime();
+        } catch (final UnsupportedOperationException e) {
+            return 0.0;
+        }
+    }
+
+    /**
+     * Formats the current level for the stats output.
+     */
+    public String describe() {
+        final Adjustments adjustments = current;
+        return String.format(Locale.ROOT, "load shedding: level %.0f%%, mspt %.1f, events/tick cap %s",
+                adjustments.level() * 100.0, lastMspt,
+                adjustments.maxEventsPerTick() == Integer.MAX_VALUE ? "none" : adjustments.maxEventsPerTick());
+    }
+}
@@ -0,0 +1,321 @@
+package de.slimenest.voicechatinteraction;
+
+import de.slimenest.voicechatinteraction.api.Delivery;
+import de.slimenest.voicechatinteraction.api.LoudnessListener;
+import de.slimenest.voicechatinteraction.api.LoudnessSample;
+import de.slimenest.voicechatinteraction.api.LoudnessService;
+import de.slimenest.voicechatinteraction.api.LoudnessSubscription;
+import de.slimenest.voicechatinteraction.api.TalkingEdge;
+import de.slimenest.voicechatinteraction.config.ServerConfig;
+import de.slimenest.voicechatinteraction.util.CooldownGate;
+import de.slimenest.voicechatinteraction.util.LoudnessEnvelope;
+import de.slimenest.voicechatinteraction.util.SoundAnalyzer;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of the public {@link LoudnessService}: fans out the loudness measured by the event bridge
+ * to other plugins.
+ *
+ * <p>Publishing reads a volatile array of subscribers without locking; only subscribe and cancel copy it.
+ * Per-subscriber rate limits use a {@link CooldownGate} per subscriber, and main-thread subscribers get
+ * a bounded queue drained once per tick. Talking edges come from an envelope per player that is kept
+ * here, independent of whether the plugin's own envelope is enabled. Voice chat sends no packets while
+ * a player is silent, so a per-tick sweep ends the talking state of players whose frames stopped.</p>
+ */
+public final class LoudnessPublisher implements LoudnessService {
+
+    /** Samples buffered per main-thread subscriber between two drains; further samples without an edge are dropped. */
+    private static final int MAIN_THREAD_QUEUE_LIMIT = 4096;
+    /** Time without frames after which a talking player gets a STOP edge; 7-8 missing 20 ms frames. */
+    static final long SILENCE_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(150L);
+    private static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+
+    private volatile Subscriber[] subscribers = NO_SUBSCRIBERS;
+    private final ConcurrentHashMap<UUID, Speaker> speakers = new ConcurrentHashMap<>();
+
+    /**
+     * Talking envelope of one player and the time of their last frame.
+     * Synchronized so the sweep cannot end a talking phase a frame has just extended.
+     */
+    private static final class Speaker {
+        private final LoudnessEnvelope envelope = new LoudnessEnvelope();
+        private long lastFrameNanos;
+
+        private synchronized LoudnessEnvelope.Edge update(final double frameMeanSquare, final long nowNanos,
+                                                          final double startMeanSquare, final ServerConfig config) {
+            lastFrameNanos = nowNanos;
+            return envelope.update(frameMeanSquare, config.envelopeAttackCoeff, config.envelopeReleaseCoeff,
+                    startMeanSquare, startMeanSquare * config.envelopeHysteresisFactor);
+        }
+
+        private synchronized boolean releaseIfSilent(final long nowNanos) {
+            return nowNanos - lastFrameNanos >= SILENCE_TIMEOUT_NANOS && envelope.release();
+        }
+    }
+
+    /**
+     * One subscription with its rate limit state and, for main-thread delivery, its buffer.
+     */
+    private final class Subscriber implements LoudnessSubscription {
+        private final Plugin plugin;
+        private final Delivery delivery;
+        private final long minIntervalNanos;
+        private final LoudnessListener listener;
+        private final CooldownGate rateGate = new CooldownGate();
+        private final ConcurrentLinkedQueue<LoudnessSample> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final LongAdder dropped = new LongAdder();
+        private final AtomicBoolean failureLogged = new AtomicBoolean();
+        private volatile boolean active = true;
+
+        private Subscriber(final Plugin plugin, final Delivery delivery, final long minIntervalNanos,
+                           final LoudnessListener listener) {
+            this.plugin = plugin;
+            this.delivery = delivery;
+            this.minIntervalNanos = minIntervalNanos;
+            this.listener = listener;
+        }
+
+        /**
+         * Applies the rate limit. Edges always pass so subscribers never miss a state change.
+         */
+        private boolean accepts(final UUID playerUuid, final TalkingEdge edge, final long nowNanos) {
+            return edge != TalkingEdge.NONE
+                    || minIntervalNanos == 0L
+                    || rateGate.tryAcquire(playerUuid, nowNanos, minIntervalNanos);
+        }
+
+        private void deliver(final LoudnessSample sample) {
+            if (delivery == Delivery.VOICE_THREAD) {
+                invoke(sample);
+            } else if (queued.incrementAndGet() <= MAIN_THREAD_QUEUE_LIMIT || sample.edge() != TalkingEdge.NONE) {
+                queue.offer(sample);
+            } else {
+                queued.decrementAndGet();
+                dropped.increment();
+            }
+        }
+
+        private void drain() {
+            // Only what is queued now; samples arriving meanwhile wait for the next tick
+            for (int pending = queued.get(); pending > 0; pending--) {
+                final LoudnessSample sample = queue.poll();
+                if (sample == null) {
+                    break;
+                }
+                queued.decrementAndGet();
+                if (active) {
+                    invoke(sample);
+                }
+            }
+        }
+
+        private void invoke(final LoudnessSample sample) {
+            try {
+                listener.onLoudness(sample);
+            } catch (final RuntimeException e) {
+                // Log once per subscription; a broken listener would otherwise flood the log at 50 frames/s
+                if (failureLogged.compareAndSet(false, true)) {
+                    VoiceChatInteraction.logger.warning("Loudness listener of " + plugin.getName()
+                            + " threw an exception (further errors are not logged): " + e);
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (active) {
+                active = false;
+                removeSubscriber(this);
+                queue.clear();
+                queued.set(0);
+            }
+        }
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+
+        @Override
+        public Plugin getPlugin() {
+            return plugin;
+        }
+
+        @Override
+        public long getDroppedCount() {
+            return dropped.sum();
+        }
+    }
+
+    @Override
+    public LoudnessSubscription subscribe(final Plugin plugin, final Delivery delivery, final long minIntervalMillis,
+                                          final LoudnessListener listener) {
+        Objects.requireNonNull(plugin, "plugin");
+        Objects.requireNonNull(delivery, "delivery");
+        Objects.requireNonNull(listener, "listener");
+        if (minIntervalMillis < 0L) {
+            throw new IllegalArgumentException("minIntervalMillis must not be negative");
+        }
+        if (!plugin.isEnabled()) {
+            throw new IllegalArgumentException("Plugin " + plugin.getName() + " is not enabled");
+        }
+        final Subscriber subscriber = new Subscriber(plugin, delivery,
+                TimeUnit.MILLISECONDS.toNanos(minIntervalMillis), listener);
+        synchronized (this) {
+            final Subscriber[] current = subscribers;
+            final Subscriber[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = subscriber;
+            subscribers = updated;
+        }
+        return subscriber;
+    }
+
+    @Override
+    public int getSubscriptionCount() {
+        return subscribers.length;
+    }
+
+    /**
+     * Returns whether anyone listens, i.e. whether frames must be decoded for publishing.
+     */
+    public boolean hasSubscribers() {
+        return subscribers.length > 0;
+    }
+
+    /**
+     * Publishes the measurement of one frame to all subscribers whose rate limit allows it.
+     * Called on the voice or analysis thread that measured the frame.
+     *
+     * @param playerUuid      speaking player
+     * @param frameMeanSquare mean square of the frame, 0 for silence
+     * @param peak            largest absolute sample value
+     * @param startMeanSquare level at which talking starts for this player
+     * @param config          configuration snapshot providing envelope smoothing and hysteresis
+     */
+    public void publish(final UUID playerUuid, final double frameMeanSquare, final int peak,
+                        final double startMeanSquare, final ServerConfig config) {
+        final Subscriber[] current = subscribers;
+        if (current.length == 0) {
+            return;
+        }
+        final Speaker speaker = speakers.computeIfAbsent(playerUuid, uuid -> new Speaker());
+        final long nowNanos = System.nanoTime();
+        final TalkingEdge edge = switch (speaker.update(frameMeanSquare, nowNanos, startMeanSquare, config)) {
+            case START -> TalkingEdge.START;
+            case STOP -> TalkingEdge.STOP;
+            case NONE -> TalkingEdge.NONE;
+        };
+        LoudnessSample sample = null;
+        for (final Subscriber subscriber : current) {
+            if (!subscriber.accepts(playerUuid, edge, nowNanos)) {
+                continue;
+            }
+            if (sample == null) {
+                // Built lazily: when every subscriber is rate limited, publishing allocates nothing
+                sample = new LoudnessSample(playerUuid, SoundAnalyzer.meanSquareToDecibel(frameMeanSquare), peak,
+                        edge == TalkingEdge.START || (edge == TalkingEdge.NONE && speaker.envelope.isTalking()), edge, nowNanos);
+            }
+            subscriber.deliver(sample);
+        }
+    }
+
+    /**
+     * Sends a silent STOP sample for every talking player whose frames stopped arriving for
+     * {@link #SILENCE_TIMEOUT_NANOS}. Called once per tick, before {@link #drainMainThread()}.
+     *
+     * @param nowNanos current {@link System#nanoTime()}
+     * @return number of players whose talking state ended
+     */
+    public int sweepSilentPlayers(final long nowNanos) {
+        final Subscriber[] current = subscribers;
+        if (current.length == 0) {
+            return 0;
+        }
+        int stopped = 0;
+        for (final var entry : speakers.entrySet()) {
+            if (!entry.getValue().releaseIfSilent(nowNanos)) {
+                continue;
+            }
+            stopped++;
+            final LoudnessSample sample = new LoudnessSample(entry.getKey(), SoundAnalyzer.meanSquareToDecibel(0.0), 0,
+                    false, TalkingEdge.STOP, nowNanos);
+            for (final Subscriber subscriber : current) {
+                subscriber.deliver(sample);
+            }
+        }
+        return stopped;
+    }
+
+    /**
+     * Delivers buffered samples to main-thread subscribers. Called once per tick on the main thread.
+     */
+    public void drainMainThread() {
+        for (final Subscriber subscriber : subscribers) {
+            if (subscriber.delivery == Delivery.MAIN_THREAD) {
+                subscriber.drain();
+            }
+        }
+    }
+
+    /**
+     * Drops the talking state and rate limit slots of a player who left voice chat.
+     */
+    public void removePlayer(final UUID playerUuid) {
+        speakers.remove(playerUuid);
+        for (final Subscriber subscriber : subscribers) {
+            subscriber.rateGate.remove(playerUuid);
+        }
+    }
+
+    /**
+     * Cancels all subscriptions of a plugin, e.g. when it is disabled.
+     *
+     * @return number of cancelled subscriptions
+     */
+    public int cancelAll(final Plugin plugin) {
+        final List<Subscriber> owned = new ArrayList<>();
+        for (final Subscriber subscriber : subscribers) {
+            if (subscriber.plugin.equals(plugin)) {
+                owned.add(subscriber);
+            }
+        }
+        owned.forEach(Subscriber::cancel);
+        return owned.size();
+    }
+
+    /**
+     * Cancels every subscription. Used when this plugin is disabled.
+     */
+    public void cancelAll() {
+        for (final Subscriber subscriber : subscribers) {
+            subscriber.cancel();
+        }
+        speakers.clear();
+    }
+
+    private synchronized void removeSubscriber(final Subscriber subscriber) {
+        final Subscriber[] current = subscribers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscriber) {
+                final Subscriber[] updated = new Subscriber[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                subscribers = updated;
+                return;
+            }
+        }
+    }
+}
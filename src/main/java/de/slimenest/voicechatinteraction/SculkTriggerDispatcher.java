@@ -0,0 +1,105 @@
+package de.slimenest.voicechatinteraction;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Collects Sculk trigger requests from voice threads and hands them to the main thread once per tick.
+ * Each player is queued at most once until the next drain, so a loud speaker never
+ * produces more than one main-thread action per tick.
+ */
+public final class SculkTriggerDispatcher {
+
+    /**
+     * A queued trigger together with the arrival time of the packet that caused it.
+     */
+    private record PendingTrigger(UUID playerUuid, long arrivalNanos) {
+    }
+
+    private final ConcurrentLinkedQueue<PendingTrigger> queue = new ConcurrentLinkedQueue<>();
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+    private final ObjLongConsumer<Player> trigger;
+    private final ObjLongConsumer<UUID> discarded;
+
+    /**
+     * @param trigger action executed on the main thread for every pending, still online player;
+     *                receives the {@link System#nanoTime()} arrival time of the triggering packet
+     */
+    public SculkTriggerDispatcher(final ObjLongConsumer<Player> trigger) {
+        this(trigger, (playerUuid, arrivalNanos) -> { });
+    }
+
+    /**
+     * @param trigger   action executed on the main thread for every pending, still online player;
+     *                  receives the {@link System#nanoTime()} arrival time of the triggering packet
+     * @param discarded called instead of the trigger for players who went offline, with the same arrival time
+     */
+    public SculkTriggerDispatcher(final ObjLongConsumer<Player> trigger, final ObjLongConsumer<UUID> discarded) {
+        this.trigger = trigger;
+        this.discarded = discarded;
+    }
+
+    /**
+     * Marks a player as pending. Safe to call from any thread; duplicates are ignored until the next drain.
+     *
+     * @param playerUuid   player to trigger for
+     * @param arrivalNanos {@link System#nanoTime()} at which the triggering packet arrived
+     * @return true if the player was newly queued
+     */
+    public boolean submit(final UUID playerUuid, final long arrivalNanos) {
+        if (pending.add(playerUuid)) {
+            queue.offer(new PendingTrigger(playerUuid, arrivalNanos));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Runs the trigger for pending players. Must be called on the main thread.
+     * Only entries present at the start of the drain are processed; later submissions wait for the next tick.
+     * Entries beyond the limit stay pending (and deduplicated) until the next drain.
+     *
+     * @param maxTriggers maximum number of players to trigger in this drain
+     * @return number of pending entries taken from the queue, at most {@code maxTriggers}
+     */
+    public int drain(final int maxTriggers) {
+        int drained = 0;
+        for (int remaining = Math.min(queue.size(), maxTriggers); remaining > 0; remaining--) {
+            final PendingTrigger next = queue.poll();
+            if (next == null) {
+                break;
+            }
+            pending.remove(next.playerUuid());
+            drained++;
+
+            final Player player = Bukkit.getPlayer(next.playerUuid());
+            if (player != null && player.isOnline()) {
+                trigger.accept(player, next.arrivalNanos());
+            } else {
+                discarded.accept(next.playerUuid(), next.arrivalNanos());
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Discards all pending triggers.
+     */
+    public void clear() {
+        queue.clear();
+        pending.clear();
+    }
+
+    /**
+     * Returns the number of players currently waiting for dispatch.
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+}
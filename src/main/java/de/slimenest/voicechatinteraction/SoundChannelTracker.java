@@ -0,0 +1,417 @@
+package de.slimenest.voicechatinteraction;
+
+import de.maxhenkel.voicechat.api.Position;
+import de.maxhenkel.voicechat.api.VoicechatApi;
+import de.maxhenkel.voicechat.api.VoicechatConnection;
+import de.maxhenkel.voicechat.api.events.SoundPacketEvent;
+import de.maxhenkel.voicechat.api.packets.EntitySoundPacket;
+import de.maxhenkel.voicechat.api.packets.LocationalSoundPacket;
+import de.maxhenkel.voicechat.api.packets.SoundPacket;
+import de.slimenest.voicechatinteraction.config.ServerConfig;
+import de.slimenest.voicechatinteraction.stats.PipelineStats;
+import de.slimenest.voicechatinteraction.stats.RejectReason;
+import de.slimenest.voicechatinteraction.util.CooldownGate;
+import de.slimenest.voicechatinteraction.util.DecoderPool;
+import de.slimenest.voicechatinteraction.util.ListenerIndex;
+import de.slimenest.voicechatinteraction.util.OpusPacketClassifier;
+import de.slimenest.voicechatinteraction.util.PlayerStateCache;
+import de.slimenest.voicechatinteraction.util.SoundAnalyzer;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+import javax.annotation.Nullable;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Feeds audio played through Simple Voice Chat static, locational and entity channels (music discs,
+ * audio player plugins, NPC voices) into the Sculk trigger pipeline, keyed by channel ID instead of player UUID.
+ *
+ * <p>Sound packet events fire once per receiving player, so only the first copy of each frame is analyzed.
+ * Per-channel state (frame time, emitter, cooldown slot and pooled decoder) is held for admitted channels only:
+ * channels idle for {@link #CHANNEL_MAX_IDLE_NANOS} are released, and new channels are refused while
+ * {@code sound_channel_max_tracked} channels are active. Frames are analyzed inline on the thread sending them,
+ * which for plugin channels is the sending plugin's audio thread.</p>
+ */
+public final class SoundChannelTracker {
+
+    /**
+     * Kind of Simple Voice Chat audio channel.
+     */
+    public enum ChannelType {
+        /** Plays to the receiver without a position. */
+        STATIC,
+        /** Plays at a fixed position. */
+        LOCATIONAL,
+        /** Follows an entity. */
+        ENTITY
+    }
+
+    /**
+     * Where the game event of a channel is emitted.
+     */
+    public enum EmitterMode {
+        /** At the channel's position or entity; static channels have neither and use the receiver. */
+        SOURCE,
+        /** At the player who received the analyzed frame. */
+        RECEIVER;
+
+        /**
+         * Parses a config value, falling back to {@link #SOURCE}.
+         */
+        public static EmitterMode parse(final String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (final IllegalArgumentException e) {
+                return SOURCE;
+            }
+        }
+    }
+
+    /** Copies of a frame sent to several receivers arrive within microseconds; channel frames are 20 ms apart. */
+    private static final long FRAME_DEDUP_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    /** Channels without audio for this long are released; short clips and sound effects come and go quickly. */
+    private static final long CHANNEL_MAX_IDLE_NANOS = TimeUnit.SECONDS.toNanos(5);
+    /** Minimum time between idle sweeps triggered by a full table. */
+    private static final long FULL_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int LISTENER_RANGE_BLOCKS = 16;
+
+    /**
+     * Where to emit the game event: at a position, or at an entity looked up when the trigger is dispatched.
+     */
+    private record Emitter(@Nullable UUID entityUuid, @Nullable UUID worldId, double x, double y, double z) {
+    }
+
+    /**
+     * A queued channel trigger together with the arrival time of the frame that caused it.
+     */
+    private record PendingTrigger(UUID channelId, Emitter emitter, long arrivalNanos) {
+    }
+
+    /**
+     * State of an admitted channel. The cooldown and decoder are kept in the shared gate and pool under the channel ID.
+     */
+    private static final class Channel {
+        private final AtomicLong lastFrameNanos;
+
+        private Channel(final long nowNanos) {
+            this.lastFrameNanos = new AtomicLong(nowNanos - FRAME_DEDUP_NANOS);
+        }
+
+        /**
+         * Claims the frame for analysis; false for further copies of a frame already claimed for another receiver.
+         */
+        private boolean claimFrame(final long nowNanos) {
+            final long last = lastFrameNanos.get();
+            return nowNanos - last >= FRAME_DEDUP_NANOS && lastFrameNanos.compareAndSet(last, nowNanos);
+        }
+    }
+
+    private final PipelineStats stats;
+    private final ListenerIndex listenerIndex;
+    private final PlayerStateCache playerStates;
+    private final ConcurrentHashMap<UUID, Channel> channels = new ConcurrentHashMap<>();
+    private final DecoderPool decoderPool = new DecoderPool(VoiceChatInteraction.logger);
+    private final CooldownGate cooldownGate = new CooldownGate();
+    private final ConcurrentLinkedQueue<PendingTrigger> queue = new ConcurrentLinkedQueue<>();
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicLong lastFullSweepNanos = new AtomicLong(System.nanoTime() - FULL_SWEEP_INTERVAL_NANOS);
+    private final LongAdder refusedChannels = new LongAdder();
+
+    /**
+     * @param stats         counters for plugin channel packets, separate from the microphone pipeline
+     * @param listenerIndex index used to skip channels nobody can hear
+     * @param playerStates  player snapshots providing receiver positions
+     */
+    public SoundChannelTracker(final PipelineStats stats, final ListenerIndex listenerIndex,
+                               final PlayerStateCache playerStates) {
+        this.stats = stats;
+        this.listenerIndex = listenerIndex;
+        this.playerStates = playerStates;
+    }
+
+    /**
+     * Handles one sound packet sent to one receiver. Only plugin audio is handled; player voice already
+     * reaches the pipeline as a microphone packet.
+     *
+     * @param adjustments governor snapshot providing the configuration and load adjustments for this packet
+     */
+    public void onSoundPacket(final SoundPacketEvent<?> event, final ChannelType type,
+                              final LoadGovernor.Adjustments adjustments) {
+        final ServerConfig config = adjustments.config();
+        if (!isEnabled(type, config) || !SoundPacketEvent.SOURCE_PLUGIN.equals(event.getSource())) {
+            return;
+        }
+        final VoicechatConnection receiver = event.getReceiverConnection();
+        final SoundPacket packet = event.getPacket();
+        final byte[] encodedData = packet.getOpusEncodedData();
+        if (receiver == null || encodedData.length == 0) {
+            return;
+        }
+
+        final long arrivalNanos = System.nanoTime();
+        final UUID channelId = packet.getChannelId();
+        final Channel channel = admit(channelId, arrivalNanos, config.soundChannelMaxTracked);
+        if (channel == null) {
+            refusedChannels.increment();
+            return;
+        }
+        if (!channel.claimFrame(arrivalNanos)) {
+            return;
+        }
+        stats.recordReceived();
+
+        final Emitter emitter = resolveEmitter(type, packet, receiver.getPlayer().getUuid(), config.soundChannelEmitter);
+        if (emitter == null) {
+            stats.recordRejected(RejectReason.NOT_READY);
+            return;
+        }
+        // Entities other than players have no known position off the main thread, so they are not filtered here
+        if (config.requireNearbyListener && emitter.worldId() != null
+                && !listenerIndex.hasListenerNear(emitter.worldId(), (int) Math.floor(emitter.x()),
+                        (int) Math.floor(emitter.z()), LISTENER_RANGE_BLOCKS)) {
+            stats.recordRejected(RejectReason.NO_LISTENER);
+            return;
+        }
+        if (cooldownGate.isCoolingDown(channelId, arrivalNanos, adjustments.cooldownNanos())) {
+            stats.recordRejected(RejectReason.COOLDOWN);
+            return;
+        }
+
+        final double threshold = config.activationMeanSquareThreshold * adjustments.thresholdFactor();
+        final double frameLevel = measureFrameLevel(event.getVoicechat(), channelId, encodedData, config, threshold);
+        if (Double.isNaN(frameLevel)) {
+            stats.recordRejected(RejectReason.DECODE_FAILED);
+            return;
+        }
+        if (frameLevel < threshold) {
+            stats.recordRejected(RejectReason.THRESHOLD);
+            return;
+        }
+        if (!cooldownGate.tryAcquire(channelId, System.nanoTime(), adjustments.cooldownNanos())) {
+            stats.recordRejected(RejectReason.COOLDOWN);
+            return;
+        }
+        if (pending.add(channelId)) {
+            queue.offer(new PendingTrigger(channelId, emitter, arrivalNanos));
+            stats.recordDispatched();
+        }
+    }
+
+    private static boolean isEnabled(final ChannelType type, final ServerConfig config) {
+        return switch (type) {
+            case STATIC -> config.soundChannelsStaticEnabled;
+            case LOCATIONAL -> config.soundChannelsLocationalEnabled;
+            case ENTITY -> config.soundChannelsEntityEnabled;
+        };
+    }
+
+    /**
+     * Returns the state of a channel, creating it if fewer than the maximum number of channels are tracked.
+     * A full table is swept for idle channels at most once per second. Concurrent admissions may exceed
+     * the limit by a few entries.
+     *
+     * @return the channel state, or null if the channel was refused
+     */
+    @Nullable
+    private Channel admit(final UUID channelId, final long nowNanos, final int maxChannels) {
+        final Channel existing = channels.get(channelId);
+        if (existing != null) {
+            return existing;
+        }
+        if (channels.size() >= maxChannels) {
+            final long lastSweep = lastFullSweepNanos.get();
+            if (nowNanos - lastSweep < FULL_SWEEP_INTERVAL_NANOS || !lastFullSweepNanos.compareAndSet(lastSweep, nowNanos)) {
+                return null;
+            }
+            evictIdle(nowNanos);
+            if (channels.size() >= maxChannels) {
+                return null;
+            }
+        }
+        final Channel created = new Channel(nowNanos);
+        final Channel raced = channels.putIfAbsent(channelId, created);
+        return raced != null ? raced : created;
+    }
+
+    /**
+     * Determines where a triggered frame would be emitted and the position used for the listener check.
+     *
+     * @return the emitter, or null if the receiver has no state snapshot yet
+     */
+    @Nullable
+    private Emitter resolveEmitter(final ChannelType type, final SoundPacket packet, final UUID receiverUuid,
+                                   final EmitterMode mode) {
+        if (mode == EmitterMode.SOURCE && type == ChannelType.ENTITY) {
+            final UUID entityUuid = ((EntitySoundPacket) packet).getEntityUuid();
+            final PlayerStateCache.Snapshot entityState = playerStates.get(entityUuid);
+            return entityState == null
+                    ? new Emitter(entityUuid, null, 0.0, 0.0, 0.0)
+                    : new Emitter(entityUuid, entityState.worldId(), entityState.blockX(), 0.0, entityState.blockZ());
+        }
+        final PlayerStateCache.Snapshot receiverState = playerStates.get(receiverUuid);
+        if (receiverState == null) {
+            return null;
+        }
+        if (mode == EmitterMode.SOURCE && type == ChannelType.LOCATIONAL) {
+            // Locational audio plays in the receiver's world
+            final Position position = ((LocationalSoundPacket) packet).getPosition();
+            return new Emitter(null, receiverState.worldId(), position.getX(), position.getY(), position.getZ());
+        }
+        return new Emitter(receiverUuid, receiverState.worldId(), receiverState.blockX(), 0.0, receiverState.blockZ());
+    }
+
+    /**
+     * Measures the loudness of a channel frame as mean square of its PCM samples, using the same
+     * Opus pre-classification as the microphone path. Channels use the global threshold; noise floors,
+     * the envelope and the speech band filter only apply to players.
+     *
+     * @return mean square level, or NaN if the packet could not be decoded
+     */
+    private double measureFrameLevel(final VoicechatApi api, final UUID channelId, final byte[] encodedData,
+                                     final ServerConfig config, final double threshold) {
+        if (config.opusPreclassifierEnabled) {
+            switch (OpusPacketClassifier.classify(encodedData, config.opusSilenceMaxBytes, config.opusLoudMinBytes)) {
+                case SILENT -> {
+                    stats.recordPreclassifiedSilent();
+                    return 0.0;
+                }
+                case LOUD -> {
+                    stats.recordPreclassifiedLoud();
+                    return threshold * OpusPacketClassifier.LOUD_LEVEL_FACTOR;
+                }
+                case AMBIGUOUS -> {
+                    // Fall through to full decode
+                }
+            }
+        }
+
+        final long decodeStartNanos = System.nanoTime();
+        final short[] audioSamples;
+        try {
+            audioSamples = decoderPool.decode(api, channelId, encodedData);
+        } catch (final Exception e) {
+            VoiceChatInteraction.logger.warning("Channel audio decoding failed: " + e.getMessage());
+            return Double.NaN;
+        }
+        if (audioSamples == null) {
+            return Double.NaN;
+        }
+        final double meanSquare = SoundAnalyzer.analyzeFrame(audioSamples, 0, audioSamples.length).meanSquare();
+        stats.recordDecoded(System.nanoTime() - decodeStartNanos);
+        return meanSquare;
+    }
+
+    /**
+     * Emits the game events of pending channel triggers. Must be called on the main thread.
+     *
+     * @param maxTriggers maximum number of channels to trigger in this drain
+     * @return number of pending entries taken from the queue, at most {@code maxTriggers}
+     */
+    public int drain(final int maxTriggers) {
+        int drained = 0;
+        for (int remaining = Math.min(queue.size(), maxTriggers); remaining > 0; remaining--) {
+            final PendingTrigger next = queue.poll();
+            if (next == null) {
+                break;
+            }
+            pending.remove(next.channelId());
+            drained++;
+            emit(next.emitter(), next.arrivalNanos());
+        }
+        return drained;
+    }
+
+    /**
+     * Hands the game event to the thread owning the emitter. Entities that are gone are skipped.
+     */
+    private void emit(final Emitter emitter, final long arrivalNanos) {
+        if (emitter.entityUuid() != null) {
+            final Entity entity = Bukkit.getEntity(emitter.entityUuid());
+            if (entity != null && entity.isValid()) {
+                VoiceChatInteraction.scheduler.runForEntity(entity, () -> {
+                    entity.getWorld().sendGameEvent(entity, VoiceChatInteraction.voiceGameEvent,
+                            entity.getLocation().toVector());
+                    stats.recordEmitted(System.nanoTime() - arrivalNanos);
+                });
+            }
+            return;
+        }
+        final World world = emitter.worldId() == null ? null : Bukkit.getWorld(emitter.worldId());
+        if (world == null) {
+            return;
+        }
+        final Location location = new Location(world, emitter.x(), emitter.y(), emitter.z());
+        VoiceChatInteraction.scheduler.runAtLocation(location, () -> {
+            world.sendGameEvent(null, VoiceChatInteraction.voiceGameEvent, location.toVector());
+            stats.recordEmitted(System.nanoTime() - arrivalNanos);
+        });
+    }
+
+    /**
+     * Releases channels that have not sent audio for {@link #CHANNEL_MAX_IDLE_NANOS}, with their decoder and cooldown.
+     *
+     * @return number of released channels
+     */
+    public int evictIdle() {
+        return evictIdle(System.nanoTime());
+    }
+
+    private int evictIdle(final long nowNanos) {
+        int evicted = 0;
+        for (final Map.Entry<UUID, Channel> entry : channels.entrySet()) {
+            final Channel channel = entry.getValue();
+            if (nowNanos - channel.lastFrameNanos.get() > CHANNEL_MAX_IDLE_NANOS
+                    && channels.remove(entry.getKey(), channel)) {
+                decoderPool.evict(entry.getKey());
+                cooldownGate.remove(entry.getKey());
+                evicted++;
+            }
+        }
+        // Decoders of channels evicted while a frame was being decoded
+        decoderPool.evictIdle(CHANNEL_MAX_IDLE_NANOS);
+        return evicted;
+    }
+
+    /**
+     * Releases all channels and closes their decoders. Used on disable and voice server shutdown.
+     *
+     * @return number of closed decoders
+     */
+    public int closeAll() {
+        channels.clear();
+        cooldownGate.clear();
+        return decoderPool.closeAll();
+    }
+
+    /**
+     * Discards all queued channel triggers.
+     */
+    public void clear() {
+        queue.clear();
+        pending.clear();
+    }
+
+    /**
+     * Returns a one-line summary of the tracked channels for the stats report.
+     */
+    public String describe() {
+        return "sound channels: " + channels.size()
+                + ", channel decoders: " + decoderPool.size()
+                + ", refused channel packets: " + refusedChannels.sum()
+                + ", pending channel triggers: " + pending.size()
+                + ", channel packets received: " + stats.getReceived()
+                + ", decoded: " + stats.getDecoded()
+                + ", dispatched: " + stats.getDispatched()
+                + ", emitted: " + stats.getEmitted();
+    }
+}
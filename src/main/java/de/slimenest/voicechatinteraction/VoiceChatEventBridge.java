@@ -2,15 +2,40 @@ package de.slimenest.voicechatinteraction;
 
 import de.maxhenkel.voicechat.api.*;
 import de.maxhenkel.voicechat.api.events.*;
-import de.maxhenkel.voicechat.api.opus.OpusDecoder;
+import de.slimenest.voicechatinteraction.config.RuleProfile;
+import de.slimenest.voicechatinteraction.config.ServerConfig;
+import de.slimenest.voicechatinteraction.stats.PipelineStats;
+import de.slimenest.voicechatinteraction.stats.RejectReason;
+import de.slimenest.voicechatinteraction.stats.TraceRecorder;
+import de.slimenest.voicechatinteraction.util.AnalysisWorkerPool;
+import de.slimenest.voicechatinteraction.util.CooldownGate;
+import de.slimenest.voicechatinteraction.util.DecoderPool;
+import de.slimenest.voicechatinteraction.util.FrameFeatures;
+import de.slimenest.voicechatinteraction.util.ListenerIndex;
+import de.slimenest.voicechatinteraction.util.LoudnessEnvelope;
+import de.slimenest.voicechatinteraction.util.NoiseFloor;
+import de.slimenest.voicechatinteraction.util.NoiseFloorRegistry;
+import de.slimenest.voicechatinteraction.util.OpusPacketClassifier;
+import de.slimenest.voicechatinteraction.util.PlayerStateCache;
 import de.slimenest.voicechatinteraction.util.SoundAnalyzer;
+import de.slimenest.voicechatinteraction.util.SpeechBandAnalyzer;
+import de.slimenest.voicechatinteraction.util.ToggleStore;
+import io.papermc.paper.persistence.PersistentDataContainerView;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.NamespacedKey;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -20,9 +45,53 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class VoiceChatEventBridge implements VoicechatPlugin {
 
-    private static final ConcurrentHashMap<UUID, Long> playerCooldowns = new ConcurrentHashMap<>();
-    private static final NamespacedKey TOGGLE_KEY = new NamespacedKey(VoiceChatInteraction.instance, "interaction_toggle");
+    /** Largest vibration listening range in blocks (Warden and calibrated Sculk sensor). */
+    public static final int LISTENER_RANGE_BLOCKS = 16;
 
+    private final DecoderPool decoderPool = new DecoderPool(VoiceChatInteraction.logger);
+    private final CooldownGate cooldownGate = new CooldownGate();
+    private final PlayerStateCache playerStates = new PlayerStateCache();
+    private final ConcurrentHashMap<UUID, LoudnessEnvelope> envelopes = new ConcurrentHashMap<>();
+    private final PipelineStats stats = new PipelineStats();
+    /** Plugin audio channels are counted separately so they do not skew the microphone pipeline numbers. */
+    private final PipelineStats channelStats = new PipelineStats();
+    private final ListenerIndex listenerIndex = new ListenerIndex();
+    private final LoudnessPublisher loudnessPublisher = new LoudnessPublisher();
+    private final LevelMonitor levelMonitor = new LevelMonitor();
+    private final Path traceDirectory;
+    private volatile TraceRecorder traceRecorder;
+    private long traceRecorderBytes;
+    private final SoundChannelTracker soundChannels = new SoundChannelTracker(channelStats, listenerIndex, playerStates);
+    /** Legacy location of the toggle state; imported into the {@link ToggleStore} on the first start. */
+    private final NamespacedKey toggleKey;
+    private final ToggleStore toggleStore;
+    private volatile boolean legacyToggleImportRunning;
+    private final NoiseFloorRegistry noiseFloors;
+    private final LoadGovernor loadGovernor = new LoadGovernor(VoiceChatInteraction.config);
+    @Nullable
+    private volatile AnalysisWorkerPool<AnalysisJob> workerPool;
+
+    /**
+     * A frame handed off to the analysis workers. The payload is a private copy; the settings and the rule
+     * profile are the snapshots the packet was filtered with, so the worker judges it by the same configuration.
+     * Frames that cannot trigger are only queued while loudness subscribers exist.
+     */
+    private record AnalysisJob(VoicechatApi api, UUID playerUuid, byte[] encodedData, long arrivalNanos,
+                               LoadGovernor.Adjustments adjustments, RuleProfile profile, boolean triggerCandidate) {
+    }
+    private final SculkTriggerDispatcher triggerDispatcher = new SculkTriggerDispatcher(this::triggerSculkEvent,
+            this::releaseCooldown);
+
+    /**
+     * @param plugin owning plugin; provides the toggle key namespace and the data folder for player data files
+     */
+    public VoiceChatEventBridge(final Plugin plugin) {
+        this.toggleKey = new NamespacedKey(plugin, "interaction_toggle");
+        final Path dataFolder = plugin.getDataFolder().toPath();
+        this.toggleStore = new ToggleStore(dataFolder.resolve("toggles.dat"));
+        this.noiseFloors = new NoiseFloorRegistry(dataFolder.resolve("noise_floors.dat"));
+        this.traceDirectory = dataFolder.resolve("traces");
+    }
 
     @Override
     public String getPluginId() {
@@ -37,7 +106,15 @@ public class VoiceChatEventBridge implements VoicechatPlugin {
     @Override
     public void registerEvents(final EventRegistration registration) {
         registration.registerEvent(VoicechatServerStartedEvent.class, this::onServerStart);
+        registration.registerEvent(VoicechatServerStoppedEvent.class, this::onServerStop);
+        registration.registerEvent(PlayerDisconnectedEvent.class, this::onPlayerDisconnected);
         registration.registerEvent(MicrophonePacketEvent.class, this::onMicrophonePacket);
+        registration.registerEvent(StaticSoundPacketEvent.class,
+                event -> onSoundPacket(event, SoundChannelTracker.ChannelType.STATIC));
+        registration.registerEvent(LocationalSoundPacketEvent.class,
+                event -> onSoundPacket(event, SoundChannelTracker.ChannelType.LOCATIONAL));
+        registration.registerEvent(EntitySoundPacketEvent.class,
+                event -> onSoundPacket(event, SoundChannelTracker.ChannelType.ENTITY));
     }
 
     /**
@@ -48,102 +125,272 @@ public class VoiceChatEventBridge implements VoicechatPlugin {
         VoiceChatInteraction.logger.info("Voice chat server integration established");
     }
 
+    /**
+     * Releases all native decoders when the voice chat server shuts down.
+     */
+    private void onServerStop(final VoicechatServerStoppedEvent event) {
+        decoderPool.closeAll();
+        soundChannels.closeAll();
+    }
+
+    /**
+     * Releases the decoder and cooldown slot of a player leaving voice chat.
+     */
+    private void onPlayerDisconnected(final PlayerDisconnectedEvent event) {
+        decoderPool.evict(event.getPlayerUuid());
+        cooldownGate.remove(event.getPlayerUuid());
+        envelopes.remove(event.getPlayerUuid());
+        loudnessPublisher.removePlayer(event.getPlayerUuid());
+    }
+
+    /**
+     * Hands audio of plugin channels (static, locational, entity) to the channel tracker.
+     */
+    private void onSoundPacket(final SoundPacketEvent<?> event, final SoundChannelTracker.ChannelType type) {
+        soundChannels.onSoundPacket(event, type, loadGovernor.current());
+    }
+
     /**
      * Main handler for incoming microphone packets from players.
      * Processes audio and triggers Sculk events if conditions are met.
      */
     private void onMicrophonePacket(final MicrophonePacketEvent event) {
-        final VoicechatConnection connection = event.getSenderConnection();
+        final long arrivalNanos = System.nanoTime();
+        stats.recordReceived();
+        
+        // Single snapshot read: configuration and load adjustments stay consistent for the whole packet
+        final LoadGovernor.Adjustments adjustments = loadGovernor.current();
+        final ServerConfig config = adjustments.config();
         
-        // Early validation checks
-        if (!isValidPacket(connection, event)) {
+        final VoicechatConnection connection = event.getSenderConnection();
+        final byte[] encodedData = event.getPacket().getOpusEncodedData();
+        if (connection == null || encodedData.length == 0) {
+            stats.recordRejected(RejectReason.INVALID);
             return;
         }
         
-        // Additional null check for IDE safety (connection is already validated above)
-        if (connection == null) {
+        final UUID playerUuid = connection.getPlayer().getUuid();
+        // The profile was resolved on the main thread; reading it here is a single reference read
+        final PlayerStateCache.Snapshot state = playerStates.get(playerUuid);
+        final RuleProfile profile = state != null ? state.profile() : config.profiles.defaultProfile();
+        final RejectReason rejection = checkTrigger(connection, event, playerUuid, state, profile, adjustments, arrivalNanos);
+        if (rejection != null) {
+            stats.recordRejected(rejection);
+            recordOutcome(playerUuid, arrivalNanos, Double.NaN, Double.NaN, rejection, config, profile, null);
+            // The frame cannot trigger, but loudness subscribers and monitors still want it measured
+            if (!loudnessPublisher.hasSubscribers() && levelMonitor.slot(playerUuid) == null) {
+                return;
+            }
+        }
+        
+        // Hand decoding off to the worker pool so the voice thread returns in constant time
+        final AnalysisWorkerPool<AnalysisJob> pool = workerPool;
+        if (pool != null) {
+            pool.submit(playerUuid, new AnalysisJob(event.getVoicechat(), playerUuid, encodedData.clone(), arrivalNanos,
+                    adjustments, profile, rejection == null));
             return;
         }
         
-        final ServerPlayer voicePlayer = connection.getPlayer();
-        final Player bukkitPlayer = extractBukkitPlayer(voicePlayer);
+        analyzeFrame(event.getVoicechat(), playerUuid, encodedData, arrivalNanos, adjustments, profile, rejection == null);
+    }
+
+    /**
+     * Runs the cheap checks deciding whether a packet could trigger at all, in order of cost.
+     *
+     * @return the rejection reason, or null if the packet may trigger
+     */
+    @Nullable
+    private RejectReason checkTrigger(final VoicechatConnection connection, final MicrophonePacketEvent event,
+                                      final UUID playerUuid, @Nullable final PlayerStateCache.Snapshot state,
+                                      final RuleProfile profile, final LoadGovernor.Adjustments adjustments,
+                                      final long arrivalNanos) {
+        final ServerConfig config = adjustments.config();
+        final RejectReason packetRejection = validatePacket(connection, event, profile);
+        if (packetRejection != null) {
+            return packetRejection;
+        }
         
-        if (bukkitPlayer == null || !shouldProcessPlayer(bukkitPlayer)) {
-            return;
+        final RejectReason playerRejection = checkPlayer(state, profile);
+        if (playerRejection != null) {
+            return playerRejection;
         }
         
-        final short[] audioSamples = decodeAudioSafely(event);
-        if (audioSamples == null || !meetsVolumeThreshold(audioSamples)) {
-            return;
+        // Nothing nearby can hear the player, so there is no point in decoding
+        if (config.requireNearbyListener
+                && !listenerIndex.hasListenerNear(state.worldId(), state.blockX(), state.blockZ(), LISTENER_RANGE_BLOCKS)) {
+            return RejectReason.NO_LISTENER;
         }
         
-        scheduleSculkTrigger(voicePlayer, bukkitPlayer);
+        // Packets inside the cooldown window can never trigger, so skip decoding them entirely.
+        // The envelope follower needs every frame, and a trace needs their levels to replay shorter cooldowns,
+        // so this shortcut only applies without both.
+        if (!config.envelopeEnabled && traceRecorder == null
+                && cooldownGate.isCoolingDown(playerUuid, arrivalNanos, adjustments.cooldownNanos(profile.activationCooldownNanos()))) {
+            return RejectReason.COOLDOWN;
+        }
+        return null;
     }
 
     /**
-     * Validates the incoming voice packet and connection.
+     * Decodes and analyzes a frame, publishes its loudness and, for trigger candidates, claims the cooldown
+     * and queues the trigger. Runs on the voice thread or on an analysis worker.
+     *
+     * @param triggerCandidate whether the frame passed all trigger checks; false if it is only measured for subscribers
      */
-    private boolean isValidPacket(@Nullable final VoicechatConnection connection, final MicrophonePacketEvent event) {
-        if (connection == null) {
-            return false;
-        }
+    private void analyzeFrame(final VoicechatApi api, final UUID playerUuid, final byte[] encodedData,
+                              final long arrivalNanos, final LoadGovernor.Adjustments adjustments,
+                              final RuleProfile profile, final boolean triggerCandidate) {
+        final ServerConfig config = adjustments.config();
+        final NoiseFloor noiseFloor = config.noiseFloorEnabled ? noiseFloors.getOrCreate(playerUuid) : null;
+        final double activationThreshold = activationThreshold(noiseFloor, config, profile) * adjustments.thresholdFactor();
         
-        final byte[] encodedData = event.getPacket().getOpusEncodedData();
-        if (encodedData.length == 0) {
-            return false;
+        final OpusPacketClassifier.Verdict verdict = preclassify(playerUuid, encodedData, config, noiseFloor);
+        final double frameLevel = measureFrameLevel(api, playerUuid, encodedData, config, activationThreshold,
+                noiseFloor, verdict);
+        if (!triggerCandidate) {
+            // Already counted with its rejection reason
+            final LevelMonitor.Slot slot = levelMonitor.slot(playerUuid);
+            if (slot != null) {
+                slot.publishLevel(frameLevel, activationThreshold);
+            }
+            return;
+        }
+        if (Double.isNaN(frameLevel)) {
+            stats.recordRejected(RejectReason.DECODE_FAILED);
+            recordOutcome(playerUuid, arrivalNanos, Double.NaN, activationThreshold, RejectReason.DECODE_FAILED,
+                    config, profile, verdict);
+            return;
         }
         
-        // Check configuration-based filters
-        if (!VoiceChatInteraction.config.enableGroupVoice && connection.isInGroup()) {
-            return false;
+        if (!isTalking(playerUuid, frameLevel, config, activationThreshold)) {
+            stats.recordRejected(RejectReason.THRESHOLD);
+            recordOutcome(playerUuid, arrivalNanos, frameLevel, activationThreshold, RejectReason.THRESHOLD,
+                    config, profile, verdict);
+            return;
         }
         
-        if (!VoiceChatInteraction.config.enableWhisperVoice && event.getPacket().isWhispering()) {
-            return false;
+        // Acquired at the arrival time, so a discarded trigger can give back exactly this window
+        if (!cooldownGate.tryAcquire(playerUuid, arrivalNanos, adjustments.cooldownNanos(profile.activationCooldownNanos()))) {
+            stats.recordRejected(RejectReason.COOLDOWN);
+            recordOutcome(playerUuid, arrivalNanos, frameLevel, activationThreshold, RejectReason.COOLDOWN,
+                    config, profile, verdict);
+            return;
         }
         
-        return true;
+        recordOutcome(playerUuid, arrivalNanos, frameLevel, activationThreshold, null, config, profile, verdict);
+        scheduleSculkTrigger(playerUuid, arrivalNanos);
     }
 
     /**
-     * Extracts the Bukkit player from the voice chat player.
+     * Writes the outcome of a frame to the trace recorder, if recording, and to the player's monitor slot,
+     * if monitored. The configuration and profile are the snapshots the frame was judged by.
+     *
+     * @param verdict pre-classification the level was taken from, or null if the frame was rejected before it
+     */
+    private void recordOutcome(final UUID playerUuid, final long arrivalNanos, final double levelMeanSquare,
+                               final double thresholdMeanSquare, @Nullable final RejectReason rejection,
+                               final ServerConfig config, final RuleProfile profile,
+                               @Nullable final OpusPacketClassifier.Verdict verdict) {
+        final TraceRecorder recorder = traceRecorder;
+        if (recorder != null) {
+            recorder.record(playerUuid, arrivalNanos, levelMeanSquare, thresholdMeanSquare, rejection,
+                    traceFlags(verdict, profile, config), profile);
+        }
+        final LevelMonitor.Slot slot = levelMonitor.slot(playerUuid);
+        if (slot != null) {
+            slot.publishOutcome(levelMeanSquare, thresholdMeanSquare, envelopeState(playerUuid, config), rejection);
+        }
+    }
+
+    /**
+     * Returns the trace flags of a frame: whether its level came from the pre-classifier and whether a
+     * profile other than the default one applied.
+     */
+    private static int traceFlags(@Nullable final OpusPacketClassifier.Verdict verdict, final RuleProfile profile,
+                                  final ServerConfig config) {
+        int flags = profile == config.profiles.defaultProfile() ? 0 : TraceRecorder.FLAG_PROFILED;
+        if (verdict == OpusPacketClassifier.Verdict.SILENT) {
+            flags |= TraceRecorder.FLAG_PRECLASSIFIED_SILENT;
+        } else if (verdict == OpusPacketClassifier.Verdict.LOUD) {
+            flags |= TraceRecorder.FLAG_PRECLASSIFIED_LOUD;
+        }
+        return flags;
+    }
+
+    /**
+     * Returns the state of the player's envelope for the monitor.
+     */
+    private LevelMonitor.EnvelopeState envelopeState(final UUID playerUuid, final ServerConfig config) {
+        final LoudnessEnvelope envelope = config.envelopeEnabled ? envelopes.get(playerUuid) : null;
+        if (envelope == null) {
+            return LevelMonitor.EnvelopeState.OFF;
+        }
+        return envelope.isTalking() ? LevelMonitor.EnvelopeState.TALKING : LevelMonitor.EnvelopeState.QUIET;
+    }
+
+    /**
+     * Returns the activation threshold of a speaker before load shedding: relative to the speaker's
+     * calibrated noise floor, raised or lowered as far as the profile's threshold differs from the global one,
+     * within the configured bounds; or the threshold of the speaker's profile before calibration.
+     */
+    private static double activationThreshold(@Nullable final NoiseFloor noiseFloor, final ServerConfig config,
+                                              final RuleProfile profile) {
+        if (noiseFloor == null || !noiseFloor.isCalibrated()) {
+            return profile.activationMeanSquareThreshold();
+        }
+        return noiseFloor.activationThreshold(config.noiseFloorMarginFactor * profile.noiseFloorOffsetFactor(),
+                config.noiseFloorMinThresholdMeanSquare, config.noiseFloorMaxThresholdMeanSquare);
+    }
+
+    /**
+     * Applies the group and whisper filters of the speaker's profile to the packet.
+     *
+     * @return the rejection reason, or null if the packet is allowed
      */
     @Nullable
-    private Player extractBukkitPlayer(final ServerPlayer voicePlayer) {
-        if (!(voicePlayer.getPlayer() instanceof Player bukkitPlayer)) {
-            VoiceChatInteraction.logger.warning("Received microphone packet from non-Bukkit player");
-            return null;
+    private RejectReason validatePacket(final VoicechatConnection connection, final MicrophonePacketEvent event,
+                                        final RuleProfile profile) {
+        // Check configuration-based filters
+        if (!profile.enableGroupVoice() && connection.isInGroup()) {
+            return RejectReason.GROUP;
+        }
+        
+        if (!profile.enableWhisperVoice() && event.getPacket().isWhispering()) {
+            return RejectReason.WHISPER;
         }
-        return bukkitPlayer;
+        
+        return null;
     }
 
     /**
-     * Determines if the player should be processed based on interaction settings.
+     * Determines if the player should be processed based on the cached state snapshot.
+     * Players without a snapshot (not fully joined yet) are skipped.
+     *
+     * @return the rejection reason, or null if the player should be processed
      */
-    private boolean shouldProcessPlayer(final Player player) {
+    @Nullable
+    private RejectReason checkPlayer(@Nullable final PlayerStateCache.Snapshot state, final RuleProfile profile) {
+        if (state == null) {
+            return RejectReason.NOT_READY;
+        }
+        
         // Check sneak interaction setting
-        if (player.isSneaking() && !VoiceChatInteraction.config.enableSneakVoice) {
-            return false;
+        if (state.sneaking() && !profile.enableSneakVoice()) {
+            return RejectReason.SNEAK;
         }
         
         // Check if player has interactions enabled
-        return isPlayerToggleEnabled(player);
+        return state.toggleEnabled() ? null : RejectReason.TOGGLE;
     }
 
     /**
-     * Safely decodes audio from the voice packet.
+     * Safely decodes audio from the voice packet using the sender's pooled decoder.
+     * Decoder creation failures are logged by the pool, once per sender.
      */
     @Nullable
-    private short[] decodeAudioSafely(final MicrophonePacketEvent event) {
-        final OpusDecoder decoder = event.getVoicechat().createDecoder();
-        if (decoder == null) {
-            VoiceChatInteraction.logger.warning("Failed to create OpusDecoder for audio processing");
-            return null;
-        }
-        
+    private short[] decodeAudioSafely(final VoicechatApi api, final UUID senderUuid, final byte[] encodedData) {
         try {
-            decoder.resetState();
-            return decoder.decode(event.getPacket().getOpusEncodedData());
+            return decoderPool.decode(api, senderUuid, encodedData);
         } catch (final Exception e) {
             VoiceChatInteraction.logger.warning("Audio decoding failed: " + e.getMessage());
             return null;
@@ -151,78 +398,559 @@ public class VoiceChatEventBridge implements VoicechatPlugin {
     }
 
     /**
-     * Checks if the audio meets the configured volume threshold.
+     * Classifies a packet from its Opus metadata, if the pre-classifier is enabled.
+     * Loud packets are decoded anyway while the speech band filter or the noise floor is enabled, since both need
+     * the samples, and while loudness subscribers exist or the player is monitored, so they get a real level.
+     *
+     * @return the verdict to take without decoding, or {@link OpusPacketClassifier.Verdict#AMBIGUOUS} to decode
      */
-    private boolean meetsVolumeThreshold(final short[] samples) {
-        final double decibelLevel = SoundAnalyzer.computeDecibelLevel(samples);
-        return decibelLevel >= VoiceChatInteraction.config.activationDbThreshold;
+    private OpusPacketClassifier.Verdict preclassify(final UUID playerUuid, final byte[] encodedData,
+                                                     final ServerConfig config, @Nullable final NoiseFloor noiseFloor) {
+        if (!config.opusPreclassifierEnabled) {
+            return OpusPacketClassifier.Verdict.AMBIGUOUS;
+        }
+        final OpusPacketClassifier.Verdict verdict =
+                OpusPacketClassifier.classify(encodedData, config.opusSilenceMaxBytes, config.opusLoudMinBytes);
+        // Without samples, a loud packet would skip the speech band check and the noise floor
+        if (verdict == OpusPacketClassifier.Verdict.LOUD && (config.speechBandFilterEnabled || noiseFloor != null
+                || loudnessPublisher.hasSubscribers() || levelMonitor.slot(playerUuid) != null)) {
+            return OpusPacketClassifier.Verdict.AMBIGUOUS;
+        }
+        return verdict;
     }
 
     /**
-     * Schedules the Sculk event trigger on the main server thread.
+     * Measures the loudness of a packet as mean square of its PCM samples.
+     * Packets pre-classified as silent or loud are not decoded; only ambiguous packets are decoded and measured.
+     * Only measured frames below the threshold feed the noise floor.
+     * With the speech band filter, decoded frames loud enough to matter that are not speech-dominant count as silence.
+     * Every measured frame is published before the speech band filter applies.
+     *
+     * @param verdict result of {@link #preclassify}
+     * @return mean square level, or NaN if the packet could not be decoded
      */
-    private void scheduleSculkTrigger(final ServerPlayer voicePlayer, final Player bukkitPlayer) {
-        Bukkit.getScheduler().runTask(VoiceChatInteraction.instance, () -> {
-            if (canPlayerTriggerEvent(voicePlayer.getUuid(), bukkitPlayer)) {
-                bukkitPlayer.getWorld().sendGameEvent(
-                    bukkitPlayer, 
-                    VoiceChatInteraction.voiceGameEvent,
-                    bukkitPlayer.getLocation().toVector()
-                );
+    private double measureFrameLevel(final VoicechatApi api, final UUID playerUuid, final byte[] encodedData,
+                                     final ServerConfig config, final double activationThreshold,
+                                     @Nullable final NoiseFloor noiseFloor, final OpusPacketClassifier.Verdict verdict) {
+        switch (verdict) {
+            case SILENT -> {
+                stats.recordPreclassifiedSilent();
+                loudnessPublisher.publish(playerUuid, 0.0, 0, activationThreshold, config);
+                return 0.0;
             }
-        });
+            case LOUD -> {
+                stats.recordPreclassifiedLoud();
+                return activationThreshold * OpusPacketClassifier.LOUD_LEVEL_FACTOR;
+            }
+            case AMBIGUOUS -> {
+                // Fall through to full decode
+            }
+        }
+        
+        final long decodeStartNanos = System.nanoTime();
+        final short[] audioSamples = decodeAudioSafely(api, playerUuid, encodedData);
+        if (audioSamples == null) {
+            return Double.NaN;
+        }
+        // Single pass (SIMD when available) with exact integer accumulation; compared against the mean-square threshold
+        final FrameFeatures features = SoundAnalyzer.analyzeFrame(audioSamples, 0, audioSamples.length);
+        final double meanSquare = features.meanSquare();
+        if (noiseFloor != null) {
+            noiseFloor.update(meanSquare, activationThreshold);
+        }
+        // The spectral check only runs for frames that could start or sustain talking, keeping its cost off quiet frames
+        final double relevantLevel = config.envelopeEnabled
+                ? activationThreshold * config.envelopeHysteresisFactor
+                : activationThreshold;
+        final boolean notSpeech = config.speechBandFilterEnabled && meanSquare >= relevantLevel
+                && !SpeechBandAnalyzer.isSpeechDominant(audioSamples, 0, audioSamples.length, config.speechBandMinRatio);
+        stats.recordDecoded(System.nanoTime() - decodeStartNanos);
+        loudnessPublisher.publish(playerUuid, meanSquare, features.peak(), activationThreshold, config);
+        if (notSpeech) {
+            stats.recordNotSpeech();
+            return 0.0;
+        }
+        return meanSquare;
     }
 
     /**
-     * Checks if the player can trigger a Sculk event based on cooldown and toggle state.
+     * Decides whether the player currently counts as talking.
+     * Without the envelope follower each frame is judged alone against the activation threshold.
      */
-    private boolean canPlayerTriggerEvent(final UUID playerUuid, final Player bukkitPlayer) {
-        final long currentGameTime = bukkitPlayer.getWorld().getGameTime();
-        final Long lastTriggerTime = playerCooldowns.get(playerUuid);
-        final int cooldownTicks = VoiceChatInteraction.config.activationCooldownTicks;
-        
-        final boolean cooldownExpired = lastTriggerTime == null || 
-                                      (currentGameTime - lastTriggerTime) > cooldownTicks;
-        
-        if (cooldownExpired && isPlayerToggleEnabled(bukkitPlayer)) {
-            playerCooldowns.put(playerUuid, currentGameTime);
-            return true;
+    private boolean isTalking(final UUID playerUuid, final double frameLevel, final ServerConfig config,
+                              final double activationThreshold) {
+        if (!config.envelopeEnabled) {
+            return frameLevel >= activationThreshold;
         }
         
-        return false;
+        final LoudnessEnvelope envelope = envelopes.computeIfAbsent(playerUuid, uuid -> new LoudnessEnvelope());
+        final LoudnessEnvelope.Edge edge = envelope.update(frameLevel,
+                config.envelopeAttackCoeff, config.envelopeReleaseCoeff,
+                activationThreshold, activationThreshold * config.envelopeHysteresisFactor);
+        return edge == LoudnessEnvelope.Edge.START || (edge == LoudnessEnvelope.Edge.NONE && envelope.isTalking());
+    }
+
+    /**
+     * Queues the Sculk event trigger for the next main-thread dispatch.
+     * Repeated loud packets within the same tick collapse into a single pending entry.
+     */
+    private void scheduleSculkTrigger(final UUID playerUuid, final long arrivalNanos) {
+        if (triggerDispatcher.submit(playerUuid, arrivalNanos)) {
+            stats.recordDispatched();
+        }
+    }
+
+    /**
+     * Hands a dispatched trigger to the thread owning the player.
+     * On Paper this is the main thread the dispatcher already runs on; on Folia it is the player's region.
+     */
+    private void triggerSculkEvent(final Player bukkitPlayer, final long arrivalNanos) {
+        VoiceChatInteraction.scheduler.runForEntity(bukkitPlayer, () -> emitSculkEvent(bukkitPlayer, arrivalNanos));
+    }
+
+    /**
+     * Emits the voice game event for a player if the toggle is still enabled.
+     * The cooldown was already claimed on the voice thread and is given back if the toggle was turned off
+     * meanwhile. Runs on the thread owning the player.
+     */
+    private void emitSculkEvent(final Player bukkitPlayer, final long arrivalNanos) {
+        final PlayerStateCache.Snapshot state = playerStates.get(bukkitPlayer.getUniqueId());
+        if (state != null && state.toggleEnabled()) {
+            bukkitPlayer.getWorld().sendGameEvent(
+                bukkitPlayer,
+                VoiceChatInteraction.voiceGameEvent,
+                bukkitPlayer.getLocation().toVector()
+            );
+            stats.recordEmitted(System.nanoTime() - arrivalNanos);
+        } else {
+            releaseCooldown(bukkitPlayer.getUniqueId(), arrivalNanos);
+        }
+    }
+
+    /**
+     * Gives back the cooldown window of a trigger that was dropped before its game event,
+     * so it does not suppress the player's next loud frame.
+     */
+    private void releaseCooldown(final UUID playerUuid, final long arrivalNanos) {
+        cooldownGate.release(playerUuid, arrivalNanos);
+    }
+
+    /**
+     * Dispatches pending Sculk triggers within the per-tick event budget. Called once per tick on the main thread.
+     */
+    public void dispatchPendingTriggers() {
+        // Player and channel triggers share one budget, players first
+        final int maxEventsPerTick = loadGovernor.current().maxEventsPerTick();
+        soundChannels.drain(maxEventsPerTick - triggerDispatcher.drain(maxEventsPerTick));
+    }
+
+    /**
+     * (Re)creates the analysis worker pool from the configuration.
+     * With zero workers, frames are analyzed inline on the voice thread.
+     * Synchronized because reloads may run on the file watcher or an async task.
+     */
+    public synchronized void configureWorkers(final ServerConfig config) {
+        final AnalysisWorkerPool<AnalysisJob> previous = workerPool;
+        final AnalysisWorkerPool.Settings settings = new AnalysisWorkerPool.Settings(
+                config.analysisWorkers,
+                config.analysisQueueCapacity,
+                config.analysisOverflowPolicy,
+                config.analysisVirtualThreads
+        );
+        if (previous != null && previous.getSettings().equals(settings)) {
+            return;
+        }
+        workerPool = settings.workerCount() <= 0 ? null : new AnalysisWorkerPool<>(
+                "voicechat-interaction-analysis",
+                settings,
+                job -> analyzeFrame(job.api(), job.playerUuid(), job.encodedData(), job.arrivalNanos(), job.adjustments(),
+                        job.profile(), job.triggerCandidate()),
+                VoiceChatInteraction.logger
+        );
+        if (previous != null) {
+            previous.shutdown();
+        }
+    }
+
+    /**
+     * Starts or stops the loudness trace recorder according to the configuration.
+     * Each start writes a new file named after the start time; a changed size starts a new file.
+     * Synchronized because reloads may run on the file watcher or an async task.
+     */
+    public synchronized void configureTraceRecorder(final ServerConfig config) {
+        final long bytes = config.traceRecorderMaxMb * 1024L * 1024L;
+        if (traceRecorder != null && (!config.traceRecorderEnabled || bytes != traceRecorderBytes)) {
+            closeTraceRecorder();
+        }
+        if (!config.traceRecorderEnabled || traceRecorder != null) {
+            return;
+        }
+        final String name = "loudness-" + DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").format(LocalDateTime.now()) + ".trace";
+        try {
+            traceRecorder = new TraceRecorder(traceDirectory.resolve(name), bytes);
+            traceRecorderBytes = bytes;
+            VoiceChatInteraction.logger.info("Recording loudness trace to traces/" + name
+                    + " (" + traceRecorder.getCapacity() + " frames)");
+        } catch (final IOException e) {
+            VoiceChatInteraction.logger.warning("Failed to start loudness trace " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the trace recorder, if recording, and flushes the trace file.
+     */
+    public synchronized void closeTraceRecorder() {
+        final TraceRecorder recorder = traceRecorder;
+        traceRecorder = null;
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.close();
+            VoiceChatInteraction.logger.info("Stopped loudness trace after " + recorder.getRecordedCount() + " frames");
+        } catch (final IOException e) {
+            VoiceChatInteraction.logger.warning("Failed to close loudness trace: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the analysis workers and discards queued frames.
+     */
+    public synchronized void shutdownWorkers() {
+        final AnalysisWorkerPool<AnalysisJob> pool = workerPool;
+        workerPool = null;
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Returns the governor adapting cooldown, threshold and event rate to server load.
+     */
+    public LoadGovernor getLoadGovernor() {
+        return loadGovernor;
+    }
+
+    /**
+     * Discards all queued Sculk triggers.
+     */
+    public void clearPendingTriggers() {
+        triggerDispatcher.clear();
+        soundChannels.clear();
+    }
+
+    /**
+     * Returns the number of players waiting for the next trigger dispatch.
+     */
+    public int getPendingTriggerCount() {
+        return triggerDispatcher.pendingCount();
+    }
+
+    /**
+     * Releases decoders that have not received audio for the given time, and sound channels that went idle.
+     *
+     * @return number of released player decoders
+     */
+    public int evictIdleDecoders(final long maxIdleNanos) {
+        soundChannels.evictIdle();
+        return decoderPool.evictIdle(maxIdleNanos);
+    }
+
+    /**
+     * Closes all pooled decoders, including those of sound channels. They are recreated lazily on the next packet.
+     *
+     * @return number of closed decoders
+     */
+    public int closeDecoders() {
+        return decoderPool.closeAll() + soundChannels.closeAll();
+    }
+
+    /**
+     * Returns the number of Opus decoders currently held for active speakers.
+     */
+    public int getDecoderPoolSize() {
+        return decoderPool.size();
+    }
+
+    /**
+     * Returns the pipeline counters and latency histograms.
+     */
+    public PipelineStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Clears the microphone and plugin channel counters.
+     */
+    public void resetStats() {
+        stats.reset();
+        channelStats.reset();
+    }
+
+    /**
+     * Formats the current pipeline statistics including pool and queue gauges.
+     */
+    public List<String> formatStats() {
+        final AnalysisWorkerPool<AnalysisJob> pool = workerPool;
+        return stats.formatReport(List.of(
+                pool == null
+                        ? "analysis workers: inline"
+                        : "analysis workers: " + pool.workerCount()
+                                + ", queue depth: " + pool.queueDepth()
+                                + ", dropped: " + pool.droppedCount(),
+                loadGovernor.describe(),
+                "decoders: " + decoderPool.size()
+                        + ", cooldowns: " + cooldownGate.size()
+                        + ", envelopes: " + envelopes.size()
+                        + ", noise floors: " + noiseFloors.size()
+                        + ", pending triggers: " + triggerDispatcher.pendingCount()
+                        + ", listener chunks: " + listenerIndex.indexedChunkCount()
+                        + ", loudness subscriptions: " + loudnessPublisher.getSubscriptionCount(),
+                soundChannels.describe()
+        ));
+    }
+
+    /**
+     * Captures a fresh state snapshot for the player, including its rule profile.
+     * Must be called on the thread owning the player.
+     */
+    public void refreshPlayerState(final Player player) {
+        refreshPlayerState(player, player.isSneaking());
+    }
+
+    /**
+     * Captures a fresh state snapshot with an explicit sneak state.
+     * Used by the sneak toggle event, which fires before the player's state changes.
+     */
+    public void refreshPlayerState(final Player player, final boolean sneaking) {
+        final Location location = player.getLocation();
+        playerStates.put(player.getUniqueId(), new PlayerStateCache.Snapshot(
+                isPlayerToggleEnabled(player),
+                sneaking,
+                player.getWorld().getUID(),
+                location.getBlockX(),
+                location.getBlockZ(),
+                loadGovernor.current().config().profiles.resolve(player)
+        ));
+    }
+
+    /**
+     * Updates the cached positions of all online players, each on the thread that owns the player.
+     */
+    public void refreshPlayerPositions() {
+        for (final Player player : Bukkit.getOnlinePlayers()) {
+            VoiceChatInteraction.scheduler.runForEntity(player, () -> refreshPlayerPosition(player));
+        }
+    }
+
+    /**
+     * Updates the cached position of a single player. Must run on the thread owning the player.
+     */
+    private void refreshPlayerPosition(final Player player) {
+        final PlayerStateCache.Snapshot state = playerStates.get(player.getUniqueId());
+        if (state != null) {
+            final Location location = player.getLocation();
+            final PlayerStateCache.Snapshot moved = state.withPosition(location.getBlockX(), location.getBlockZ());
+            if (moved != state) {
+                playerStates.put(player.getUniqueId(), moved);
+            }
+        }
+    }
+
+    /**
+     * Returns the index of vibration listeners used to skip players with nothing nearby.
+     */
+    public ListenerIndex getListenerIndex() {
+        return listenerIndex;
+    }
+
+    /**
+     * Updates only the cached sneak state of a player.
+     */
+    public void updateSneakState(final Player player, final boolean sneaking) {
+        final PlayerStateCache.Snapshot state = playerStates.get(player.getUniqueId());
+        if (state == null) {
+            refreshPlayerState(player, sneaking);
+        } else {
+            playerStates.put(player.getUniqueId(), state.withSneaking(sneaking));
+        }
+    }
+
+    /**
+     * Drops all cached state of a player that left the server.
+     */
+    public void removePlayerState(final UUID playerUuid) {
+        playerStates.remove(playerUuid);
+        cooldownGate.remove(playerUuid);
+        envelopes.remove(playerUuid);
+        loudnessPublisher.removePlayer(playerUuid);
+        levelMonitor.removePlayer(playerUuid);
+    }
+
+    /**
+     * Imports the toggle states older versions kept in player data, for every player who has played before,
+     * on an async task, since reading every player's data file would stall the startup. Runs once, on the first
+     * start with a toggle store. Until it finishes, {@link #isLegacyToggleImportRunning()} is true and bulk and
+     * offline toggles wait for it. Players with a stored state keep it.
+     */
+    public void importLegacyTogglesAsync(final OfflinePlayer[] players) {
+        legacyToggleImportRunning = true;
+        VoiceChatInteraction.scheduler.runAsync(() -> {
+            try {
+                final int imported = importLegacyToggles(players);
+                VoiceChatInteraction.logger.info("Imported " + imported + " toggle states from player data");
+            } finally {
+                legacyToggleImportRunning = false;
+            }
+        });
+    }
+
+    /**
+     * Returns whether the legacy toggle import is still running; until then, stored states may be missing.
+     */
+    public boolean isLegacyToggleImportRunning() {
+        return legacyToggleImportRunning;
+    }
+
+    /**
+     * Reads the legacy states from the players' data files. Online players are skipped; their live data
+     * belongs to their own thread, where {@link #isPlayerToggleEnabled} moves the state.
+     *
+     * @return number of imported states
+     */
+    private int importLegacyToggles(final OfflinePlayer[] players) {
+        int imported = 0;
+        for (final OfflinePlayer player : players) {
+            if (player instanceof Player) {
+                continue;
+            }
+            try {
+                final PersistentDataContainerView dataContainer = player.getPersistentDataContainer();
+                if (dataContainer.has(toggleKey)) {
+                    final Byte toggleValue = dataContainer.get(toggleKey, PersistentDataType.BYTE);
+                    if (toggleStore.setIfAbsent(player.getUniqueId(), toggleValue != null && toggleValue != 0)) {
+                        imported++;
+                    }
+                }
+            } catch (final RuntimeException e) {
+                VoiceChatInteraction.logger.warning("Failed to read the legacy toggle state of "
+                        + player.getUniqueId() + ": " + e.getMessage());
+            }
+        }
+        toggleStore.markLegacyImported();
+        return imported;
     }
 
     /**
      * Checks if the player has voice chat interactions enabled.
+     * A legacy state left in the player's PersistentDataContainer is removed once the store has one,
+     * and moved to the store if the import could not read it.
      */
     public boolean isPlayerToggleEnabled(final Player player) {
         final PersistentDataContainer dataContainer = player.getPersistentDataContainer();
+        final Boolean stored = toggleStore.get(player.getUniqueId());
+        if (stored != null) {
+            // Offline player data is read-only to the import, so the old copy is dropped here
+            if (dataContainer.has(toggleKey)) {
+                dataContainer.remove(toggleKey);
+            }
+            return stored;
+        }
         
-        if (!dataContainer.has(TOGGLE_KEY)) {
+        if (!dataContainer.has(toggleKey)) {
             return VoiceChatInteraction.config.toggleDefaultState;
         }
         
-        final Byte toggleValue = dataContainer.get(TOGGLE_KEY, PersistentDataType.BYTE);
-        return toggleValue != null && toggleValue != 0;
+        final Byte toggleValue = dataContainer.get(toggleKey, PersistentDataType.BYTE);
+        final boolean enabled = toggleValue != null && toggleValue != 0;
+        toggleStore.set(player.getUniqueId(), enabled);
+        dataContainer.remove(toggleKey);
+        return enabled;
+    }
+
+    /**
+     * Checks the toggle state of a player who may be offline, without touching the player's data.
+     */
+    public boolean isToggleEnabled(final UUID playerUuid) {
+        final Boolean stored = toggleStore.get(playerUuid);
+        return stored != null ? stored : VoiceChatInteraction.config.toggleDefaultState;
     }
 
     /**
      * Sets the voice chat interaction toggle state for a player.
+     * Must be called on the thread owning the player.
      */
     public void setPlayerToggle(final Player player, final boolean enabled) {
-        final PersistentDataContainer dataContainer = player.getPersistentDataContainer();
-        dataContainer.set(TOGGLE_KEY, PersistentDataType.BYTE, (byte) (enabled ? 1 : 0));
+        toggleStore.set(player.getUniqueId(), enabled);
+        refreshPlayerState(player);
+    }
+
+    /**
+     * Sets the toggle state of a player who is offline. Online players must use {@link #setPlayerToggle}
+     * so their state snapshot is refreshed.
+     */
+    public void setOfflineToggle(final UUID playerUuid, final boolean enabled) {
+        toggleStore.set(playerUuid, enabled);
+    }
+
+    /**
+     * Sets the toggle state of every player with a stored state, online or not.
+     * Online players without a stored state are not covered; callers set them individually.
+     *
+     * @return number of changed entries
+     */
+    public int setAllStoredToggles(final boolean enabled) {
+        return toggleStore.setAll(enabled);
+    }
+
+    /**
+     * Returns the per-player noise floor estimates.
+     */
+    public NoiseFloorRegistry getNoiseFloors() {
+        return noiseFloors;
+    }
+
+    /**
+     * Returns the activation threshold of a player in dB before load shedding, for display.
+     */
+    public double getActivationThresholdDb(final UUID playerUuid) {
+        final ServerConfig config = loadGovernor.current().config();
+        final NoiseFloor noiseFloor = config.noiseFloorEnabled ? noiseFloors.get(playerUuid) : null;
+        final PlayerStateCache.Snapshot state = playerStates.get(playerUuid);
+        final RuleProfile profile = state != null ? state.profile() : config.profiles.defaultProfile();
+        return SoundAnalyzer.meanSquareToDecibel(activationThreshold(noiseFloor, config, profile));
+    }
+
+    /**
+     * Returns the live level monitor behind the monitor command.
+     */
+    public LevelMonitor getLevelMonitor() {
+        return levelMonitor;
+    }
+
+    /**
+     * Returns the publisher backing the public loudness service.
+     */
+    public LoudnessPublisher getLoudnessPublisher() {
+        return loudnessPublisher;
+    }
+
+    /**
+     * Returns the plugin-owned toggle store.
+     */
+    public ToggleStore getToggleStore() {
+        return toggleStore;
     }
 
     /**
      * Clears expired cooldown entries to prevent memory leaks.
-     * Should be called periodically by the main plugin.
+     * Scheduled periodically by the main plugin.
+     *
+     * @return number of removed entries
      */
-    public static void cleanupExpiredCooldowns() {
-        final long currentTime = System.currentTimeMillis();
-        final long maxAge = VoiceChatInteraction.config.activationCooldownTicks * 50L; // Convert to milliseconds
-        
-        playerCooldowns.entrySet().removeIf(entry -> 
-            (currentTime - entry.getValue()) > maxAge);
+    public int cleanupExpiredCooldowns() {
+        final LoadGovernor.Adjustments adjustments = loadGovernor.current();
+        // Load shedding stretches cooldowns, so only evict entries that are expired at the highest factor
+        return cooldownGate.evictExpired(adjustments.maxCooldownNanos(adjustments.config().profiles.maxCooldownNanos()));
     }
 }
@@ -1,12 +1,22 @@
 package de.slimenest.voicechatinteraction;
 
 import de.maxhenkel.voicechat.api.BukkitVoicechatService;
+import de.slimenest.voicechatinteraction.api.LoudnessService;
 import de.slimenest.voicechatinteraction.command.VoiceChatInteractionCommand;
+import de.slimenest.voicechatinteraction.config.ConfigReloader;
 import de.slimenest.voicechatinteraction.config.ServerConfig;
+import de.slimenest.voicechatinteraction.listener.ListenerIndexListener;
+import de.slimenest.voicechatinteraction.listener.LoudnessServiceListener;
+import de.slimenest.voicechatinteraction.listener.PlayerStateListener;
+import de.slimenest.voicechatinteraction.scheduler.PluginScheduler;
+import de.slimenest.voicechatinteraction.stats.StatsFileWriter;
 import de.slimenest.voicechatinteraction.util.MessageProvider;
+import de.slimenest.voicechatinteraction.util.SoundAnalyzer;
 import org.bukkit.GameEvent;
 import org.bukkit.Server;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import javax.annotation.Nullable;
@@ -18,15 +28,27 @@ import javax.annotation.Nullable;
 public final class VoiceChatInteraction extends JavaPlugin {
 
     public static final String PLUGIN_ID = "voicechat_interaction";
+    private static final long MAINTENANCE_PERIOD_TICKS = 20L * 30L;
+    private static final long POSITION_REFRESH_PERIOD_TICKS = 10L;
+    private static final long LOAD_SAMPLE_PERIOD_TICKS = 20L;
+    private static final long TOGGLE_FLUSH_PERIOD_TICKS = 20L * 5L;
+    private static final long LISTENER_RESCAN_PERIOD_TICKS = 20L * 5L;
+    private static final long DECODER_MAX_IDLE_NANOS = java.util.concurrent.TimeUnit.SECONDS.toNanos(30);
+    private static final long NOISE_FLOOR_MAX_IDLE_MILLIS = java.util.concurrent.TimeUnit.DAYS.toMillis(30);
     public static VoiceChatInteraction instance;
     public static java.util.logging.Logger logger;
-    public static ServerConfig config;
-    public static MessageProvider messages;
+    /** Replaced atomically on reload; the voice path reads it through {@link LoadGovernor#current()}. */
+    public static volatile ServerConfig config;
+    public static volatile MessageProvider messages;
     public static Server bukkitServer;
     public static GameEvent voiceGameEvent;
+    public static PluginScheduler scheduler;
+    public static ConfigReloader configReloader;
 
     @Nullable
     public static VoiceChatEventBridge voiceChatBridge;
+    @Nullable
+    private ListenerIndexListener listenerIndexListener;
 
     @Override
     public void onEnable() {
@@ -35,11 +57,23 @@ public final class VoiceChatInteraction extends JavaPlugin {
             logger = getLogger();
             bukkitServer = getServer();
             voiceGameEvent = GameEvent.EAT; // EAT triggers sculk sensors (sound event)
+            scheduler = PluginScheduler.create(this);
+            if (scheduler.isRegionized()) {
+                logger.info("Folia detected - dispatching game events on region threads");
+            }
             
             loadPluginConfig();
+            logger.info("Voice frame analysis: " + SoundAnalyzer.kernelName());
+            if (SoundAnalyzer.isVectorKernelRejected()) {
+                logger.warning("The SIMD frame kernel disagreed with the scalar kernel in the startup self-check, using scalar analysis");
+            }
             messages = new MessageProvider(this);
             registerVoiceChatBridge();
+            registerListeners();
             registerCommands();
+            scheduleMaintenanceTasks();
+            configReloader = new ConfigReloader(this);
+            configReloader.updateWatcher(config);
             
             logger.info("VoiceChat Interaction plugin successfully enabled!");
         } catch (final Exception e) {
@@ -50,8 +84,24 @@ public final class VoiceChatInteraction extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (configReloader != null) {
+            configReloader.stopWatcher();
+        }
         if (voiceChatBridge != null) {
+            voiceChatBridge.shutdownWorkers();
+            voiceChatBridge.closeTraceRecorder();
+            final int closedDecoders = voiceChatBridge.closeDecoders();
+            logger.info("Released " + closedDecoders + " pooled Opus decoders");
+            voiceChatBridge.clearPendingTriggers();
+            flushToggleStore(voiceChatBridge);
+            saveNoiseFloors(voiceChatBridge);
+            voiceChatBridge.getLoudnessPublisher().cancelAll();
+            voiceChatBridge.getLevelMonitor().clear();
+            bukkitServer.getServicesManager().unregister(LoudnessService.class, voiceChatBridge.getLoudnessPublisher());
             bukkitServer.getServicesManager().unregister(voiceChatBridge);
+        }
+        if (scheduler != null) {
+            scheduler.cancelAll();
             logger.info("Successfully unregistered voicechat_interaction event bridge");
         }
     }
@@ -66,7 +116,7 @@ public final class VoiceChatInteraction extends JavaPlugin {
             setConfigDefaults(fileConfig);
             fileConfig.options().copyDefaults(true);
             saveConfig();
-            config = new ServerConfig(fileConfig);
+            config = new ServerConfig(fileConfig, logger);
             logger.info("Configuration loaded successfully");
         } catch (final Exception e) {
             logger.severe("Failed to load configuration: " + e.getMessage());
@@ -84,6 +134,41 @@ public final class VoiceChatInteraction extends JavaPlugin {
         fileConfig.addDefault("activation_db_threshold", -50);
         fileConfig.addDefault("toggle_default_state", true);
         fileConfig.addDefault("activation_cooldown_ticks", 20);
+        fileConfig.addDefault("opus_preclassifier_enabled", true);
+        fileConfig.addDefault("opus_silence_max_bytes", 3);
+        fileConfig.addDefault("opus_loud_min_bytes", 0);
+        fileConfig.addDefault("envelope_enabled", false);
+        fileConfig.addDefault("envelope_attack_ms", 40);
+        fileConfig.addDefault("envelope_release_ms", 300);
+        fileConfig.addDefault("envelope_hysteresis_db", 6);
+        fileConfig.addDefault("noise_floor_enabled", false);
+        fileConfig.addDefault("noise_floor_margin_db", 15);
+        fileConfig.addDefault("noise_floor_min_threshold_db", -60);
+        fileConfig.addDefault("noise_floor_max_threshold_db", -30);
+        fileConfig.addDefault("speech_band_filter_enabled", false);
+        fileConfig.addDefault("speech_band_min_ratio_db", 10);
+        fileConfig.addDefault("require_nearby_listener", false);
+        fileConfig.addDefault("sound_channels_static_enabled", false);
+        fileConfig.addDefault("sound_channels_locational_enabled", false);
+        fileConfig.addDefault("sound_channels_entity_enabled", false);
+        fileConfig.addDefault("sound_channel_emitter", "source");
+        fileConfig.addDefault("sound_channel_max_tracked", 256);
+        fileConfig.addDefault("analysis_workers", 2);
+        fileConfig.addDefault("analysis_queue_capacity", 256);
+        fileConfig.addDefault("analysis_overflow_policy", "drop_oldest");
+        fileConfig.addDefault("analysis_virtual_threads", false);
+        fileConfig.addDefault("load_shedding_enabled", true);
+        fileConfig.addDefault("load_shedding_start_mspt", 40);
+        fileConfig.addDefault("load_shedding_full_mspt", 55);
+        fileConfig.addDefault("load_shedding_max_cooldown_multiplier", 4.0);
+        fileConfig.addDefault("load_shedding_max_db_raise", 10);
+        fileConfig.addDefault("load_shedding_min_events_per_tick", 5);
+        fileConfig.addDefault("stats_dump_interval_seconds", 0);
+        fileConfig.addDefault("stats_log_max_mb", 1);
+        fileConfig.addDefault("stats_log_max_files", 3);
+        fileConfig.addDefault("watch_config_files", false);
+        fileConfig.addDefault("trace_recorder_enabled", false);
+        fileConfig.addDefault("trace_recorder_max_mb", 16);
     }
 
     /**
@@ -92,8 +177,13 @@ public final class VoiceChatInteraction extends JavaPlugin {
     private void registerVoiceChatBridge() {
         final BukkitVoicechatService service = bukkitServer.getServicesManager().load(BukkitVoicechatService.class);
         if (service != null) {
-            voiceChatBridge = new VoiceChatEventBridge();
+            voiceChatBridge = new VoiceChatEventBridge(this);
+            voiceChatBridge.configureWorkers(config);
+            voiceChatBridge.configureTraceRecorder(config);
+            loadPlayerData(voiceChatBridge);
             service.registerPlugin(voiceChatBridge);
+            bukkitServer.getServicesManager().register(LoudnessService.class, voiceChatBridge.getLoudnessPublisher(),
+                    this, ServicePriority.Normal);
             logger.info("Successfully registered voicechat_interaction event bridge");
         } else {
             logger.warning("Simple Voice Chat service not available - event bridge registration failed");
@@ -101,6 +191,141 @@ public final class VoiceChatInteraction extends JavaPlugin {
         }
     }
 
+    /**
+     * Loads the stored toggle states and noise floors before any player state is captured.
+     * On the first start, toggle states kept in player data by older versions are imported in the background.
+     */
+    private void loadPlayerData(final VoiceChatEventBridge bridge) {
+        try {
+            final int storedPlayers = bridge.getToggleStore().load();
+            logger.info("Loaded toggle states of " + storedPlayers + " players");
+            if (!bridge.getToggleStore().isLegacyImported()) {
+                bridge.importLegacyTogglesAsync(getServer().getOfflinePlayers());
+            }
+        } catch (final java.io.IOException e) {
+            logger.severe("Failed to load toggles.dat, starting with default toggle states: " + e.getMessage());
+        }
+        try {
+            final int noiseFloors = bridge.getNoiseFloors().load();
+            logger.info("Loaded noise floors of " + noiseFloors + " players");
+        } catch (final java.io.IOException e) {
+            logger.warning("Failed to load noise_floors.dat, players will be recalibrated: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Persists the noise floor estimates. Runs off the main thread, and once more on disable.
+     */
+    private static void saveNoiseFloors(final VoiceChatEventBridge bridge) {
+        try {
+            bridge.getNoiseFloors().save();
+        } catch (final java.io.IOException e) {
+            logger.warning("Failed to write noise_floors.dat: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes queued toggle changes to disk. Runs off the main thread, and once more on disable.
+     */
+    private static void flushToggleStore(final VoiceChatEventBridge bridge) {
+        try {
+            bridge.getToggleStore().flush();
+        } catch (final java.io.IOException e) {
+            logger.warning("Failed to write toggles.dat: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Registers Bukkit listeners that feed player state and vibration listeners into the event bridge
+     * and captures the state of players, chunks and Wardens already loaded (e.g. after a plugin reload).
+     */
+    private void registerListeners() {
+        if (voiceChatBridge == null) {
+            return;
+        }
+        getServer().getPluginManager().registerEvents(new PlayerStateListener(voiceChatBridge), this);
+        getServer().getPluginManager().registerEvents(
+                new LoudnessServiceListener(voiceChatBridge.getLoudnessPublisher()), this);
+        final VoiceChatEventBridge bridge = voiceChatBridge;
+        for (final Player player : getServer().getOnlinePlayers()) {
+            scheduler.runForEntity(player, () -> bridge.refreshPlayerState(player));
+        }
+        
+        listenerIndexListener = new ListenerIndexListener(voiceChatBridge.getListenerIndex());
+        getServer().getPluginManager().registerEvents(listenerIndexListener, this);
+        if (scheduler.isRegionized()) {
+            // Worlds cannot be walked from here on Folia; chunks near players are what the voice path checks
+            listenerIndexListener.rescanAround(getServer().getOnlinePlayers(), VoiceChatEventBridge.LISTENER_RANGE_BLOCKS);
+        } else {
+            listenerIndexListener.indexLoadedWorlds(getServer().getWorlds());
+        }
+    }
+
+    /**
+     * Schedules the per-tick trigger dispatch and loudness delivery, load sampling, level monitor updates,
+     * the position refresh and sensor rescan for the listener index and periodic background maintenance for the event bridge.
+     * Idle decoders and expired cooldowns are released asynchronously since both structures are thread-safe;
+     * the same task drops noise floor estimates unused for 30 days and saves the rest.
+     * Toggle changes are written to toggles.dat and statistics are optionally appended to stats.log,
+     * both off the main thread.
+     */
+    private void scheduleMaintenanceTasks() {
+        if (voiceChatBridge == null) {
+            return;
+        }
+        scheduler.runRepeating(() -> {
+            final VoiceChatEventBridge bridge = voiceChatBridge;
+            if (bridge != null) {
+                bridge.dispatchPendingTriggers();
+                bridge.getLoudnessPublisher().sweepSilentPlayers(System.nanoTime());
+                bridge.getLoudnessPublisher().drainMainThread();
+            }
+        }, 1L, 1L);
+        scheduler.runRepeating(() -> {
+            final VoiceChatEventBridge bridge = voiceChatBridge;
+            if (bridge != null) {
+                bridge.getLoadGovernor().sample();
+            }
+        }, LOAD_SAMPLE_PERIOD_TICKS, LOAD_SAMPLE_PERIOD_TICKS);
+        scheduler.runRepeating(() -> {
+            final VoiceChatEventBridge bridge = voiceChatBridge;
+            if (bridge != null) {
+                bridge.getLevelMonitor().sample();
+            }
+        }, LevelMonitor.SAMPLE_PERIOD_TICKS, LevelMonitor.SAMPLE_PERIOD_TICKS);
+        scheduler.runRepeating(() -> {
+            final VoiceChatEventBridge bridge = voiceChatBridge;
+            if (bridge != null) {
+                bridge.refreshPlayerPositions();
+            }
+            if (listenerIndexListener != null) {
+                listenerIndexListener.publishWardens();
+            }
+        }, POSITION_REFRESH_PERIOD_TICKS, POSITION_REFRESH_PERIOD_TICKS);
+        scheduler.runRepeating(() -> {
+            if (listenerIndexListener != null && config.requireNearbyListener) {
+                listenerIndexListener.rescanAround(getServer().getOnlinePlayers(), VoiceChatEventBridge.LISTENER_RANGE_BLOCKS);
+            }
+        }, LISTENER_RESCAN_PERIOD_TICKS, LISTENER_RESCAN_PERIOD_TICKS);
+        scheduler.runRepeatingAsync(() -> {
+            final VoiceChatEventBridge bridge = voiceChatBridge;
+            if (bridge != null) {
+                bridge.evictIdleDecoders(DECODER_MAX_IDLE_NANOS);
+                bridge.cleanupExpiredCooldowns();
+                bridge.getNoiseFloors().evictIdle(NOISE_FLOOR_MAX_IDLE_MILLIS);
+                saveNoiseFloors(bridge);
+            }
+        }, MAINTENANCE_PERIOD_TICKS, MAINTENANCE_PERIOD_TICKS);
+        scheduler.runRepeatingAsync(() -> {
+            final VoiceChatEventBridge bridge = voiceChatBridge;
+            if (bridge != null) {
+                flushToggleStore(bridge);
+            }
+        }, TOGGLE_FLUSH_PERIOD_TICKS, TOGGLE_FLUSH_PERIOD_TICKS);
+        scheduler.runRepeatingAsync(
+                new StatsFileWriter(voiceChatBridge, getDataFolder().toPath().resolve("stats.log")), 20L, 20L);
+    }
+
     /**
      * Registers plugin commands and tab completers.
      */
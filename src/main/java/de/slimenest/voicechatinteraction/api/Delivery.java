@@ -0,0 +1,17 @@
+package de.slimenest.voicechatinteraction.api;
+
+/**
+ * Thread on which a subscription receives its samples.
+ */
+public enum Delivery {
+    /**
+     * Called directly on the voice chat or analysis thread that measured the frame, with the lowest latency.
+     * Listeners must be thread-safe, return quickly and must not use the Bukkit API.
+     */
+    VOICE_THREAD,
+    /**
+     * Buffered and delivered once per tick on the main thread (the global region thread on Folia).
+     * If a listener falls behind, samples without a talking edge are dropped.
+     */
+    MAIN_THREAD
+}
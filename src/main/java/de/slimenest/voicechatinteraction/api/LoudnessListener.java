@@ -0,0 +1,14 @@
+package de.slimenest.voicechatinteraction.api;
+
+/**
+ * Receives loudness samples from the {@link LoudnessService}.
+ */
+@FunctionalInterface
+public interface LoudnessListener {
+
+    /**
+     * Called for each delivered sample, on the thread chosen by the subscription's {@link Delivery}.
+     * Voice-thread listeners must return quickly and must not use the Bukkit API.
+     */
+    void onLoudness(LoudnessSample sample);
+}
@@ -0,0 +1,17 @@
+package de.slimenest.voicechatinteraction.api;
+
+import java.util.UUID;
+
+/**
+ * Loudness of one voice frame of a player.
+ *
+ * @param playerUuid     speaking player
+ * @param decibel        frame level in dBFS, from -127 (silence) to 0
+ * @param peak           largest absolute sample value of the frame (0 to 32768)
+ * @param talking        whether the player counts as talking after this frame
+ * @param edge           talking state change caused by this frame
+ * @param timestampNanos {@link System#nanoTime()} when the frame was measured
+ */
+public record LoudnessSample(UUID playerUuid, double decibel, int peak, boolean talking, TalkingEdge edge,
+                             long timestampNanos) {
+}
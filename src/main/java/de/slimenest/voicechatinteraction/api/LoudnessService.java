@@ -0,0 +1,37 @@
+package de.slimenest.voicechatinteraction.api;
+
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Per-player voice loudness, decoded and measured once by voicechat_interaction and shared with other plugins,
+ * so they do not need their own {@code MicrophonePacketEvent} listener and Opus decoder.
+ *
+ * <p>Registered in the Bukkit services manager while the plugin is enabled:</p>
+ * <pre>{@code
+ * LoudnessService service = Bukkit.getServicesManager().load(LoudnessService.class);
+ * LoudnessSubscription subscription = service.subscribe(this, Delivery.MAIN_THREAD, 100, sample -> { ... });
+ * }</pre>
+ *
+ * <p>Frames are only decoded for publishing while at least one subscription exists.
+ * Subscriptions end automatically when the subscribing plugin is disabled.</p>
+ */
+public interface LoudnessService {
+
+    /**
+     * Subscribes to loudness samples of all speaking players.
+     *
+     * @param plugin            subscribing plugin; its subscriptions are cancelled when it is disabled
+     * @param delivery          thread the listener is called on
+     * @param minIntervalMillis minimum time between two samples of the same player for this subscriber;
+     *                          0 delivers every frame (every 20 ms). Talking start/stop edges are always delivered.
+     * @param listener          receives the samples
+     * @return the subscription, used to cancel it
+     * @throws IllegalArgumentException if the interval is negative or the plugin is not enabled
+     */
+    LoudnessSubscription subscribe(Plugin plugin, Delivery delivery, long minIntervalMillis, LoudnessListener listener);
+
+    /**
+     * Returns the number of active subscriptions.
+     */
+    int getSubscriptionCount();
+}
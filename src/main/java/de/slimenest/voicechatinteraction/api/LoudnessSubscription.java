@@ -0,0 +1,29 @@
+package de.slimenest.voicechatinteraction.api;
+
+import org.bukkit.plugin.Plugin;
+
+/**
+ * A registration with the {@link LoudnessService}.
+ */
+public interface LoudnessSubscription {
+
+    /**
+     * Stops delivery. Samples already buffered for main-thread delivery are discarded. Idempotent.
+     */
+    void cancel();
+
+    /**
+     * Returns whether the subscription still receives samples.
+     */
+    boolean isActive();
+
+    /**
+     * Returns the subscribing plugin.
+     */
+    Plugin getPlugin();
+
+    /**
+     * Returns the number of samples dropped because the main-thread buffer was full.
+     */
+    long getDroppedCount();
+}
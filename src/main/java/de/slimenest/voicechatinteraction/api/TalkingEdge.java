@@ -0,0 +1,14 @@
+package de.slimenest.voicechatinteraction.api;
+
+/**
+ * Change of a player's talking state caused by a single frame.
+ * Talking follows a smoothed level with hysteresis, using the player's activation threshold.
+ */
+public enum TalkingEdge {
+    /** No change. */
+    NONE,
+    /** The player started talking with this frame. */
+    START,
+    /** The player stopped talking with this frame, or their frames stopped arriving (a silent sample). */
+    STOP
+}
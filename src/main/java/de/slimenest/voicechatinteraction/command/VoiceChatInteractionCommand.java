@@ -1,36 +1,48 @@
 package de.slimenest.voicechatinteraction.command;
 
+import de.slimenest.voicechatinteraction.LevelMonitor;
 import de.slimenest.voicechatinteraction.VoiceChatInteraction;
 import de.slimenest.voicechatinteraction.VoiceChatEventBridge;
+import de.slimenest.voicechatinteraction.util.NoiseFloor;
+import de.slimenest.voicechatinteraction.util.SoundAnalyzer;
 import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 
 /**
  * Handles the /voicechat_interaction command and tab completion.
- * Supports toggling voice chat interaction for self and others.
+ * Supports toggling voice chat interaction for self, others (online or offline) and in bulk.
  */
 public class VoiceChatInteractionCommand implements CommandExecutor, TabCompleter {
 
+    /** Message keys of the per-subcommand lines sent after the usage line. */
+    private static final List<String> USAGE_DETAIL_KEYS = List.of(
+            "usage_bulk", "usage_reload", "usage_stats", "usage_noisefloor", "usage_monitor");
+
     /**
      * Handles command execution for /voicechat_interaction.
      */
     @Override
     public boolean onCommand(final CommandSender sender, final Command command, final String label, final String[] args) {
         if (!(sender instanceof Player player)) {
-            sender.sendMessage(VoiceChatInteraction.messages.get("only_players"));
+            VoiceChatInteraction.messages.send(sender, "only_players");
             return true;
         }
         
         final VoiceChatEventBridge bridge = VoiceChatInteraction.voiceChatBridge;
         if (bridge == null) {
-            player.sendMessage(VoiceChatInteraction.messages.get("bridge_not_loaded"));
+            VoiceChatInteraction.messages.send(player, "bridge_not_loaded");
             return true;
         }
         
@@ -43,39 +55,153 @@ public class VoiceChatInteractionCommand implements CommandExecutor, TabComplete
         switch (subCommand) {
             case "toggle" -> handleToggleCommand(player, args, bridge);
             case "reload" -> handleReloadCommand(player);
-            default -> player.sendMessage(VoiceChatInteraction.messages.get("unknown_command"));
+            case "stats" -> handleStatsCommand(player, args, bridge);
+            case "noisefloor" -> handleNoiseFloorCommand(player, args, bridge);
+            case "monitor" -> handleMonitorCommand(player, args, bridge);
+            default -> VoiceChatInteraction.messages.send(player, "unknown_command");
         }
         return true;
     }
 
     /**
-     * Handles the reload subcommand: reloads config and messages.
+     * Handles the reload subcommand: reloads config and messages on an async task,
+     * then reports back on the thread owning the player.
      */
     private void handleReloadCommand(final Player player) {
         if (!player.hasPermission("voicechat_interaction.command.reload")) {
-            player.sendMessage(VoiceChatInteraction.messages.get("no_permission_reload"));
+            VoiceChatInteraction.messages.send(player, "no_permission_reload");
+            return;
+        }
+        
+        VoiceChatInteraction.scheduler.runAsync(() -> {
+            String messageKey;
+            try {
+                VoiceChatInteraction.configReloader.reload();
+                messageKey = "reload_success";
+            } catch (final Exception e) {
+                VoiceChatInteraction.logger.severe("Failed to reload configuration: " + e.getMessage());
+                messageKey = "reload_failed";
+            }
+            final String resultKey = messageKey;
+            VoiceChatInteraction.scheduler.runForEntity(player,
+                    () -> VoiceChatInteraction.messages.send(player, resultKey));
+        });
+    }
+
+    /**
+     * Handles the stats subcommand: shows or resets the pipeline statistics.
+     */
+    private void handleStatsCommand(final Player player, final String[] args, final VoiceChatEventBridge bridge) {
+        if (!player.hasPermission("voicechat_interaction.command.stats")) {
+            VoiceChatInteraction.messages.send(player, "no_permission_stats");
             return;
         }
         
-        try {
-            VoiceChatInteraction.instance.reloadConfig();
-            VoiceChatInteraction.config = new de.slimenest.voicechatinteraction.config.ServerConfig(
-                    VoiceChatInteraction.instance.getConfig());
-            VoiceChatInteraction.messages = new de.slimenest.voicechatinteraction.util.MessageProvider(
-                    VoiceChatInteraction.instance);
-            player.sendMessage(VoiceChatInteraction.messages.get("reload_success"));
-        } catch (final Exception e) {
-            VoiceChatInteraction.logger.severe("Failed to reload configuration: " + e.getMessage());
-            player.sendMessage(VoiceChatInteraction.messages.get("reload_failed"));
+        if (args.length == 2 && "reset".equalsIgnoreCase(args[1])) {
+            bridge.resetStats();
+            VoiceChatInteraction.messages.send(player, "stats_reset");
+            return;
+        }
+        
+        VoiceChatInteraction.messages.send(player, "stats_header");
+        for (final String line : bridge.formatStats()) {
+            player.sendMessage("§7" + line);
         }
     }
 
     /**
-     * Handles the toggle subcommand for self or another player.
+     * Handles the noisefloor subcommand: shows or resets the calibrated noise floor of a player.
+     */
+    private void handleNoiseFloorCommand(final Player player, final String[] args, final VoiceChatEventBridge bridge) {
+        if (!player.hasPermission("voicechat_interaction.command.noisefloor")) {
+            VoiceChatInteraction.messages.send(player, "no_permission_noisefloor");
+            return;
+        }
+        if (args.length < 2 || args.length > 3 || (args.length == 3 && !"reset".equalsIgnoreCase(args[2]))) {
+            sendUsageMessage(player);
+            return;
+        }
+        
+        final Player online = Bukkit.getPlayer(args[1]);
+        final OfflinePlayer target = online != null ? online : Bukkit.getOfflinePlayerIfCached(args[1]);
+        if (target == null) {
+            VoiceChatInteraction.messages.send(player, "player_not_found", Map.of("player", args[1]));
+            return;
+        }
+        final String targetName = target.getName() != null ? target.getName() : args[1];
+        
+        if (args.length == 3) {
+            bridge.getNoiseFloors().reset(target.getUniqueId());
+            VoiceChatInteraction.messages.send(player, "noise_floor_reset", Map.of("player", targetName));
+            return;
+        }
+        
+        final NoiseFloor noiseFloor = bridge.getNoiseFloors().get(target.getUniqueId());
+        final long samples = noiseFloor == null ? 0L : noiseFloor.samples();
+        if (noiseFloor == null || !noiseFloor.isCalibrated()) {
+            VoiceChatInteraction.messages.send(player, "noise_floor_uncalibrated", Map.of(
+                    "player", targetName,
+                    "samples", String.valueOf(samples)
+            ));
+            return;
+        }
+        VoiceChatInteraction.messages.send(player, "noise_floor_info", Map.of(
+                "player", targetName,
+                "floor", formatDecibel(SoundAnalyzer.meanSquareToDecibel(noiseFloor.floorMeanSquare())),
+                "threshold", formatDecibel(bridge.getActivationThresholdDb(target.getUniqueId())),
+                "samples", String.valueOf(samples)
+        ));
+    }
+
+    /**
+     * Handles the monitor subcommand: shows a player's live level on the sender's action bar, or stops it.
+     */
+    private void handleMonitorCommand(final Player player, final String[] args, final VoiceChatEventBridge bridge) {
+        if (!player.hasPermission("voicechat_interaction.command.monitor")) {
+            VoiceChatInteraction.messages.send(player, "no_permission_monitor");
+            return;
+        }
+        final LevelMonitor monitor = bridge.getLevelMonitor();
+        if (args.length == 1) {
+            final String stopped = monitor.stop(player.getUniqueId());
+            if (stopped == null) {
+                VoiceChatInteraction.messages.send(player, "monitor_not_running");
+            } else {
+                VoiceChatInteraction.messages.send(player, "monitor_stopped", Map.of("player", stopped));
+            }
+            return;
+        }
+        if (args.length != 2) {
+            sendUsageMessage(player);
+            return;
+        }
+        
+        final Player target = Bukkit.getPlayer(args[1]);
+        if (target == null || !target.isOnline()) {
+            VoiceChatInteraction.messages.send(player, "player_not_found", Map.of("player", args[1]));
+            return;
+        }
+        monitor.start(player, target);
+        VoiceChatInteraction.messages.send(player, "monitor_started", Map.of(
+                "player", target.getName(),
+                "minutes", String.valueOf(TimeUnit.NANOSECONDS.toMinutes(LevelMonitor.TIMEOUT_NANOS))
+        ));
+    }
+
+    private static String formatDecibel(final double decibel) {
+        return String.format(Locale.ROOT, "%.1f", decibel);
+    }
+
+    /**
+     * Handles the toggle subcommand for self, another player, all players or a world.
      */
     private void handleToggleCommand(final Player sender, final String[] args, final VoiceChatEventBridge bridge) {
         if (args.length == 1) {
             handleSelfToggle(sender, bridge);
+        } else if (args.length == 3 && "all".equalsIgnoreCase(args[1])) {
+            handleAllToggle(sender, args[2], bridge);
+        } else if (args.length == 4 && "world".equalsIgnoreCase(args[1])) {
+            handleWorldToggle(sender, args[2], args[3], bridge);
         } else if (args.length == 2) {
             handleOtherPlayerToggle(sender, args[1], bridge);
         } else {
@@ -83,12 +209,97 @@ public class VoiceChatInteractionCommand implements CommandExecutor, TabComplete
         }
     }
 
+    /**
+     * Parses an explicit bulk state argument.
+     *
+     * @return the state, or null if the argument is neither on nor off
+     */
+    @Nullable
+    private static Boolean parseState(final String argument) {
+        return switch (argument.toLowerCase(Locale.ROOT)) {
+            case "on" -> Boolean.TRUE;
+            case "off" -> Boolean.FALSE;
+            default -> null;
+        };
+    }
+
+    /**
+     * Sets the state of every online player and of every player with a stored state.
+     */
+    private void handleAllToggle(final Player sender, final String stateArgument, final VoiceChatEventBridge bridge) {
+        if (!sender.hasPermission("voicechat_interaction.command.bulk")) {
+            VoiceChatInteraction.messages.send(sender, "no_permission_bulk");
+            return;
+        }
+        final Boolean state = parseState(stateArgument);
+        if (state == null) {
+            sendUsageMessage(sender);
+            return;
+        }
+        // Players whose legacy state is not imported yet would be missed, and get their old state back afterwards
+        if (bridge.isLegacyToggleImportRunning()) {
+            VoiceChatInteraction.messages.send(sender, "toggle_import_running");
+            return;
+        }
+        
+        final int stored = bridge.setAllStoredToggles(state);
+        final int online = setOnlineToggles(Bukkit.getOnlinePlayers(), state, bridge);
+        VoiceChatInteraction.messages.send(sender, "toggle_all", Map.of(
+                "state", VoiceChatInteraction.messages.get(sender, state ? "enabled" : "disabled"),
+                "online", String.valueOf(online),
+                "stored", String.valueOf(stored)
+        ));
+    }
+
+    /**
+     * Sets the state of every player currently in a world.
+     */
+    private void handleWorldToggle(final Player sender, final String worldName, final String stateArgument,
+                                   final VoiceChatEventBridge bridge) {
+        if (!sender.hasPermission("voicechat_interaction.command.bulk")) {
+            VoiceChatInteraction.messages.send(sender, "no_permission_bulk");
+            return;
+        }
+        final Boolean state = parseState(stateArgument);
+        if (state == null) {
+            sendUsageMessage(sender);
+            return;
+        }
+        final World world = Bukkit.getWorld(worldName);
+        if (world == null) {
+            VoiceChatInteraction.messages.send(sender, "world_not_found", Map.of("world", worldName));
+            return;
+        }
+        
+        final int count = setOnlineToggles(world.getPlayers(), state, bridge);
+        VoiceChatInteraction.messages.send(sender, "toggle_world", Map.of(
+                "state", VoiceChatInteraction.messages.get(sender, state ? "enabled" : "disabled"),
+                "world", world.getName(),
+                "count", String.valueOf(count)
+        ));
+    }
+
+    /**
+     * Sets the state of online players, each on the thread owning the player. Targets are not notified.
+     *
+     * @return number of players scheduled
+     */
+    private static int setOnlineToggles(final Iterable<? extends Player> players, final boolean state,
+                                        final VoiceChatEventBridge bridge) {
+        int count = 0;
+        for (final Player target : players) {
+            VoiceChatInteraction.scheduler.runForEntity(target, () -> bridge.setPlayerToggle(target, state));
+            count++;
+        }
+        return count;
+    }
+
     /**
      * Handles toggle command for the sender themselves.
      */
     private void handleSelfToggle(final Player sender, final VoiceChatEventBridge bridge) {
         if (!sender.hasPermission("voicechat_interaction.command")) {
-            sender.sendMessage(VoiceChatInteraction.messages.get("no_permission_self"));
+            VoiceChatInteraction.messages.send(sender, "no_permission_self");
             return;
         }
         
@@ -102,39 +313,68 @@ public class VoiceChatInteractionCommand implements CommandExecutor, TabComplete
      */
     private void handleOtherPlayerToggle(final Player sender, final String targetName, final VoiceChatEventBridge bridge) {
         if (!sender.hasPermission("voicechat_interaction.command.others")) {
-            sender.sendMessage(VoiceChatInteraction.messages.get("no_permission_others"));
+            VoiceChatInteraction.messages.send(sender, "no_permission_others");
             return;
         }
         
         final Player target = Bukkit.getPlayer(targetName);
         if (target == null || !target.isOnline()) {
-            sender.sendMessage(VoiceChatInteraction.messages.get("player_not_found", Map.of("player", targetName)));
+            handleOfflinePlayerToggle(sender, targetName, bridge);
             return;
         }
         
-        final boolean newState = !bridge.isPlayerToggleEnabled(target);
-        bridge.setPlayerToggle(target, newState);
-        sendToggleMessage(sender, target, newState, "toggle_other");
+        // The target may be owned by another region thread on Folia
+        VoiceChatInteraction.scheduler.runForEntity(target, () -> {
+            final boolean newState = !bridge.isPlayerToggleEnabled(target);
+            bridge.setPlayerToggle(target, newState);
+            sendToggleMessage(sender, target, newState, "toggle_other");
+        });
+    }
+
+    /**
+     * Flips the stored state of a player who has played before but is offline.
+     * Only players known to the server's user cache are resolved, so no profile lookup blocks the thread.
+     */
+    private void handleOfflinePlayerToggle(final Player sender, final String targetName, final VoiceChatEventBridge bridge) {
+        final OfflinePlayer target = Bukkit.getOfflinePlayerIfCached(targetName);
+        if (target == null) {
+            VoiceChatInteraction.messages.send(sender, "player_not_found", Map.of("player", targetName));
+            return;
+        }
+        // The stored state may not hold the player's legacy state yet
+        if (bridge.isLegacyToggleImportRunning()) {
+            VoiceChatInteraction.messages.send(sender, "toggle_import_running");
+            return;
+        }
+        
+        final boolean newState = !bridge.isToggleEnabled(target.getUniqueId());
+        bridge.setOfflineToggle(target.getUniqueId(), newState);
+        VoiceChatInteraction.messages.send(sender, "toggle_offline", Map.of(
+                "player", target.getName() != null ? target.getName() : targetName,
+                "state", VoiceChatInteraction.messages.get(sender, newState ? "enabled" : "disabled")
+        ));
     }
 
     /**
      * Sends the appropriate toggle message to the target player.
      */
     private void sendToggleMessage(final Player sender, final Player target, final boolean newState, final String messageKey) {
-        final String stateMsg = VoiceChatInteraction.messages.get(newState ? "enabled" : "disabled");
+        final String stateMsg = VoiceChatInteraction.messages.get(target, newState ? "enabled" : "disabled");
         final Map<String, String> replacements = Map.of(
             "state", stateMsg,
             "sender", sender.getName()
         );
-        target.sendMessage(VoiceChatInteraction.messages.get(messageKey, replacements));
+        VoiceChatInteraction.messages.send(target, messageKey, replacements);
     }
 
     /**
      * Sends usage information to the player.
      */
     private void sendUsageMessage(Player player) {
-        player.sendMessage(VoiceChatInteraction.messages.get("usage")
-                + "\n§e/voicechat_interaction reload reloads config/messages (permission: voicechat_interaction.command.reload)");
+        VoiceChatInteraction.messages.send(player, "usage");
+        for (final String key : USAGE_DETAIL_KEYS) {
+            VoiceChatInteraction.messages.send(player, key);
+        }
     }
 
     /**
@@ -143,10 +383,27 @@ public class VoiceChatInteractionCommand implements CommandExecutor, TabComplete
     @Override
     public List<String> onTabComplete(final CommandSender sender, final Command command, final String alias, final String[] args) {
         if (args.length == 1) {
-            final boolean canReload = sender.hasPermission("voicechat_interaction.command.reload");
-            return canReload ? List.of("toggle", "reload") : List.of("toggle");
-        } else if (args.length == 2 && "toggle".equalsIgnoreCase(args[0])) {
-            if (sender.hasPermission("voicechat_interaction.command.others")) {
+            final List<String> subCommands = new ArrayList<>();
+            subCommands.add("toggle");
+            if (sender.hasPermission("voicechat_interaction.command.reload")) {
+                subCommands.add("reload");
+            }
+            if (sender.hasPermission("voicechat_interaction.command.stats")) {
+                subCommands.add("stats");
+            }
+            if (sender.hasPermission("voicechat_interaction.command.noisefloor")) {
+                subCommands.add("noisefloor");
+            }
+            if (sender.hasPermission("voicechat_interaction.command.monitor")) {
+                subCommands.add("monitor");
+            }
+            return subCommands;
+        } else if (args.length == 2 && "stats".equalsIgnoreCase(args[0])
+                && sender.hasPermission("voicechat_interaction.command.stats")) {
+            return List.of("reset");
+        } else if ("noisefloor".equalsIgnoreCase(args[0])
+                && sender.hasPermission("voicechat_interaction.command.noisefloor")) {
+            if (args.length == 2) {
                 final String input = args[1].toLowerCase(Locale.ROOT);
                 return Bukkit.getOnlinePlayers().stream()
                         .map(Player::getName)
@@ -154,6 +411,40 @@ public class VoiceChatInteractionCommand implements CommandExecutor, TabComplete
                         .sorted()
                         .toList();
             }
+            return args.length == 3 ? List.of("reset") : List.of();
+        } else if (args.length == 2 && "monitor".equalsIgnoreCase(args[0])
+                && sender.hasPermission("voicechat_interaction.command.monitor")) {
+            final String input = args[1].toLowerCase(Locale.ROOT);
+            return Bukkit.getOnlinePlayers().stream()
+                    .map(Player::getName)
+                    .filter(name -> name.toLowerCase(Locale.ROOT).startsWith(input))
+                    .sorted()
+                    .toList();
+        } else if (args.length == 2 && "toggle".equalsIgnoreCase(args[0])) {
+            final String input = args[1].toLowerCase(Locale.ROOT);
+            final List<String> targets = new ArrayList<>();
+            if (sender.hasPermission("voicechat_interaction.command.bulk")) {
+                targets.add("all");
+                targets.add("world");
+            }
+            if (sender.hasPermission("voicechat_interaction.command.others")) {
+                Bukkit.getOnlinePlayers().stream()
+                        .map(Player::getName)
+                        .sorted()
+                        .forEach(targets::add);
+            }
+            return targets.stream()
+                    .filter(name -> name.toLowerCase(Locale.ROOT).startsWith(input))
+                    .toList();
+        } else if (args.length >= 3 && "toggle".equalsIgnoreCase(args[0])
+                && sender.hasPermission("voicechat_interaction.command.bulk")) {
+            if ((args.length == 3 && "all".equalsIgnoreCase(args[1]))
+                    || (args.length == 4 && "world".equalsIgnoreCase(args[1]))) {
+                return List.of("on", "off");
+            }
+            if (args.length == 3 && "world".equalsIgnoreCase(args[1])) {
+                return Bukkit.getWorlds().stream().map(World::getName).toList();
+            }
         }
         return List.of();
     }
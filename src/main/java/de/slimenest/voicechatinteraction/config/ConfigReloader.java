@@ -0,0 +1,106 @@
+package de.slimenest.voicechatinteraction.config;
+
+import de.slimenest.voicechatinteraction.VoiceChatEventBridge;
+import de.slimenest.voicechatinteraction.VoiceChatInteraction;
+import de.slimenest.voicechatinteraction.util.MessageProvider;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Reloads config.yml and the message bundles off the main thread.
+ * All files are parsed and validated before anything is published; a broken file keeps the
+ * previous configuration active. The new configuration reaches the voice path through the
+ * load governor's snapshot, so every packet sees either the old or the new settings, never a mix.
+ */
+public final class ConfigReloader {
+
+    private final JavaPlugin plugin;
+    @Nullable
+    private ConfigWatcher watcher;
+
+    public ConfigReloader(final JavaPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Parses, validates and publishes all files and reconfigures the event bridge.
+     * Safe to call from any thread; concurrent reloads are serialized.
+     *
+     * @throws IOException                   if a file cannot be read
+     * @throws InvalidConfigurationException if a file is not valid YAML
+     */
+    public synchronized void reload() throws IOException, InvalidConfigurationException {
+        final File dataFolder = plugin.getDataFolder();
+        final YamlConfiguration fileConfig = new YamlConfiguration();
+        fileConfig.load(new File(dataFolder, "config.yml"));
+        // MessageProvider silently ignores syntax errors, so check all message bundles first
+        final File[] messageFiles = dataFolder.listFiles((dir, name) -> name.startsWith("messages") && name.endsWith(".yml"));
+        if (messageFiles != null) {
+            for (final File messageFile : messageFiles) {
+                new YamlConfiguration().load(messageFile);
+            }
+        }
+
+        final ServerConfig newConfig = new ServerConfig(fileConfig, plugin.getLogger());
+        final MessageProvider newMessages = new MessageProvider(plugin);
+        VoiceChatInteraction.messages = newMessages;
+        VoiceChatInteraction.config = newConfig;
+
+        final VoiceChatEventBridge bridge = VoiceChatInteraction.voiceChatBridge;
+        if (bridge != null) {
+            bridge.configureWorkers(newConfig);
+            bridge.configureTraceRecorder(newConfig);
+            // Publishes the snapshot read by the voice path
+            bridge.getLoadGovernor().refresh();
+            // Reloads run on the watcher or an async thread, where the online players cannot be listed
+            VoiceChatInteraction.scheduler.runGlobal(() -> {
+                for (final Player online : Bukkit.getOnlinePlayers()) {
+                    VoiceChatInteraction.scheduler.runForEntity(online, () -> bridge.refreshPlayerState(online));
+                }
+            });
+        }
+        updateWatcher(newConfig);
+    }
+
+    /**
+     * Starts or stops the file watcher according to the configuration.
+     */
+    public synchronized void updateWatcher(final ServerConfig config) {
+        if (config.watchConfigFiles && watcher == null) {
+            try {
+                watcher = new ConfigWatcher(plugin.getDataFolder().toPath(), this::reloadAfterFileChange, plugin.getLogger());
+                plugin.getLogger().info("Watching config.yml and message files for changes");
+            } catch (final IOException e) {
+                plugin.getLogger().warning("Failed to watch configuration files: " + e.getMessage());
+            }
+        } else if (!config.watchConfigFiles && watcher != null) {
+            stopWatcher();
+        }
+    }
+
+    /**
+     * Stops the file watcher if it is running.
+     */
+    public synchronized void stopWatcher() {
+        if (watcher != null) {
+            watcher.stop();
+            watcher = null;
+        }
+    }
+
+    private void reloadAfterFileChange() {
+        try {
+            reload();
+            plugin.getLogger().info("Configuration reloaded after file change");
+        } catch (final IOException | InvalidConfigurationException e) {
+            plugin.getLogger().warning("Ignoring invalid configuration change, keeping previous settings: " + e.getMessage());
+        }
+    }
+}
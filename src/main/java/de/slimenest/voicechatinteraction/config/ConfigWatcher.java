@@ -0,0 +1,95 @@
+package de.slimenest.voicechatinteraction.config;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches config.yml and the message bundles (messages.yml, messages_de.yml, ...) for changes on its own daemon thread.
+ * The change callback runs once the files have been quiet for a short debounce window,
+ * so an editor saving in several steps causes a single reload.
+ */
+public final class ConfigWatcher {
+
+    private static final long DEBOUNCE_MILLIS = 500L;
+
+    private final Runnable onChange;
+    private final Logger logger;
+    private final WatchService watchService;
+
+    /**
+     * Starts watching the directory.
+     *
+     * @param directory plugin data folder containing the watched files
+     * @param onChange  callback run on the watcher thread after a debounced change
+     * @param logger    logger for callback failures
+     * @throws IOException if the directory cannot be watched
+     */
+    public ConfigWatcher(final Path directory, final Runnable onChange, final Logger logger) throws IOException {
+        this.onChange = onChange;
+        this.logger = logger;
+        this.watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread.ofPlatform().daemon(true).name("voicechat-interaction-config-watcher").start(this::run);
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                if (!isRelevant(watchService.take())) {
+                    continue;
+                }
+                // Wait until no further change arrives within the debounce window
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    isRelevant(next);
+                }
+                try {
+                    onChange.run();
+                } catch (final Exception e) {
+                    logger.log(Level.WARNING, "Config reload after file change failed", e);
+                }
+            }
+        } catch (final InterruptedException | ClosedWatchServiceException e) {
+            // Watcher stopped
+        }
+    }
+
+    /**
+     * Consumes the events of a key and checks whether any of them concerns a watched file.
+     */
+    private boolean isRelevant(final WatchKey key) {
+        boolean relevant = false;
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || (event.context() instanceof Path path && isWatchedFile(path.toString()))) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    private static boolean isWatchedFile(final String name) {
+        return name.equals("config.yml") || (name.startsWith("messages") && name.endsWith(".yml"));
+    }
+
+    /**
+     * Stops watching. Safe to call from the watcher thread itself.
+     */
+    public void stop() {
+        try {
+            watchService.close();
+        } catch (final IOException e) {
+            logger.warning("Failed to close config file watcher: " + e.getMessage());
+        }
+    }
+}
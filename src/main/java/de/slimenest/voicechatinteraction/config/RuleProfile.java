@@ -0,0 +1,33 @@
+package de.slimenest.voicechatinteraction.config;
+
+/**
+ * Voice rules that can differ per world or permission group, with thresholds precomputed for the voice path.
+ * The global values of {@link ServerConfig} form the default profile.
+ *
+ * @param name                          profile name from config.yml, {@code default} for the global values
+ * @param enableGroupVoice              whether group voice can trigger
+ * @param enableWhisperVoice            whether whispering can trigger
+ * @param enableSneakVoice              whether sneaking players can trigger
+ * @param activationDbThreshold         activation threshold in dB
+ * @param activationMeanSquareThreshold mean-square equivalent of the activation threshold
+ * @param activationCooldownTicks       cooldown between triggers in ticks
+ * @param activationCooldownNanos       cooldown between triggers in nanoseconds
+ * @param noiseFloorOffsetFactor        mean-square factor applied to a calibrated noise floor threshold,
+ *                                      see {@link #noiseFloorOffsetFactor(int, int)}
+ */
+public record RuleProfile(String name, boolean enableGroupVoice, boolean enableWhisperVoice, boolean enableSneakVoice,
+                          int activationDbThreshold, double activationMeanSquareThreshold,
+                          int activationCooldownTicks, long activationCooldownNanos, double noiseFloorOffsetFactor) {
+
+    /**
+     * Returns how far a profile's threshold shifts a calibrated threshold: its distance from the global
+     * threshold, computed in dB so a global threshold of -127 dB (mean square 0) still gives a finite factor.
+     *
+     * @param profileDbThreshold activation threshold of the profile in dB
+     * @param globalDbThreshold  global activation threshold in dB
+     * @return mean-square factor, 1 for the default profile
+     */
+    public static double noiseFloorOffsetFactor(final int profileDbThreshold, final int globalDbThreshold) {
+        return Math.pow(10.0, (profileDbThreshold - globalDbThreshold) / 10.0);
+    }
+}
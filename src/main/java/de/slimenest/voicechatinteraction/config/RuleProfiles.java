@@ -0,0 +1,77 @@
+package de.slimenest.voicechatinteraction.config;
+
+import org.bukkit.entity.Player;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rule profiles compiled from config.yml, in configuration order, and the default profile.
+ * Resolved per player on the main thread; the result is cached in the player's state snapshot,
+ * so the voice path never evaluates worlds or permissions.
+ */
+public final class RuleProfiles {
+
+    /**
+     * A profile with the conditions selecting it. Empty conditions match every player.
+     *
+     * @param profile    resolved rules
+     * @param worlds     names of the worlds the profile applies to
+     * @param permission permission a player needs for the profile, or an empty string
+     */
+    public record Entry(RuleProfile profile, Set<String> worlds, String permission) {
+
+        private boolean matches(final Player player) {
+            return (worlds.isEmpty() || worlds.contains(player.getWorld().getName()))
+                    && (permission.isEmpty() || player.hasPermission(permission));
+        }
+    }
+
+    private final RuleProfile defaultProfile;
+    private final List<Entry> entries;
+    private final long maxCooldownNanos;
+
+    public RuleProfiles(final RuleProfile defaultProfile, final List<Entry> entries) {
+        this.defaultProfile = defaultProfile;
+        this.entries = List.copyOf(entries);
+        long maxCooldown = defaultProfile.activationCooldownNanos();
+        for (final Entry entry : this.entries) {
+            maxCooldown = Math.max(maxCooldown, entry.profile().activationCooldownNanos());
+        }
+        this.maxCooldownNanos = maxCooldown;
+    }
+
+    /**
+     * Returns the first profile matching the player's world and permissions, or the default profile.
+     * Must be called on the thread owning the player.
+     */
+    public RuleProfile resolve(final Player player) {
+        for (final Entry entry : entries) {
+            if (entry.matches(player)) {
+                return entry.profile();
+            }
+        }
+        return defaultProfile;
+    }
+
+    /**
+     * Returns the profile made of the global settings.
+     */
+    public RuleProfile defaultProfile() {
+        return defaultProfile;
+    }
+
+    /**
+     * Returns the number of configured profiles, not counting the default.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the longest cooldown of all profiles, used to decide when cooldown slots can be dropped.
+     */
+    public long maxCooldownNanos() {
+        return maxCooldownNanos;
+    }
+}
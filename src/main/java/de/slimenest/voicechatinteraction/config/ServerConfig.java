@@ -1,15 +1,27 @@
 package de.slimenest.voicechatinteraction.config;
 
 
-import org.bukkit.Bukkit;
+import de.slimenest.voicechatinteraction.SoundChannelTracker;
+import de.slimenest.voicechatinteraction.util.AnalysisWorkerPool;
+import de.slimenest.voicechatinteraction.util.LoudnessEnvelope;
+import de.slimenest.voicechatinteraction.util.SoundAnalyzer;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.logging.Logger;
+
 /**
  * Configuration data for the VoiceChatInteraction plugin.
  *
  * Reads values from config.yml and validates them.
  */
 public class ServerConfig {
+    /** Duration of one Simple Voice Chat Opus frame. */
+    private static final double VOICE_FRAME_MILLIS = 20.0;
+
     // Improved config field names
     public final boolean enableGroupVoice;
     public final boolean enableWhisperVoice;
@@ -17,27 +29,169 @@ public class ServerConfig {
     public final int activationDbThreshold;
     public final boolean toggleDefaultState;
     public final int activationCooldownTicks;
+    public final boolean opusPreclassifierEnabled;
+    public final int opusSilenceMaxBytes;
+    public final int opusLoudMinBytes;
+    public final boolean envelopeEnabled;
+    public final int envelopeAttackMs;
+    public final int envelopeReleaseMs;
+    public final int envelopeHysteresisDb;
+    public final boolean noiseFloorEnabled;
+    public final int noiseFloorMarginDb;
+    public final int noiseFloorMinThresholdDb;
+    public final int noiseFloorMaxThresholdDb;
+    public final boolean speechBandFilterEnabled;
+    public final int speechBandMinRatioDb;
+    public final boolean requireNearbyListener;
+    public final boolean soundChannelsStaticEnabled;
+    public final boolean soundChannelsLocationalEnabled;
+    public final boolean soundChannelsEntityEnabled;
+    public final SoundChannelTracker.EmitterMode soundChannelEmitter;
+    public final int soundChannelMaxTracked;
+    public final int analysisWorkers;
+    public final int analysisQueueCapacity;
+    public final AnalysisWorkerPool.OverflowPolicy analysisOverflowPolicy;
+    public final boolean analysisVirtualThreads;
+    public final boolean loadSheddingEnabled;
+    public final int loadSheddingStartMspt;
+    public final int loadSheddingFullMspt;
+    public final double loadSheddingMaxCooldownMultiplier;
+    public final int loadSheddingMaxDbRaise;
+    public final int loadSheddingMinEventsPerTick;
+    public final int statsDumpIntervalSeconds;
+    public final int statsLogMaxMb;
+    public final int statsLogMaxFiles;
+    public final boolean watchConfigFiles;
+    public final boolean traceRecorderEnabled;
+    public final int traceRecorderMaxMb;
+    /** {@link #activationCooldownTicks} converted to nanoseconds for the monotonic voice-thread cooldown gate. */
+    public final long activationCooldownNanos;
+    /** Precomputed mean-square equivalent of {@link #activationDbThreshold} for the voice hot path. */
+    public final double activationMeanSquareThreshold;
+    /** Per-frame envelope smoothing factors derived from the attack/release times. */
+    public final double envelopeAttackCoeff;
+    public final double envelopeReleaseCoeff;
+    /** Ratio between the mean-square levels at which the envelope stops and starts talking. */
+    public final double envelopeHysteresisFactor;
+    /** Mean-square factor between a player's noise floor and their activation threshold, and its bounds. */
+    public final double noiseFloorMarginFactor;
+    public final double noiseFloorMinThresholdMeanSquare;
+    public final double noiseFloorMaxThresholdMeanSquare;
+    /** Minimum speech-band to out-of-band power ratio derived from {@link #speechBandMinRatioDb}. */
+    public final double speechBandMinRatio;
+    /** Per-world and per-permission rule profiles; the global rules above form the default profile. */
+    public final RuleProfiles profiles;
 
     /**
      * Reads and validates the configuration.
      * 
      * @param config Bukkit configuration
+     * @param logger receives warnings about invalid values
      */
-    public ServerConfig(final FileConfiguration config) {
+    public ServerConfig(final FileConfiguration config, final Logger logger) {
         enableGroupVoice = config.getBoolean("enable_group_voice", false);
         enableWhisperVoice = config.getBoolean("enable_whisper_voice", false);
         enableSneakVoice = config.getBoolean("enable_sneak_voice", false);
-        activationDbThreshold = validateDbThreshold(config.getInt("activation_db_threshold", -50));
+        activationDbThreshold = validateDbThreshold(logger, config.getInt("activation_db_threshold", -50));
         toggleDefaultState = config.getBoolean("toggle_default_state", true);
-        activationCooldownTicks = validateCooldownTicks(config.getInt("activation_cooldown_ticks", 20));
+        activationCooldownTicks = validateCooldownTicks(logger, config.getInt("activation_cooldown_ticks", 20));
+        opusPreclassifierEnabled = config.getBoolean("opus_preclassifier_enabled", true);
+        opusSilenceMaxBytes = validateNonNegative(logger, "opus_silence_max_bytes", config.getInt("opus_silence_max_bytes", 3), 3);
+        opusLoudMinBytes = validateNonNegative(logger, "opus_loud_min_bytes", config.getInt("opus_loud_min_bytes", 0), 0);
+        envelopeEnabled = config.getBoolean("envelope_enabled", false);
+        envelopeAttackMs = validateNonNegative(logger, "envelope_attack_ms", config.getInt("envelope_attack_ms", 40), 40);
+        envelopeReleaseMs = validateNonNegative(logger, "envelope_release_ms", config.getInt("envelope_release_ms", 300), 300);
+        envelopeHysteresisDb = validateNonNegative(logger, "envelope_hysteresis_db", config.getInt("envelope_hysteresis_db", 6), 6);
+        noiseFloorEnabled = config.getBoolean("noise_floor_enabled", false);
+        noiseFloorMarginDb = validateNonNegative(logger, "noise_floor_margin_db", config.getInt("noise_floor_margin_db", 15), 15);
+        noiseFloorMinThresholdDb = validateDecibel(logger, "noise_floor_min_threshold_db", config.getInt("noise_floor_min_threshold_db", -60), -60);
+        noiseFloorMaxThresholdDb = Math.max(noiseFloorMinThresholdDb,
+                validateDecibel(logger, "noise_floor_max_threshold_db", config.getInt("noise_floor_max_threshold_db", -30), -30));
+        speechBandFilterEnabled = config.getBoolean("speech_band_filter_enabled", false);
+        speechBandMinRatioDb = validateNonNegative(logger, "speech_band_min_ratio_db", config.getInt("speech_band_min_ratio_db", 10), 10);
+        requireNearbyListener = config.getBoolean("require_nearby_listener", false);
+        soundChannelsStaticEnabled = config.getBoolean("sound_channels_static_enabled", false);
+        soundChannelsLocationalEnabled = config.getBoolean("sound_channels_locational_enabled", false);
+        soundChannelsEntityEnabled = config.getBoolean("sound_channels_entity_enabled", false);
+        soundChannelEmitter = SoundChannelTracker.EmitterMode.parse(config.getString("sound_channel_emitter", "source"));
+        soundChannelMaxTracked = validateNonNegative(logger, "sound_channel_max_tracked", config.getInt("sound_channel_max_tracked", 256), 256);
+        analysisWorkers = validateNonNegative(logger, "analysis_workers", config.getInt("analysis_workers", 2), 2);
+        analysisQueueCapacity = validateNonNegative(logger, "analysis_queue_capacity", config.getInt("analysis_queue_capacity", 256), 256);
+        analysisOverflowPolicy = AnalysisWorkerPool.OverflowPolicy.parse(config.getString("analysis_overflow_policy", "drop_oldest"));
+        analysisVirtualThreads = config.getBoolean("analysis_virtual_threads", false);
+        loadSheddingEnabled = config.getBoolean("load_shedding_enabled", true);
+        loadSheddingStartMspt = validateNonNegative(logger, "load_shedding_start_mspt", config.getInt("load_shedding_start_mspt", 40), 40);
+        loadSheddingFullMspt = Math.max(loadSheddingStartMspt + 1,
+                validateNonNegative(logger, "load_shedding_full_mspt", config.getInt("load_shedding_full_mspt", 55), 55));
+        loadSheddingMaxCooldownMultiplier = Math.max(1.0, config.getDouble("load_shedding_max_cooldown_multiplier", 4.0));
+        loadSheddingMaxDbRaise = validateNonNegative(logger, "load_shedding_max_db_raise", config.getInt("load_shedding_max_db_raise", 10), 10);
+        loadSheddingMinEventsPerTick = Math.max(1, config.getInt("load_shedding_min_events_per_tick", 5));
+        if (opusPreclassifierEnabled && opusLoudMinBytes > 0 && (speechBandFilterEnabled || noiseFloorEnabled)) {
+            logger.warning("opus_loud_min_bytes has no effect while speech_band_filter_enabled or noise_floor_enabled"
+                    + " is on: loud packets are decoded for them");
+        }
+        statsDumpIntervalSeconds = validateNonNegative(logger, "stats_dump_interval_seconds", config.getInt("stats_dump_interval_seconds", 0), 0);
+        statsLogMaxMb = Math.max(1, config.getInt("stats_log_max_mb", 1));
+        statsLogMaxFiles = Math.max(1, config.getInt("stats_log_max_files", 3));
+        watchConfigFiles = config.getBoolean("watch_config_files", false);
+        traceRecorderEnabled = config.getBoolean("trace_recorder_enabled", false);
+        traceRecorderMaxMb = Math.max(1, config.getInt("trace_recorder_max_mb", 16));
+        activationCooldownNanos = activationCooldownTicks * 50_000_000L;
+        activationMeanSquareThreshold = SoundAnalyzer.decibelToMeanSquare(activationDbThreshold);
+        envelopeAttackCoeff = LoudnessEnvelope.coefficient(VOICE_FRAME_MILLIS, envelopeAttackMs);
+        envelopeReleaseCoeff = LoudnessEnvelope.coefficient(VOICE_FRAME_MILLIS, envelopeReleaseMs);
+        envelopeHysteresisFactor = Math.pow(10.0, -envelopeHysteresisDb / 10.0);
+        noiseFloorMarginFactor = Math.pow(10.0, noiseFloorMarginDb / 10.0);
+        noiseFloorMinThresholdMeanSquare = SoundAnalyzer.decibelToMeanSquare(noiseFloorMinThresholdDb);
+        noiseFloorMaxThresholdMeanSquare = SoundAnalyzer.decibelToMeanSquare(noiseFloorMaxThresholdDb);
+        speechBandMinRatio = Math.pow(10.0, speechBandMinRatioDb / 10.0);
+        final RuleProfile defaultProfile = new RuleProfile("default", enableGroupVoice, enableWhisperVoice,
+                enableSneakVoice, activationDbThreshold, activationMeanSquareThreshold,
+                activationCooldownTicks, activationCooldownNanos, 1.0);
+        profiles = new RuleProfiles(defaultProfile, compileProfiles(config.getConfigurationSection("profiles"), defaultProfile, logger));
+    }
+
+    /**
+     * Compiles the {@code profiles} section. Each profile overrides the global rules it names and applies to
+     * its {@code worlds} and/or players with its {@code permission}; the first matching profile wins.
+     */
+    private static List<RuleProfiles.Entry> compileProfiles(final ConfigurationSection section,
+                                                            final RuleProfile defaults, final Logger logger) {
+        final List<RuleProfiles.Entry> entries = new ArrayList<>();
+        if (section == null) {
+            return entries;
+        }
+        for (final String name : section.getKeys(false)) {
+            final ConfigurationSection profile = section.getConfigurationSection(name);
+            if (profile == null) {
+                logger.warning("Ignoring profile " + name + ": not a section");
+                continue;
+            }
+            final String key = "profiles." + name + ".";
+            final int dbThreshold = validateDecibel(logger, key + "activation_db_threshold",
+                    profile.getInt("activation_db_threshold", defaults.activationDbThreshold()), defaults.activationDbThreshold());
+            final int cooldownTicks = validateNonNegative(logger, key + "activation_cooldown_ticks",
+                    profile.getInt("activation_cooldown_ticks", defaults.activationCooldownTicks()), defaults.activationCooldownTicks());
+            entries.add(new RuleProfiles.Entry(
+                    new RuleProfile(name,
+                            profile.getBoolean("enable_group_voice", defaults.enableGroupVoice()),
+                            profile.getBoolean("enable_whisper_voice", defaults.enableWhisperVoice()),
+                            profile.getBoolean("enable_sneak_voice", defaults.enableSneakVoice()),
+                            dbThreshold, SoundAnalyzer.decibelToMeanSquare(dbThreshold),
+                            cooldownTicks, cooldownTicks * 50_000_000L,
+                            RuleProfile.noiseFloorOffsetFactor(dbThreshold, defaults.activationDbThreshold())),
+                    new HashSet<>(profile.getStringList("worlds")),
+                    profile.getString("permission", "")));
+        }
+        return entries;
     }
 
     /**
      * Validates and returns a proper dB threshold value.
      */
-    private static int validateDbThreshold(final int value) {
+    private static int validateDbThreshold(final Logger logger, final int value) {
         if (value < -127 || value > 0) {
-            Bukkit.getLogger().warning("[voicechat_interaction] Invalid activation_db_threshold (" + value + 
+            logger.warning("Invalid activation_db_threshold (" + value + 
                 "). Must be between -127 and 0. Using default (-50).");
             return -50;
         }
@@ -47,12 +201,36 @@ public class ServerConfig {
     /**
      * Validates and returns a proper cooldown ticks value.
      */
-    private static int validateCooldownTicks(final int value) {
+    private static int validateCooldownTicks(final Logger logger, final int value) {
         if (value < 0) {
-            Bukkit.getLogger().warning("[voicechat_interaction] Invalid activation_cooldown_ticks (" + value + 
+            logger.warning("Invalid activation_cooldown_ticks (" + value + 
                 "). Must be >= 0. Using default (20).");
             return 20;
         }
         return value;
     }
+
+    /**
+     * Validates and returns a dB value in the range of the analyzer.
+     */
+    private static int validateDecibel(final Logger logger, final String key, final int value, final int defaultValue) {
+        if (value < -127 || value > 0) {
+            logger.warning("Invalid " + key + " (" + value +
+                "). Must be between -127 and 0. Using default (" + defaultValue + ").");
+            return defaultValue;
+        }
+        return value;
+    }
+
+    /**
+     * Validates and returns a value that must not be negative.
+     */
+    private static int validateNonNegative(final Logger logger, final String key, final int value, final int defaultValue) {
+        if (value < 0) {
+            logger.warning("Invalid " + key + " (" + value +
+                "). Must be >= 0. Using default (" + defaultValue + ").");
+            return defaultValue;
+        }
+        return value;
+    }
 }
@@ -0,0 +1,209 @@
+package de.slimenest.voicechatinteraction.listener;
+
+import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import de.slimenest.voicechatinteraction.VoiceChatInteraction;
+import de.slimenest.voicechatinteraction.util.ListenerIndex;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.SculkSensor;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Warden;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the {@link ListenerIndex} from chunk, block and entity events.
+ * Sculk sensors are counted per chunk; Wardens move, so their chunks are republished periodically.
+ * Handlers run on the main thread (Paper) or on the owning region thread (Folia), so all state is concurrent.
+ */
+public class ListenerIndexListener implements Listener {
+
+    /**
+     * Last known chunk of a Warden, read on the thread owning the Warden.
+     */
+    private record WardenChunk(UUID worldId, long chunkKey) {
+    }
+
+    private final ListenerIndex index;
+    private final ConcurrentHashMap<Warden, WardenChunk> wardens = new ConcurrentHashMap<>();
+
+    public ListenerIndexListener(final ListenerIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Indexes all currently loaded chunks and Wardens, e.g. after a plugin reload.
+     * Must run on the main thread, so it is not available on Folia; use {@link #rescanAround} there.
+     */
+    public void indexLoadedWorlds(final List<World> worlds) {
+        for (final World world : worlds) {
+            for (final Chunk chunk : world.getLoadedChunks()) {
+                indexChunk(chunk);
+            }
+            for (final Warden warden : world.getEntitiesByClass(Warden.class)) {
+                wardens.put(warden, locate(warden));
+            }
+        }
+        publishWardens();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(final ChunkLoadEvent event) {
+        indexChunk(event.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(final ChunkUnloadEvent event) {
+        final Chunk chunk = event.getChunk();
+        index.removeChunk(chunk.getWorld().getUID(), chunk.getX(), chunk.getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(final WorldUnloadEvent event) {
+        index.removeWorld(event.getWorld().getUID());
+        final UUID worldId = event.getWorld().getUID();
+        wardens.values().removeIf(position -> position.worldId().equals(worldId));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(final BlockPlaceEvent event) {
+        if (isVibrationListener(event.getBlockPlaced().getType())) {
+            adjust(event.getBlockPlaced(), 1);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(final BlockBreakEvent event) {
+        if (isVibrationListener(event.getBlock().getType())) {
+            adjust(event.getBlock(), -1);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(final BlockExplodeEvent event) {
+        removeExploded(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(final EntityExplodeEvent event) {
+        removeExploded(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityAdd(final EntityAddToWorldEvent event) {
+        if (event.getEntity() instanceof Warden warden) {
+            wardens.put(warden, locate(warden));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(final EntityRemoveFromWorldEvent event) {
+        if (event.getEntity() instanceof Warden warden) {
+            wardens.remove(warden);
+        }
+    }
+
+    /**
+     * Publishes the last known chunk of every tracked Warden to the index and schedules
+     * a position update for each Warden on the thread that owns it. Called periodically.
+     */
+    public void publishWardens() {
+        final Map<UUID, Map<Long, Integer>> byWorld = new HashMap<>();
+        for (final Map.Entry<Warden, WardenChunk> entry : wardens.entrySet()) {
+            final WardenChunk position = entry.getValue();
+            byWorld.computeIfAbsent(position.worldId(), id -> new HashMap<>())
+                    .merge(position.chunkKey(), 1, Integer::sum);
+
+            final Warden warden = entry.getKey();
+            VoiceChatInteraction.scheduler.runForEntity(warden, () -> wardens.replace(warden, locate(warden)));
+        }
+        index.publishMobileListeners(byWorld);
+    }
+
+    /**
+     * Recounts the Sculk sensors of the loaded chunks around each player and picks up nearby Wardens,
+     * on the thread owning the player.
+     * Catches sensors that appear without a block event, e.g. from commands, WorldEdit, pistons or structures.
+     *
+     * @param players players to rescan around
+     * @param radius  horizontal radius in blocks
+     */
+    public void rescanAround(final Collection<? extends Player> players, final int radius) {
+        for (final Player player : players) {
+            VoiceChatInteraction.scheduler.runForEntity(player, () -> rescanAround(player, radius));
+        }
+    }
+
+    private void rescanAround(final Player player, final int radius) {
+        final Location location = player.getLocation();
+        final World world = location.getWorld();
+        for (int chunkX = (location.getBlockX() - radius) >> 4; chunkX <= (location.getBlockX() + radius) >> 4; chunkX++) {
+            for (int chunkZ = (location.getBlockZ() - radius) >> 4; chunkZ <= (location.getBlockZ() + radius) >> 4; chunkZ++) {
+                if (world.isChunkLoaded(chunkX, chunkZ)) {
+                    indexChunk(world.getChunkAt(chunkX, chunkZ));
+                }
+            }
+        }
+        for (final Warden warden : world.getNearbyEntitiesByType(Warden.class, location, radius)) {
+            wardens.putIfAbsent(warden, locate(warden));
+        }
+    }
+
+    private static WardenChunk locate(final Warden warden) {
+        final Location location = warden.getLocation();
+        return new WardenChunk(location.getWorld().getUID(),
+                ListenerIndex.chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4));
+    }
+
+    /**
+     * Counts the Sculk sensors of a chunk using its block entities, avoiding a full block scan.
+     */
+    private void indexChunk(final Chunk chunk) {
+        int count = 0;
+        for (final BlockState state : chunk.getTileEntities(false)) {
+            if (state instanceof SculkSensor) {
+                count++;
+            }
+        }
+        index.setChunk(chunk.getWorld().getUID(), chunk.getX(), chunk.getZ(), count);
+    }
+
+    private void removeExploded(final List<Block> blocks) {
+        for (final Block block : blocks) {
+            if (isVibrationListener(block.getType())) {
+                adjust(block, -1);
+            }
+        }
+    }
+
+    private void adjust(final Block block, final int delta) {
+        index.addToChunk(block.getWorld().getUID(), block.getX() >> 4, block.getZ() >> 4, delta);
+    }
+
+    /**
+     * Blocks that react to vibrations directly. Shriekers only react to adjacent sensors, so they are covered by those.
+     */
+    private static boolean isVibrationListener(final Material type) {
+        return type == Material.SCULK_SENSOR || type == Material.CALIBRATED_SCULK_SENSOR;
+    }
+}
@@ -0,0 +1,25 @@
+package de.slimenest.voicechatinteraction.listener;
+
+import de.slimenest.voicechatinteraction.LoudnessPublisher;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+
+/**
+ * Cancels the loudness subscriptions of plugins that are disabled without cancelling them,
+ * so their listeners are never called with a disabled plugin and its classes can be unloaded.
+ */
+public class LoudnessServiceListener implements Listener {
+
+    private final LoudnessPublisher publisher;
+
+    public LoudnessServiceListener(final LoudnessPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(final PluginDisableEvent event) {
+        publisher.cancelAll(event.getPlugin());
+    }
+}
@@ -0,0 +1,56 @@
+package de.slimenest.voicechatinteraction.listener;
+
+import de.slimenest.voicechatinteraction.VoiceChatEventBridge;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerCommandSendEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerToggleSneakEvent;
+
+/**
+ * Keeps the event bridge's player state snapshots up to date.
+ * All handlers run on the main thread, which is the only place the Bukkit API is read.
+ */
+public class PlayerStateListener implements Listener {
+
+    private final VoiceChatEventBridge bridge;
+
+    public PlayerStateListener(final VoiceChatEventBridge bridge) {
+        this.bridge = bridge;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(final PlayerJoinEvent event) {
+        bridge.refreshPlayerState(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(final PlayerQuitEvent event) {
+        bridge.removePlayerState(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(final PlayerChangedWorldEvent event) {
+        bridge.refreshPlayerState(event.getPlayer());
+    }
+
+    /**
+     * Permission plugins resend the command list after a player's permissions change, so this is where
+     * a new permission-based rule profile is picked up.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onCommandsSent(final PlayerCommandSendEvent event) {
+        bridge.refreshPlayerState(event.getPlayer());
+    }
+
+    /**
+     * The event fires before the sneak state changes, so the new state comes from the event itself.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onToggleSneak(final PlayerToggleSneakEvent event) {
+        bridge.updateSneakState(event.getPlayer(), event.isSneaking());
+    }
+}
@@ -0,0 +1,74 @@
+package de.slimenest.voicechatinteraction.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * {@link PluginScheduler} for Paper and Spigot, backed by the global Bukkit scheduler.
+ */
+public class BukkitPluginScheduler implements PluginScheduler {
+
+    private final Plugin plugin;
+
+    public BukkitPluginScheduler(final Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void runRepeating(final Runnable task, final long delayTicks, final long periodTicks) {
+        Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks);
+    }
+
+    @Override
+    public void runRepeatingAsync(final Runnable task, final long delayTicks, final long periodTicks) {
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, task, delayTicks, periodTicks);
+    }
+
+    @Override
+    public void runGlobal(final Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
+    @Override
+    public void runAsync(final Runnable task) {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+    }
+
+    @Override
+    public void runForEntity(final Entity entity, final Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (entity.isValid()) {
+                    task.run();
+                }
+            });
+        }
+    }
+
+    @Override
+    public void runAtLocation(final Location location, final Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
+    @Override
+    public void cancelAll() {
+        Bukkit.getScheduler().cancelTasks(plugin);
+    }
+
+    @Override
+    public boolean isRegionized() {
+        return false;
+    }
+}
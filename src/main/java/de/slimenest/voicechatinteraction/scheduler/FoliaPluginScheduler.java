@@ -0,0 +1,127 @@
+package de.slimenest.voicechatinteraction.scheduler;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PluginScheduler} for Folia, backed by Paper's global region, async, region and entity schedulers.
+ * Region and entity tasks are tracked until they run, since those schedulers cannot cancel all tasks of a plugin.
+ */
+public class FoliaPluginScheduler implements PluginScheduler {
+
+    private static final long MILLIS_PER_TICK = 50L;
+
+    private final Plugin plugin;
+    private final Set<ScheduledTask> pendingTasks = ConcurrentHashMap.newKeySet();
+
+    public FoliaPluginScheduler(final Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Detects Folia by the presence of its regionized server class.
+     */
+    public static boolean isSupported() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (final ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void runRepeating(final Runnable task, final long delayTicks, final long periodTicks) {
+        Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, scheduledTask -> task.run(),
+                Math.max(1L, delayTicks), periodTicks);
+    }
+
+    @Override
+    public void runRepeatingAsync(final Runnable task, final long delayTicks, final long periodTicks) {
+        Bukkit.getAsyncScheduler().runAtFixedRate(plugin, scheduledTask -> task.run(),
+                Math.max(1L, delayTicks) * MILLIS_PER_TICK, periodTicks * MILLIS_PER_TICK, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void runGlobal(final Runnable task) {
+        if (Bukkit.isGlobalTickThread()) {
+            task.run();
+        } else {
+            Bukkit.getGlobalRegionScheduler().execute(plugin, task);
+        }
+    }
+
+    @Override
+    public void runAsync(final Runnable task) {
+        Bukkit.getAsyncScheduler().runNow(plugin, scheduledTask -> task.run());
+    }
+
+    @Override
+    public void runForEntity(final Entity entity, final Runnable task) {
+        if (Bukkit.isOwnedByCurrentRegion(entity)) {
+            task.run();
+        } else {
+            track(entity.getScheduler().run(plugin, scheduledTask -> {
+                pendingTasks.remove(scheduledTask);
+                task.run();
+            }, this::pruneTasks));
+        }
+    }
+
+    @Override
+    public void runAtLocation(final Location location, final Runnable task) {
+        if (Bukkit.isOwnedByCurrentRegion(location)) {
+            task.run();
+        } else {
+            track(Bukkit.getRegionScheduler().run(plugin, location, scheduledTask -> {
+                pendingTasks.remove(scheduledTask);
+                task.run();
+            }));
+        }
+    }
+
+    @Override
+    public void cancelAll() {
+        Bukkit.getGlobalRegionScheduler().cancelTasks(plugin);
+        Bukkit.getAsyncScheduler().cancelTasks(plugin);
+        for (final ScheduledTask task : pendingTasks) {
+            task.cancel();
+        }
+        pendingTasks.clear();
+    }
+
+    /**
+     * Remembers a region or entity task until it runs. The task may already have run on another
+     * region thread before it was added, so it is dropped again unless it is still waiting.
+     */
+    private void track(@Nullable final ScheduledTask task) {
+        if (task == null) {
+            // Entity already removed
+            return;
+        }
+        pendingTasks.add(task);
+        if (task.getExecutionState() != ScheduledTask.ExecutionState.IDLE) {
+            pendingTasks.remove(task);
+        }
+    }
+
+    /**
+     * Drops tasks that will never run, e.g. because their entity was removed.
+     */
+    private void pruneTasks() {
+        pendingTasks.removeIf(task -> task.getExecutionState() != ScheduledTask.ExecutionState.IDLE);
+    }
+
+    @Override
+    public boolean isRegionized() {
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+package de.slimenest.voicechatinteraction.scheduler;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Schedules plugin work on the right thread for the running server implementation.
+ * On Paper everything tick-bound runs on the main thread; on Folia entity work runs on
+ * the region thread that owns the entity.
+ */
+public interface PluginScheduler {
+
+    /**
+     * Runs a task repeatedly on the main thread (Paper) or the global region thread (Folia).
+     */
+    void runRepeating(Runnable task, long delayTicks, long periodTicks);
+
+    /**
+     * Runs a task repeatedly off the server threads.
+     */
+    void runRepeatingAsync(Runnable task, long delayTicks, long periodTicks);
+
+    /**
+     * Runs a task once on the main thread (Paper) or the global region thread (Folia).
+     * Runs inline if the caller already is on that thread.
+     */
+    void runGlobal(Runnable task);
+
+    /**
+     * Runs a task once off the server threads.
+     */
+    void runAsync(Runnable task);
+
+    /**
+     * Runs a task on the thread that owns the entity. Runs inline if the caller already owns it.
+     * The task is silently dropped if the entity is removed before it runs.
+     */
+    void runForEntity(Entity entity, Runnable task);
+
+    /**
+     * Runs a task on the thread that owns the location. Runs inline if the caller already owns it.
+     */
+    void runAtLocation(Location location, Runnable task);
+
+    /**
+     * Cancels all tasks of the plugin.
+     */
+    void cancelAll();
+
+    /**
+     * Returns whether the server uses region-threaded scheduling (Folia).
+     */
+    boolean isRegionized();
+
+    /**
+     * Creates the scheduler matching the running server.
+     */
+    static PluginScheduler create(final Plugin plugin) {
+        return FoliaPluginScheduler.isSupported()
+                ? new FoliaPluginScheduler(plugin)
+                : new BukkitPluginScheduler(plugin);
+    }
+}
@@ -0,0 +1,101 @@
+package de.slimenest.voicechatinteraction.stats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low-overhead latency histogram with power-of-two nanosecond buckets.
+ * Recording is a single striped {@link LongAdder} increment and safe from any thread.
+ * Percentiles are reported as the upper bound of the bucket they fall into.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder totalNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one sample.
+     *
+     * @param nanos measured duration in nanoseconds; negative values are clamped to 0
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(0L, nanos);
+        // Bucket i holds values in [2^(i-1), 2^i - 1]; bucket 0 holds zero
+        buckets[BUCKETS - Long.numberOfLeadingZeros(value)].increment();
+        totalNanos.add(value);
+    }
+
+    /**
+     * Returns the number of recorded samples.
+     */
+    public long count() {
+        long count = 0L;
+        for (final LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the mean of all samples in nanoseconds, or 0 if empty.
+     */
+    public long meanNanos() {
+        final long count = count();
+        return count == 0L ? 0L : totalNanos.sum() / count;
+    }
+
+    /**
+     * Returns an upper bound for the given percentile in nanoseconds, or 0 if empty.
+     *
+     * @param percentile value in (0, 100]
+     */
+    public long percentileNanos(final double percentile) {
+        final long[] counts = new long[BUCKETS];
+        long total = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0L) {
+            return 0L;
+        }
+        final long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == 0 ? 0L : (i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1L);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Formats count, mean, p50 and p99 in microseconds.
+     */
+    public String summary() {
+        return String.format(java.util.Locale.ROOT, "n=%d mean=%dus p50<=%dus p99<=%dus",
+                count(),
+                TimeUnit.NANOSECONDS.toMicros(meanNanos()),
+                TimeUnit.NANOSECONDS.toMicros(percentileNanos(50)),
+                TimeUnit.NANOSECONDS.toMicros(percentileNanos(99)));
+    }
+
+    /**
+     * Clears all samples.
+     */
+    public void reset() {
+        for (final LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        totalNanos.reset();
+    }
+}
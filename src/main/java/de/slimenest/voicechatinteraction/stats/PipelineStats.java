@@ -0,0 +1,163 @@
+package de.slimenest.voicechatinteraction.stats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for every stage of the microphone packet pipeline.
+ * All recording methods are striped {@link LongAdder} updates and safe to call from voice threads.
+ */
+public final class PipelineStats {
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder[] rejected = new LongAdder[RejectReason.values().length];
+    private final LongAdder preclassifiedSilent = new LongAdder();
+    private final LongAdder preclassifiedLoud = new LongAdder();
+    private final LongAdder decoded = new LongAdder();
+    private final LongAdder notSpeech = new LongAdder();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder emitted = new LongAdder();
+    private final LatencyHistogram analysisLatency = new LatencyHistogram();
+    private final LatencyHistogram triggerLatency = new LatencyHistogram();
+    private volatile long startedNanos = System.nanoTime();
+
+    public PipelineStats() {
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] = new LongAdder();
+        }
+    }
+
+    public void recordReceived() {
+        received.increment();
+    }
+
+    public void recordRejected(final RejectReason reason) {
+        rejected[reason.ordinal()].increment();
+    }
+
+    /**
+     * Records a packet classified as silence from Opus metadata, i.e. a decode that was avoided.
+     */
+    public void recordPreclassifiedSilent() {
+        preclassifiedSilent.increment();
+    }
+
+    /**
+     * Records a packet accepted as loud from Opus metadata, i.e. a decode that was avoided.
+     */
+    public void recordPreclassifiedLoud() {
+        preclassifiedLoud.increment();
+    }
+
+    /**
+     * Records a successful decode and the time spent decoding and analyzing it.
+     */
+    public void recordDecoded(final long analysisNanos) {
+        decoded.increment();
+        analysisLatency.record(analysisNanos);
+    }
+
+    /**
+     * Records a decoded frame that was loud enough but not speech-dominant, so it counted as silence.
+     */
+    public void recordNotSpeech() {
+        notSpeech.increment();
+    }
+
+    /**
+     * Records a trigger handed to the main-thread dispatcher.
+     */
+    public void recordDispatched() {
+        dispatched.increment();
+    }
+
+    /**
+     * Records an emitted game event and the time since the triggering packet arrived.
+     */
+    public void recordEmitted(final long arrivalToEmitNanos) {
+        emitted.increment();
+        triggerLatency.record(arrivalToEmitNanos);
+    }
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    public long getRejected(final RejectReason reason) {
+        return rejected[reason.ordinal()].sum();
+    }
+
+    public long getDecoded() {
+        return decoded.sum();
+    }
+
+    public long getNotSpeech() {
+        return notSpeech.sum();
+    }
+
+    public long getDispatched() {
+        return dispatched.sum();
+    }
+
+    public long getEmitted() {
+        return emitted.sum();
+    }
+
+    /**
+     * Returns the number of decodes avoided by the Opus pre-classifier.
+     */
+    public long getDecodesAvoided() {
+        return preclassifiedSilent.sum() + preclassifiedLoud.sum();
+    }
+
+    /**
+     * Clears all counters and histograms.
+     */
+    public void reset() {
+        received.reset();
+        for (final LongAdder adder : rejected) {
+            adder.reset();
+        }
+        preclassifiedSilent.reset();
+        preclassifiedLoud.reset();
+        decoded.reset();
+        notSpeech.reset();
+        dispatched.reset();
+        emitted.reset();
+        analysisLatency.reset();
+        triggerLatency.reset();
+        startedNanos = System.nanoTime();
+    }
+
+    /**
+     * Formats all counters and histograms as human-readable lines.
+     *
+     * @param extraLines additional gauge lines appended at the end (e.g. pool sizes)
+     */
+    public List<String> formatReport(final List<String> extraLines) {
+        final long seconds = Math.max(1L, (System.nanoTime() - startedNanos) / 1_000_000_000L);
+        final long receivedCount = received.sum();
+        final List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "window: %ds, received: %d (%.1f/s)",
+                seconds, receivedCount, receivedCount / (double) seconds));
+
+        final StringBuilder rejects = new StringBuilder("rejected:");
+        for (final RejectReason reason : RejectReason.values()) {
+            final long count = rejected[reason.ordinal()].sum();
+            if (count > 0) {
+                rejects.append(' ').append(reason.key()).append('=').append(count);
+            }
+        }
+        lines.add(rejects.toString());
+        lines.add("decoded: " + decoded.sum() + ", decodes avoided: " + getDecodesAvoided()
+                + ", decode failures: " + rejected[RejectReason.DECODE_FAILED.ordinal()].sum()
+                + ", not speech: " + notSpeech.sum());
+        lines.add("dispatched: " + dispatched.sum() + ", emitted: " + emitted.sum());
+        lines.add("decode+analysis: " + analysisLatency.summary());
+        lines.add("packet->game event: " + triggerLatency.summary());
+        lines.addAll(extraLines);
+        return lines;
+    }
+}
@@ -0,0 +1,36 @@
+package de.slimenest.voicechatinteraction.stats;
+
+/**
+ * Reasons why a microphone packet did not lead to a Sculk trigger.
+ */
+public enum RejectReason {
+    /** Missing connection or empty payload. */
+    INVALID,
+    /** Sender is in a group and group voice is disabled. */
+    GROUP,
+    /** Sender is whispering and whisper voice is disabled. */
+    WHISPER,
+    /** No player state snapshot yet (player still joining). */
+    NOT_READY,
+    /** Sender is sneaking and sneak voice is disabled. */
+    SNEAK,
+    /** Sender has voice interaction toggled off. */
+    TOGGLE,
+    /** No Sculk sensor or Warden is close enough to hear the sender. */
+    NO_LISTENER,
+    /** Sender is inside the trigger cooldown window. */
+    COOLDOWN,
+    /** Packet is below the activation threshold (or the player is not in the talking state). */
+    THRESHOLD,
+    /** Packet could not be decoded. */
+    DECODE_FAILED;
+
+    private final String key = name().toLowerCase(java.util.Locale.ROOT);
+
+    /**
+     * Returns the lowercase name used in stats output.
+     */
+    public String key() {
+        return key;
+    }
+}
@@ -0,0 +1,88 @@
+package de.slimenest.voicechatinteraction.stats;
+
+import de.slimenest.voicechatinteraction.VoiceChatEventBridge;
+import de.slimenest.voicechatinteraction.VoiceChatInteraction;
+import de.slimenest.voicechatinteraction.config.ServerConfig;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Periodically appends the pipeline statistics to a log file.
+ * Meant to run as a repeating asynchronous task; the interval and rotation limits are read from the current
+ * config on every run, so reloads take effect without rescheduling.
+ *
+ * <p>Once the file reaches {@code stats_log_max_mb}, it is renamed to {@code <name>.1}, older files shift up
+ * by one and the oldest beyond {@code stats_log_max_files} is deleted.</p>
+ */
+public class StatsFileWriter implements Runnable {
+
+    private final VoiceChatEventBridge bridge;
+    private final Path file;
+    private long lastDumpNanos = System.nanoTime();
+
+    public StatsFileWriter(final VoiceChatEventBridge bridge, final Path file) {
+        this.bridge = bridge;
+        this.file = file;
+    }
+
+    @Override
+    public void run() {
+        final int intervalSeconds = VoiceChatInteraction.config.statsDumpIntervalSeconds;
+        if (intervalSeconds <= 0) {
+            return;
+        }
+        final long now = System.nanoTime();
+        if (now - lastDumpNanos < intervalSeconds * 1_000_000_000L) {
+            return;
+        }
+        lastDumpNanos = now;
+
+        final List<String> lines = new ArrayList<>();
+        lines.add("[" + Instant.now() + "]");
+        lines.addAll(bridge.formatStats());
+        final ServerConfig config = VoiceChatInteraction.config;
+        try {
+            rotateIfFull(file, config.statsLogMaxMb * 1024L * 1024L, config.statsLogMaxFiles);
+            Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (final IOException e) {
+            VoiceChatInteraction.logger.warning("Failed to write statistics to " + file.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rotates the file once it has reached the size limit: {@code <name>.1} is the most recent rotated file,
+     * and at most {@code maxFiles} files including the current one are kept.
+     *
+     * @param file     current log file
+     * @param maxBytes size at which the file is rotated
+     * @param maxFiles number of files to keep, at least 1; with 1, a full file is deleted
+     * @throws IOException if a file cannot be moved or deleted
+     */
+    static void rotateIfFull(final Path file, final long maxBytes, final int maxFiles) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < maxBytes) {
+            return;
+        }
+        Files.deleteIfExists(rotated(file, maxFiles - 1));
+        for (int index = maxFiles - 2; index >= 1; index--) {
+            final Path older = rotated(file, index);
+            if (Files.exists(older)) {
+                Files.move(older, rotated(file, index + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 1) {
+            Files.move(file, rotated(file, 1), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Path rotated(final Path file, final int index) {
+        return index == 0 ? file : file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
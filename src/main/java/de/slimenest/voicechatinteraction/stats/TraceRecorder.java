@@ -0,0 +1,161 @@
+package de.slimenest.voicechatinteraction.stats;
+
+import de.slimenest.voicechatinteraction.config.RuleProfile;
+import de.slimenest.voicechatinteraction.util.SoundAnalyzer;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the analysis result of every microphone frame (time, player, level, threshold, outcome and the rules
+ * of the player's profile) into a fixed-size ring file, for offline tuning with the replay tool. No audio is recorded.
+ *
+ * <p>The file is memory-mapped once; writers reserve a slot with an atomic counter and fill it with absolute
+ * puts, so recording a frame neither locks nor allocates. When the ring is full the oldest records are
+ * overwritten. Players are stored as an index in order of first appearance, not by UUID.</p>
+ *
+ * <p>Layout (big-endian): a {@value #HEADER_BYTES}-byte header ({@value #MAGIC} magic, version, record size,
+ * capacity, start time in epoch milliseconds) followed by {@value #RECORD_BYTES}-byte records:</p>
+ * <ul>
+ *     <li>long: nanoseconds since the recording started, plus one; 0 marks an unused slot</li>
+ *     <li>int: player index</li>
+ *     <li>short: frame level in hundredths of a dB, or {@link #UNKNOWN_LEVEL} if the frame was not measured</li>
+ *     <li>byte: activation threshold in whole dB, or {@link #UNKNOWN_THRESHOLD}</li>
+ *     <li>byte: {@link #OUTCOME_TRIGGERED}, or the {@link RejectReason} ordinal plus one</li>
+ *     <li>byte: flags, see {@link #FLAG_PRECLASSIFIED_SILENT}, {@link #FLAG_PRECLASSIFIED_LOUD} and {@link #FLAG_PROFILED}</li>
+ *     <li>byte: activation threshold of the player's profile in whole dB</li>
+ *     <li>short: cooldown of the player's profile in ticks</li>
+ * </ul>
+ */
+public final class TraceRecorder implements AutoCloseable {
+
+    public static final int MAGIC = 0x56434954;
+    public static final int VERSION = 2;
+    public static final int HEADER_BYTES = 64;
+    public static final int RECORD_BYTES = 20;
+    public static final short UNKNOWN_LEVEL = Short.MIN_VALUE;
+    public static final byte UNKNOWN_THRESHOLD = Byte.MIN_VALUE;
+    public static final byte OUTCOME_TRIGGERED = 0;
+    /** The Opus pre-classifier judged the frame silent without decoding it; its level is not recorded. */
+    public static final int FLAG_PRECLASSIFIED_SILENT = 1;
+    /** The Opus pre-classifier judged the frame loud without decoding it; its level is not recorded. */
+    public static final int FLAG_PRECLASSIFIED_LOUD = 1 << 1;
+    /** The player's rules came from a profile other than the default one. */
+    public static final int FLAG_PROFILED = 1 << 2;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong nextRecord = new AtomicLong();
+    private final ConcurrentHashMap<UUID, Integer> playerIndices = new ConcurrentHashMap<>();
+    private final AtomicInteger nextPlayerIndex = new AtomicInteger();
+
+    /**
+     * Creates the ring file, replacing an existing file of the same name.
+     *
+     * @param file     trace file
+     * @param maxBytes file size; rounded down to whole records
+     * @throws IOException if the file cannot be created or mapped
+     */
+    public TraceRecorder(final Path file, final long maxBytes) throws IOException {
+        this.file = file;
+        this.capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(1L, (maxBytes - HEADER_BYTES) / RECORD_BYTES));
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0L, HEADER_BYTES + (long) capacity * RECORD_BYTES);
+        } catch (final IOException e) {
+            channel.close();
+            throw e;
+        }
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, RECORD_BYTES);
+        buffer.putInt(12, capacity);
+        buffer.putLong(16, System.currentTimeMillis());
+    }
+
+    /**
+     * Records the outcome of a frame. Safe to call from any thread.
+     *
+     * @param playerUuid          speaking player
+     * @param arrivalNanos        {@link System#nanoTime()} at which the packet arrived
+     * @param levelMeanSquare     measured mean-square level, or NaN if the frame was not measured
+     * @param thresholdMeanSquare activation threshold the frame was judged by, or NaN if not reached
+     * @param rejection           rejection reason, or null if the frame triggered
+     * @param flags               {@code FLAG_*} bits; the level of pre-classified frames is not recorded
+     * @param profile             rule profile the frame was judged by
+     */
+    public void record(final UUID playerUuid, final long arrivalNanos, final double levelMeanSquare,
+                       final double thresholdMeanSquare, @Nullable final RejectReason rejection,
+                       final int flags, final RuleProfile profile) {
+        final long slot = nextRecord.getAndIncrement() % capacity;
+        final int offset = HEADER_BYTES + (int) slot * RECORD_BYTES;
+        final boolean measured = (flags & (FLAG_PRECLASSIFIED_SILENT | FLAG_PRECLASSIFIED_LOUD)) == 0;
+        buffer.putInt(offset + 8, playerIndex(playerUuid));
+        buffer.putShort(offset + 12, !measured || Double.isNaN(levelMeanSquare)
+                ? UNKNOWN_LEVEL
+                : (short) Math.round(SoundAnalyzer.meanSquareToDecibel(levelMeanSquare) * 100.0));
+        buffer.put(offset + 14, Double.isNaN(thresholdMeanSquare)
+                ? UNKNOWN_THRESHOLD
+                : (byte) Math.round(SoundAnalyzer.meanSquareToDecibel(thresholdMeanSquare)));
+        buffer.put(offset + 15, rejection == null ? OUTCOME_TRIGGERED : (byte) (rejection.ordinal() + 1));
+        buffer.put(offset + 16, (byte) flags);
+        buffer.put(offset + 17, (byte) profile.activationDbThreshold());
+        buffer.putShort(offset + 18, (short) Math.min(Short.MAX_VALUE, profile.activationCooldownTicks()));
+        // Timestamp last: a slot with a timestamp is complete unless it is being overwritten again
+        buffer.putLong(offset, Math.max(0L, arrivalNanos - startNanos) + 1L);
+    }
+
+    /**
+     * Returns the player's index, assigning the next one on first appearance. Only allocates for new players.
+     */
+    private int playerIndex(final UUID playerUuid) {
+        final Integer index = playerIndices.get(playerUuid);
+        return index != null ? index : playerIndices.computeIfAbsent(playerUuid, uuid -> nextPlayerIndex.getAndIncrement());
+    }
+
+    /**
+     * Returns the trace file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the number of records the ring holds.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of frames recorded so far, including overwritten ones.
+     */
+    public long getRecordedCount() {
+        return nextRecord.get();
+    }
+
+    /**
+     * Flushes the mapped records to disk and closes the file. Frames recorded concurrently may be lost.
+     */
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
@@ -0,0 +1,166 @@
+package de.slimenest.voicechatinteraction.util;
+
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Small pool of analysis workers fed through bounded queues.
+ * Jobs are sharded by sender UUID, so each sender is always handled by the same worker
+ * and its frames are processed in arrival order. When a shard's queue is full, the
+ * configured {@link OverflowPolicy} decides which job is dropped.
+ *
+ * @param <T> job type
+ */
+public final class AnalysisWorkerPool<T> {
+
+    /**
+     * What to drop when a worker queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Drop the oldest queued job to make room for the new one. */
+        DROP_OLDEST,
+        /** Drop the new job and keep the queue as it is. */
+        DROP_NEWEST;
+
+        /**
+         * Parses a config value, falling back to {@link #DROP_OLDEST}.
+         */
+        public static OverflowPolicy parse(final String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (final IllegalArgumentException e) {
+                return DROP_OLDEST;
+            }
+        }
+    }
+
+    /**
+     * Sizing and overload behaviour of a pool.
+     *
+     * @param workerCount    number of workers (at least 1)
+     * @param queueCapacity  capacity of each worker queue
+     * @param overflowPolicy policy applied when a queue is full
+     * @param virtualThreads whether workers run on virtual threads
+     */
+    public record Settings(int workerCount, int queueCapacity, OverflowPolicy overflowPolicy, boolean virtualThreads) {
+    }
+
+    private final Settings settings;
+    private final ArrayBlockingQueue<T>[] queues;
+    private final Thread[] workers;
+    private final OverflowPolicy overflowPolicy;
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean running = true;
+
+    /**
+     * Creates and starts the pool.
+     *
+     * @param name      thread name prefix
+     * @param settings  pool sizing and overload behaviour
+     * @param processor job handler, called on the worker threads
+     * @param logger    logger for unexpected processor failures
+     */
+    @SuppressWarnings("unchecked")
+    public AnalysisWorkerPool(final String name, final Settings settings, final Consumer<T> processor, final Logger logger) {
+        this.settings = settings;
+        this.overflowPolicy = settings.overflowPolicy();
+        this.queues = new ArrayBlockingQueue[Math.max(1, settings.workerCount())];
+        this.workers = new Thread[queues.length];
+        for (int i = 0; i < queues.length; i++) {
+            final ArrayBlockingQueue<T> queue = new ArrayBlockingQueue<>(Math.max(1, settings.queueCapacity()));
+            queues[i] = queue;
+            final Runnable loop = () -> runWorker(queue, processor, logger);
+            final Thread.Builder builder = settings.virtualThreads()
+                    ? Thread.ofVirtual().name(name + "-" + i)
+                    : Thread.ofPlatform().daemon(true).name(name + "-" + i);
+            workers[i] = builder.start(loop);
+        }
+    }
+
+    private void runWorker(final ArrayBlockingQueue<T> queue, final Consumer<T> processor, final Logger logger) {
+        while (running) {
+            final T job;
+            try {
+                job = queue.take();
+            } catch (final InterruptedException e) {
+                return;
+            }
+            try {
+                processor.accept(job);
+            } catch (final Exception e) {
+                logger.log(Level.WARNING, "Voice analysis job failed", e);
+            }
+        }
+    }
+
+    /**
+     * Queues a job on the worker owning the key. Never blocks.
+     *
+     * @return false if a job was dropped because of overload
+     */
+    public boolean submit(final UUID key, final T job) {
+        final ArrayBlockingQueue<T> queue = queues[Math.floorMod(key.hashCode(), queues.length)];
+        if (queue.offer(job)) {
+            return true;
+        }
+        if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+            dropped.increment();
+            return false;
+        }
+        // DROP_OLDEST: evict until the new job fits; another producer may refill the slot in between
+        do {
+            if (queue.poll() != null) {
+                dropped.increment();
+            }
+        } while (!queue.offer(job));
+        return false;
+    }
+
+    /**
+     * Returns the total number of queued jobs across all workers.
+     */
+    public int queueDepth() {
+        int depth = 0;
+        for (final ArrayBlockingQueue<T> queue : queues) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+
+    /**
+     * Returns the number of jobs dropped because of overload.
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the settings the pool was created with.
+     */
+    public Settings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Returns the number of workers.
+     */
+    public int workerCount() {
+        return workers.length;
+    }
+
+    /**
+     * Stops all workers and discards queued jobs.
+     */
+    public void shutdown() {
+        running = false;
+        for (int i = 0; i < workers.length; i++) {
+            workers[i].interrupt();
+            queues[i].clear();
+        }
+    }
+}
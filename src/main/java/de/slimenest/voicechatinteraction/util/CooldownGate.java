@@ -0,0 +1,134 @@
+package de.slimenest.voicechatinteraction.util;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free per-key cooldown tracking based on the monotonic {@link System#nanoTime()} clock.
+ * Each key owns a single primitive slot that is updated with compare-and-set, so concurrent
+ * voice threads can never acquire the same cooldown window twice.
+ *
+ * <p>Removing a slot first moves it to a dead value with compare-and-set and only then unmaps it, so a
+ * thread still holding the old slot cannot win it after another thread created a fresh one.</p>
+ */
+public final class CooldownGate {
+
+    /** Value of a slot that is being removed; it never leaves this state. */
+    private static final long DEAD = Long.MIN_VALUE;
+
+    private final ConcurrentHashMap<UUID, AtomicLong> lastTriggerNanos = new ConcurrentHashMap<>();
+
+    /**
+     * Checks whether the key is still inside its cooldown window. Does not allocate.
+     *
+     * @param key           cooldown owner
+     * @param nowNanos      current {@link System#nanoTime()} value
+     * @param cooldownNanos cooldown length
+     * @return true if the last trigger happened less than {@code cooldownNanos} ago
+     */
+    public boolean isCoolingDown(final UUID key, final long nowNanos, final long cooldownNanos) {
+        final AtomicLong slot = lastTriggerNanos.get(key);
+        if (slot == null) {
+            return false;
+        }
+        final long last = slot.get();
+        return last != DEAD && nowNanos - last < cooldownNanos;
+    }
+
+    /**
+     * Starts a new cooldown window if the previous one has expired.
+     *
+     * @param key           cooldown owner
+     * @param nowNanos      current {@link System#nanoTime()} value
+     * @param cooldownNanos cooldown length
+     * @return true if the caller won the trigger for this window
+     */
+    public boolean tryAcquire(final UUID key, final long nowNanos, final long cooldownNanos) {
+        while (true) {
+            AtomicLong slot = lastTriggerNanos.get(key);
+            if (slot == null) {
+                slot = lastTriggerNanos.putIfAbsent(key, new AtomicLong(nowNanos));
+                if (slot == null) {
+                    return true;
+                }
+            }
+            final long last = slot.get();
+            if (last == DEAD) {
+                // Finish the removal another thread started, then retry with a fresh slot
+                lastTriggerNanos.remove(key, slot);
+                continue;
+            }
+            return nowNanos - last >= cooldownNanos && slot.compareAndSet(last, nowNanos);
+        }
+    }
+
+    /**
+     * Gives back a window acquired at {@code acquiredNanos} whose trigger was discarded,
+     * so the next frame can trigger at once. Does nothing if the key has acquired a newer window since.
+     *
+     * @param key           cooldown owner
+     * @param acquiredNanos {@code nowNanos} passed to the successful {@link #tryAcquire}
+     * @return true if the window was released
+     */
+    public boolean release(final UUID key, final long acquiredNanos) {
+        final AtomicLong slot = lastTriggerNanos.get(key);
+        return slot != null && acquiredNanos != DEAD && kill(key, slot, acquiredNanos);
+    }
+
+    /**
+     * Removes the cooldown slot of a key.
+     */
+    public void remove(final UUID key) {
+        final AtomicLong slot = lastTriggerNanos.get(key);
+        if (slot != null) {
+            slot.set(DEAD);
+            lastTriggerNanos.remove(key, slot);
+        }
+    }
+
+    /**
+     * Removes all slots whose cooldown has expired. Expired slots carry no state worth keeping.
+     * A slot re-acquired while the sweep runs fails the compare-and-set and is kept.
+     *
+     * @param cooldownNanos cooldown length
+     * @return number of removed slots
+     */
+    public int evictExpired(final long cooldownNanos) {
+        final long now = System.nanoTime();
+        int removed = 0;
+        for (final Map.Entry<UUID, AtomicLong> entry : lastTriggerNanos.entrySet()) {
+            final AtomicLong slot = entry.getValue();
+            final long last = slot.get();
+            if ((last == DEAD || now - last >= cooldownNanos) && kill(entry.getKey(), slot, last)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Marks a slot dead if it still holds {@code expected} and unmaps it.
+     */
+    private boolean kill(final UUID key, final AtomicLong slot, final long expected) {
+        if (expected != DEAD && !slot.compareAndSet(expected, DEAD)) {
+            return false;
+        }
+        return lastTriggerNanos.remove(key, slot);
+    }
+
+    /**
+     * Removes all slots.
+     */
+    public void clear() {
+        lastTriggerNanos.keySet().forEach(this::remove);
+    }
+
+    /**
+     * Returns the number of tracked keys.
+     */
+    public int size() {
+        return lastTriggerNanos.size();
+    }
+}
@@ -0,0 +1,153 @@
+package de.slimenest.voicechatinteraction.util;
+
+import de.maxhenkel.voicechat.api.VoicechatApi;
+import de.maxhenkel.voicechat.api.opus.OpusDecoder;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Keeps one Opus decoder per voice sender so decoder state carries over between frames.
+ * Decoders are created lazily, evicted on disconnect or after being idle, and closed on shutdown.
+ */
+public final class DecoderPool {
+
+    private final ConcurrentHashMap<UUID, PooledDecoder> decoders = new ConcurrentHashMap<>();
+    /** Senders whose decoder creation failure was already logged. */
+    private final Set<UUID> creationFailures = ConcurrentHashMap.newKeySet();
+    private final Logger logger;
+
+    /**
+     * @param logger receives one warning per sender whose decoder cannot be created
+     */
+    public DecoderPool(final Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Decodes an Opus frame with the sender's pooled decoder.
+     * A decoder closed concurrently by eviction is replaced once; that case is benign and not logged.
+     * Returns null if no decoder could be created or decoding failed.
+     *
+     * @param api         voice chat API used to create missing decoders
+     * @param senderUuid  UUID of the sending player
+     * @param encodedData Opus encoded frame
+     * @return decoded PCM samples, or null
+     */
+    @Nullable
+    public short[] decode(final VoicechatApi api, final UUID senderUuid, final byte[] encodedData) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            final PooledDecoder pooled = decoders.computeIfAbsent(senderUuid, uuid -> PooledDecoder.create(api));
+            if (pooled == null) {
+                if (creationFailures.add(senderUuid)) {
+                    logger.warning("Failed to create OpusDecoder for " + senderUuid);
+                }
+                return null;
+            }
+            final short[] samples = pooled.decode(encodedData);
+            if (samples != PooledDecoder.CLOSED) {
+                return samples;
+            }
+            // Evicted while this frame was waiting; drop the stale entry if still mapped and retry with a fresh decoder
+            decoders.remove(senderUuid, pooled);
+        }
+        return null;
+    }
+
+    /**
+     * Removes and closes the decoder of a single sender.
+     */
+    public void evict(final UUID senderUuid) {
+        creationFailures.remove(senderUuid);
+        final PooledDecoder pooled = decoders.remove(senderUuid);
+        if (pooled != null) {
+            pooled.close();
+        }
+    }
+
+    /**
+     * Removes and closes all decoders that have not been used for the given time.
+     *
+     * @param maxIdleNanos idle time after which a decoder is released
+     * @return number of evicted decoders
+     */
+    public int evictIdle(final long maxIdleNanos) {
+        final long now = System.nanoTime();
+        int evicted = 0;
+        for (final var entry : decoders.entrySet()) {
+            final PooledDecoder pooled = entry.getValue();
+            if (now - pooled.lastUsedNanos > maxIdleNanos && decoders.remove(entry.getKey(), pooled)) {
+                pooled.close();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Closes all pooled decoders. Used on disable, reload and voice server shutdown.
+     *
+     * @return number of closed decoders
+     */
+    public int closeAll() {
+        creationFailures.clear();
+        int closed = 0;
+        for (final UUID uuid : decoders.keySet()) {
+            final PooledDecoder pooled = decoders.remove(uuid);
+            if (pooled != null) {
+                pooled.close();
+                closed++;
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * Returns the number of currently pooled decoders.
+     */
+    public int size() {
+        return decoders.size();
+    }
+
+    /**
+     * A decoder bound to one sender. Access is synchronized so eviction never closes
+     * the native handle while a frame is being decoded.
+     */
+    private static final class PooledDecoder {
+        /** Returned by {@link #decode} once the decoder is closed; distinct from a failed decode. */
+        private static final short[] CLOSED = new short[0];
+
+        private final OpusDecoder decoder;
+        private volatile long lastUsedNanos = System.nanoTime();
+        private boolean closed;
+
+        private PooledDecoder(final OpusDecoder decoder) {
+            this.decoder = decoder;
+        }
+
+        @Nullable
+        private static PooledDecoder create(final VoicechatApi api) {
+            final OpusDecoder decoder = api.createDecoder();
+            return decoder == null ? null : new PooledDecoder(decoder);
+        }
+
+        @Nullable
+        private synchronized short[] decode(final byte[] encodedData) {
+            if (closed) {
+                return CLOSED;
+            }
+            lastUsedNanos = System.nanoTime();
+            return decoder.decode(encodedData);
+        }
+
+        private synchronized void close() {
+            if (!closed) {
+                closed = true;
+                decoder.close();
+            }
+        }
+    }
+}
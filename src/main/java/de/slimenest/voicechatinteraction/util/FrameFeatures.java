@@ -0,0 +1,19 @@
+package de.slimenest.voicechatinteraction.util;
+
+/**
+ * Per-frame features computed in a single pass by a {@link FrameKernel}.
+ *
+ * @param sumOfSquares  sum of squared raw sample values
+ * @param peak          largest absolute sample value (0 to 32768)
+ * @param zeroCrossings number of sign changes between adjacent samples
+ * @param length        number of samples analyzed
+ */
+public record FrameFeatures(long sumOfSquares, int peak, int zeroCrossings, int length) {
+
+    /**
+     * Returns the mean square in raw sample units, or 0 for an empty frame.
+     */
+    public double meanSquare() {
+        return length <= 0 ? 0.0 : (double) sumOfSquares / length;
+    }
+}
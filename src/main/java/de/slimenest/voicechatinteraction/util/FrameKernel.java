@@ -0,0 +1,50 @@
+package de.slimenest.voicechatinteraction.util;
+
+import javax.annotation.Nullable;
+
+/**
+ * Single-pass frame analysis: sum of squares, peak and zero crossings.
+ * Implementations must return identical results for every input.
+ */
+public interface FrameKernel {
+
+    /**
+     * Analyzes a region of a PCM frame.
+     *
+     * @param pcmSamples array of signed 16-bit PCM samples
+     * @param offset     index of the first sample
+     * @param length     number of samples to include
+     * @return the frame features
+     */
+    FrameFeatures analyze(short[] pcmSamples, int offset, int length);
+
+    /**
+     * Returns a short name for logs and benchmarks.
+     */
+    String name();
+
+    /**
+     * Returns the portable scalar kernel.
+     */
+    static FrameKernel scalar() {
+        return ScalarFrameKernel.INSTANCE;
+    }
+
+    /**
+     * Returns the SIMD kernel, or null if the {@code jdk.incubator.vector} module is not available
+     * (the server must be started with {@code --add-modules jdk.incubator.vector}).
+     */
+    @Nullable
+    static FrameKernel vector() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            // Loaded reflectively so the Vector API is never linked when the module is missing
+            return (FrameKernel) Class.forName("de.slimenest.voicechatinteraction.util.VectorFrameKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (final ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package de.slimenest.voicechatinteraction.util;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chunk-keyed index of vibration listeners (Sculk sensors and Wardens) per world.
+ * Written on the main thread from block, chunk and entity events; read lock-free from voice threads
+ * to skip speakers that have nothing nearby that could hear them.
+ *
+ * <p>Static listeners (blocks) are counted per chunk. Mobile listeners (Wardens) are stored as
+ * a separate per-chunk map that is replaced wholesale on every position refresh.</p>
+ */
+public final class ListenerIndex {
+
+    private final ConcurrentHashMap<UUID, ConcurrentHashMap<Long, Integer>> blockListeners = new ConcurrentHashMap<>();
+    private volatile Map<UUID, Map<Long, Integer>> mobileListeners = Map.of();
+
+    /**
+     * Packs chunk coordinates into a single key.
+     */
+    public static long chunkKey(final int chunkX, final int chunkZ) {
+        return (chunkX & 0xFFFFFFFFL) | ((chunkZ & 0xFFFFFFFFL) << 32);
+    }
+
+    /**
+     * Replaces the block listener count of a chunk, e.g. after scanning a freshly loaded chunk.
+     */
+    public void setChunk(final UUID worldId, final int chunkX, final int chunkZ, final int listenerCount) {
+        final long key = chunkKey(chunkX, chunkZ);
+        if (listenerCount <= 0) {
+            final ConcurrentHashMap<Long, Integer> chunks = blockListeners.get(worldId);
+            if (chunks != null) {
+                chunks.remove(key);
+            }
+            return;
+        }
+        blockListeners.computeIfAbsent(worldId, id -> new ConcurrentHashMap<>()).put(key, listenerCount);
+    }
+
+    /**
+     * Adjusts the block listener count of a chunk by the given delta (block placed or broken).
+     */
+    public void addToChunk(final UUID worldId, final int chunkX, final int chunkZ, final int delta) {
+        final ConcurrentHashMap<Long, Integer> chunks = blockListeners.computeIfAbsent(worldId, id -> new ConcurrentHashMap<>());
+        chunks.compute(chunkKey(chunkX, chunkZ), (key, count) -> {
+            final int updated = (count == null ? 0 : count) + delta;
+            return updated <= 0 ? null : updated;
+        });
+    }
+
+    /**
+     * Removes all block listeners of an unloaded chunk.
+     */
+    public void removeChunk(final UUID worldId, final int chunkX, final int chunkZ) {
+        setChunk(worldId, chunkX, chunkZ, 0);
+    }
+
+    /**
+     * Removes all listeners of an unloaded world.
+     */
+    public void removeWorld(final UUID worldId) {
+        blockListeners.remove(worldId);
+    }
+
+    /**
+     * Publishes the current chunk positions of all mobile listeners.
+     *
+     * @param byWorld per-world map of chunk key to listener count; must not be modified afterwards
+     */
+    public void publishMobileListeners(final Map<UUID, Map<Long, Integer>> byWorld) {
+        mobileListeners = byWorld;
+    }
+
+    /**
+     * Checks whether any listener is indexed in the chunks overlapping a square around a block position.
+     *
+     * @param worldId world to look in
+     * @param blockX  block X coordinate of the sound source
+     * @param blockZ  block Z coordinate of the sound source
+     * @param radius  horizontal search radius in blocks
+     * @return true if at least one listener chunk overlaps the search area
+     */
+    public boolean hasListenerNear(final UUID worldId, final int blockX, final int blockZ, final int radius) {
+        final Map<Long, Integer> blocks = blockListeners.get(worldId);
+        final Map<Long, Integer> mobiles = mobileListeners.get(worldId);
+        if ((blocks == null || blocks.isEmpty()) && (mobiles == null || mobiles.isEmpty())) {
+            return false;
+        }
+        final int minChunkX = (blockX - radius) >> 4;
+        final int maxChunkX = (blockX + radius) >> 4;
+        final int minChunkZ = (blockZ - radius) >> 4;
+        final int maxChunkZ = (blockZ + radius) >> 4;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                final long key = chunkKey(chunkX, chunkZ);
+                if ((blocks != null && blocks.containsKey(key)) || (mobiles != null && mobiles.containsKey(key))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of chunks containing at least one block listener.
+     */
+    public int indexedChunkCount() {
+        int count = 0;
+        for (final ConcurrentHashMap<Long, Integer> chunks : blockListeners.values()) {
+            count += chunks.size();
+        }
+        return count;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        blockListeners.clear();
+        mobileListeners = Map.of();
+    }
+}
@@ -0,0 +1,90 @@
+package de.slimenest.voicechatinteraction.util;
+
+/**
+ * Streaming loudness envelope follower with attack/release smoothing and hysteresis.
+ * Turns a stream of per-frame loudness values into a "talking" state with start/stop edges,
+ * so single clicks do not count as speech and sustained speech does not flicker.
+ *
+ * <p>Levels are mean squares of raw PCM samples (see {@link FrameFeatures#meanSquare()}).
+ * Updates are O(1) and synchronized, since a sender's packets may arrive on different voice threads.</p>
+ */
+public final class LoudnessEnvelope {
+
+    /**
+     * State change caused by a single update.
+     */
+    public enum Edge {
+        NONE,
+        START,
+        STOP
+    }
+
+    private double level;
+    private boolean talking;
+
+    /**
+     * Feeds one frame into the envelope.
+     *
+     * @param frameMeanSquare   mean square of the frame
+     * @param attackCoeff       smoothing factor (0-1] applied while the level rises
+     * @param releaseCoeff      smoothing factor (0-1] applied while the level falls
+     * @param startMeanSquare   envelope level at which talking starts
+     * @param stopMeanSquare    envelope level below which talking stops
+     * @return the edge produced by this frame
+     */
+    public synchronized Edge update(final double frameMeanSquare, final double attackCoeff, final double releaseCoeff,
+                                    final double startMeanSquare, final double stopMeanSquare) {
+        final double coeff = frameMeanSquare > level ? attackCoeff : releaseCoeff;
+        level += coeff * (frameMeanSquare - level);
+
+        if (!talking && level >= startMeanSquare) {
+            talking = true;
+            return Edge.START;
+        }
+        if (talking && level < stopMeanSquare) {
+            talking = false;
+            return Edge.STOP;
+        }
+        return Edge.NONE;
+    }
+
+    /**
+     * Drops the envelope to silence at once, e.g. when a sender's frames stopped arriving.
+     *
+     * @return whether this ended a talking phase
+     */
+    public synchronized boolean release() {
+        level = 0.0;
+        final boolean wasTalking = talking;
+        talking = false;
+        return wasTalking;
+    }
+
+    /**
+     * Returns whether the envelope is currently in the talking state.
+     */
+    public synchronized boolean isTalking() {
+        return talking;
+    }
+
+    /**
+     * Returns the current smoothed level as mean square.
+     */
+    public synchronized double getLevel() {
+        return level;
+    }
+
+    /**
+     * Converts a time constant into a per-frame smoothing factor.
+     *
+     * @param frameMillis    duration of one frame
+     * @param timeConstantMs attack or release time; 0 means no smoothing
+     * @return smoothing factor in (0, 1]
+     */
+    public static double coefficient(final double frameMillis, final double timeConstantMs) {
+        if (timeConstantMs <= 0) {
+            return 1.0;
+        }
+        return 1.0 - Math.exp(-frameMillis / timeConstantMs);
+    }
+}
@@ -1,6 +1,9 @@
 package de.slimenest.voicechatinteraction.util;
 
+import net.kyori.adventure.text.Component;
+import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import java.io.File;
 import java.io.InputStream;
@@ -8,73 +11,170 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Loads and provides translated messages from messages.yml.
+ * Loads and provides translated messages from messages.yml and per-locale bundles (messages_de.yml, ...).
  * Robust: supports loading from plugin folder and classpath, with fallback.
+ *
+ * <p>Messages are parsed into {@link MessageTemplate}s once at load time. Players get the bundle matching
+ * {@link Player#locale()} (full tag, then language), falling back to messages.yml per key.</p>
  */
 public class MessageProvider {
-    private final Map<String, String> messages;
+    private static final String DEFAULT_FILE = "messages.yml";
+    /** Locale bundles shipped in the jar and copied to the plugin folder on first start. */
+    private static final List<String> BUNDLED_LOCALES = List.of("de");
+
+    private final Map<String, MessageTemplate> defaults;
+    /** Locale bundles by lower-case tag (e.g. "de" or "de_de"), already merged with the defaults. */
+    private final Map<String, Map<String, MessageTemplate>> bundles;
+    /** Bundle resolved for each player locale seen so far. */
+    private final ConcurrentHashMap<Locale, Map<String, MessageTemplate>> resolved = new ConcurrentHashMap<>();
 
     public MessageProvider(Plugin plugin) {
-        Map<String, String> loaded = new HashMap<>();
         File pluginFolder = plugin.getDataFolder();
         if (!pluginFolder.exists()) {
             pluginFolder.mkdirs();
         }
-        File file = new File(pluginFolder, "messages.yml");
-        YamlConfiguration config = null;
-        if (!file.exists()) {
-            // Copy messages.yml from resources if available
-            try (InputStream in = plugin.getResource("messages.yml")) {
-                if (in != null) {
-                    java.nio.file.Files.copy(in, file.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-                }
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to copy messages.yml from resources: " + e.getMessage());
-            }
+        copyResourceIfMissing(plugin, DEFAULT_FILE);
+        for (String locale : BUNDLED_LOCALES) {
+            copyResourceIfMissing(plugin, bundleFileName(locale));
         }
+
+        // The jar's files are the base layer, so keys added in an update show up in files copied by older versions
+        File file = new File(pluginFolder, DEFAULT_FILE);
+        Map<String, MessageTemplate> merged = parse(loadFromResource(plugin, DEFAULT_FILE), Map.of());
         if (file.exists()) {
-            config = YamlConfiguration.loadConfiguration(file);
-        } else {
-            // Fallback: only load from resources (dev/build-in)
-            config = loadFromResource(plugin);
+            merged = parse(YamlConfiguration.loadConfiguration(file), merged);
+        }
+        this.defaults = Collections.unmodifiableMap(merged);
+
+        Map<String, Map<String, MessageTemplate>> loadedBundles = new HashMap<>();
+        File[] bundleFiles = pluginFolder.listFiles((dir, name) -> name.startsWith("messages_") && name.endsWith(".yml"));
+        if (bundleFiles != null) {
+            for (File bundleFile : bundleFiles) {
+                String name = bundleFile.getName();
+                String tag = name.substring("messages_".length(), name.length() - ".yml".length()).toLowerCase(Locale.ROOT);
+                Map<String, MessageTemplate> bundled = parse(loadFromResource(plugin, bundleFileName(tag)), defaults);
+                loadedBundles.put(tag, Collections.unmodifiableMap(parse(YamlConfiguration.loadConfiguration(bundleFile), bundled)));
+            }
         }
+        this.bundles = Collections.unmodifiableMap(loadedBundles);
+    }
+
+    /**
+     * Returns the file name of a locale bundle.
+     */
+    public static String bundleFileName(String locale) {
+        return "messages_" + locale + ".yml";
+    }
+
+    /**
+     * Parses all keys of a file on top of a base map. A missing file (null) yields a copy of the base.
+     */
+    private static Map<String, MessageTemplate> parse(YamlConfiguration config, Map<String, MessageTemplate> base) {
+        Map<String, MessageTemplate> templates = new HashMap<>(base);
         if (config != null) {
             for (String key : config.getKeys(false)) {
-                loaded.put(key, config.getString(key, key));
+                templates.put(key, MessageTemplate.parse(config.getString(key, key)));
             }
         }
-        this.messages = Collections.unmodifiableMap(loaded);
+        return templates;
     }
 
-    private YamlConfiguration loadFromResource(Plugin plugin) {
-        try (InputStream in = plugin.getResource("messages.yml")) {
+    private static void copyResourceIfMissing(Plugin plugin, String fileName) {
+        File file = new File(plugin.getDataFolder(), fileName);
+        if (file.exists()) {
+            return;
+        }
+        try (InputStream in = plugin.getResource(fileName)) {
+            if (in != null) {
+                java.nio.file.Files.copy(in, file.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to copy " + fileName + " from resources: " + e.getMessage());
+        }
+    }
+
+    private YamlConfiguration loadFromResource(Plugin plugin, String fileName) {
+        try (InputStream in = plugin.getResource(fileName)) {
             if (in != null) {
                 return YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
             }
         } catch (Exception e) {
-            plugin.getLogger().warning("Failed to load messages.yml from resources: " + e.getMessage());
+            plugin.getLogger().warning("Failed to load " + fileName + " from resources: " + e.getMessage());
         }
         return null;
     }
 
+    /**
+     * Returns the bundle for a recipient: the player's locale bundle if one exists, otherwise the defaults.
+     */
+    private Map<String, MessageTemplate> bundleFor(CommandSender recipient) {
+        if (bundles.isEmpty() || !(recipient instanceof Player player)) {
+            return defaults;
+        }
+        return resolved.computeIfAbsent(player.locale(), locale -> {
+            Map<String, MessageTemplate> bundle = bundles.get(locale.toString().toLowerCase(Locale.ROOT));
+            if (bundle == null) {
+                bundle = bundles.get(locale.getLanguage().toLowerCase(Locale.ROOT));
+            }
+            return bundle != null ? bundle : defaults;
+        });
+    }
+
+    private static String render(Map<String, MessageTemplate> bundle, String key, Map<String, String> replacements) {
+        MessageTemplate template = bundle.get(key);
+        return template != null ? template.render(replacements) : key;
+    }
+
     /**
      * Gets a message by key, with optional replacements (e.g. {player}).
      * If not found, returns the key itself.
      */
     public String get(String key, Map<String, String> replacements) {
-        String msg = messages.getOrDefault(key, key);
-        if (replacements != null && !replacements.isEmpty()) {
-            for (Map.Entry<String, String> entry : replacements.entrySet()) {
-                msg = msg.replace("{" + entry.getKey() + "}", entry.getValue());
-            }
-        }
-        return msg;
+        return render(defaults, key, replacements);
     }
 
     public String get(String key) {
         return get(key, null);
     }
+
+    /**
+     * Gets a message in the recipient's language, with optional replacements.
+     */
+    public String get(CommandSender recipient, String key, Map<String, String> replacements) {
+        return render(bundleFor(recipient), key, replacements);
+    }
+
+    public String get(CommandSender recipient, String key) {
+        return get(recipient, key, null);
+    }
+
+    /**
+     * Sends a message in the recipient's language. Messages without placeholders use a cached component.
+     */
+    public void send(CommandSender recipient, String key, Map<String, String> replacements) {
+        MessageTemplate template = bundleFor(recipient).get(key);
+        if (template == null) {
+            recipient.sendMessage(key);
+        } else {
+            recipient.sendMessage(template.renderComponent(replacements));
+        }
+    }
+
+    public void send(CommandSender recipient, String key) {
+        send(recipient, key, null);
+    }
+
+    /**
+     * Shows a message in the recipient's language on the action bar.
+     */
+    public void sendActionBar(Player recipient, String key, Map<String, String> replacements) {
+        MessageTemplate template = bundleFor(recipient).get(key);
+        recipient.sendActionBar(template != null ? template.renderComponent(replacements) : Component.text(key));
+    }
 }
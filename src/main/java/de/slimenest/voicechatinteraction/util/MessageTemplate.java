@@ -0,0 +1,111 @@
+package de.slimenest.voicechatinteraction.util;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A message pre-parsed into literal and {@code {placeholder}} segments.
+ * Rendering is a single pass over the segments into one builder. Messages without
+ * placeholders keep their rendered text and Adventure component, so sending them allocates nothing.
+ */
+public final class MessageTemplate {
+
+    /** Literal segments; always one more than there are placeholders. */
+    private final String[] literals;
+    /** Placeholder names between the literals. */
+    private final String[] placeholders;
+    private final int literalLength;
+    @Nullable
+    private final Component constantComponent;
+
+    private MessageTemplate(final String[] literals, final String[] placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        int length = 0;
+        for (final String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+        this.constantComponent = placeholders.length == 0 ? toComponent(literals[0]) : null;
+    }
+
+    /**
+     * Parses a raw message. Placeholders are {@code {name}} with a name of letters, digits and underscores;
+     * any other braces are kept literally.
+     */
+    public static MessageTemplate parse(final String raw) {
+        final List<String> literals = new ArrayList<>();
+        final List<String> placeholders = new ArrayList<>();
+        final StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < raw.length()) {
+            final char c = raw.charAt(i);
+            final int end = c == '{' ? placeholderEnd(raw, i + 1) : -1;
+            if (end < 0) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            literals.add(literal.toString());
+            literal.setLength(0);
+            placeholders.add(raw.substring(i + 1, end));
+            i = end + 1;
+        }
+        literals.add(literal.toString());
+        return new MessageTemplate(literals.toArray(String[]::new), placeholders.toArray(String[]::new));
+    }
+
+    /**
+     * Returns the index of the closing brace of a placeholder name starting at {@code start}, or -1.
+     */
+    private static int placeholderEnd(final String raw, final int start) {
+        for (int i = start; i < raw.length(); i++) {
+            final char c = raw.charAt(i);
+            if (c == '}') {
+                return i > start ? i : -1;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '_') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Renders the message. Placeholders without a replacement are kept as {@code {name}}.
+     */
+    public String render(@Nullable final Map<String, String> replacements) {
+        if (placeholders.length == 0) {
+            return literals[0];
+        }
+        final StringBuilder builder = new StringBuilder(literalLength + placeholders.length * 16);
+        builder.append(literals[0]);
+        for (int i = 0; i < placeholders.length; i++) {
+            final String value = replacements == null ? null : replacements.get(placeholders[i]);
+            if (value == null) {
+                builder.append('{').append(placeholders[i]).append('}');
+            } else {
+                builder.append(value);
+            }
+            builder.append(literals[i + 1]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Renders the message as a component. Messages without placeholders return a cached instance.
+     */
+    public Component renderComponent(@Nullable final Map<String, String> replacements) {
+        return constantComponent != null ? constantComponent : toComponent(render(replacements));
+    }
+
+    private static Component toComponent(final String text) {
+        // Messages use legacy section colour codes
+        return LegacyComponentSerializer.legacySection().deserialize(text);
+    }
+}
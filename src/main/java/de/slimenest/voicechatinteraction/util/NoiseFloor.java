@@ -0,0 +1,122 @@
+package de.slimenest.voicechatinteraction.util;
+
+/**
+ * Running estimate of a speaker's background level in constant memory.
+ *
+ * <p>Tracks a low percentile of the decoded frame levels with a stochastic quantile estimator:
+ * each frame above the estimate nudges it up by a small step, each frame below nudges it down by a larger one,
+ * so the estimate settles where {@link #PERCENTILE} of the frames are quieter.
+ * Steps are multiplicative, i.e. fixed dB steps, so no logarithm is needed per frame.</p>
+ *
+ * <p>Only frames below the speaker's current activation threshold feed the estimator; speech would otherwise
+ * pull it up, since voice activation sends mostly speech. When no frame falls below the threshold for
+ * {@link #RESEED_FRAMES} frames, e.g. a microphone whose noise is louder than the threshold, the estimate
+ * restarts at the quietest of those frames.</p>
+ *
+ * <p>Levels are mean squares of raw PCM samples. Updates are O(1) and synchronized like {@link LoudnessEnvelope}.</p>
+ */
+public final class NoiseFloor {
+
+    /** Fraction of frames expected below the floor. */
+    private static final double PERCENTILE = 0.2;
+    /** Combined up/down step in dB; small enough to be stable, large enough to adapt within seconds. */
+    private static final double STEP_DB = 0.5;
+    private static final double UP_FACTOR = Math.pow(10.0, STEP_DB * PERCENTILE / 10.0);
+    private static final double DOWN_FACTOR = Math.pow(10.0, -STEP_DB * (1.0 - PERCENTILE) / 10.0);
+    /** Frames needed before the estimate is used, about one second of transmitted audio. */
+    public static final long MIN_SAMPLES = 50L;
+    /** Consecutive frames at or above the threshold after which the estimate restarts, 5 seconds of audio. */
+    public static final int RESEED_FRAMES = 250;
+
+    private double floorMeanSquare;
+    private long samples;
+    private long lastUpdateMillis;
+    private int framesAboveThreshold;
+    private double quietestAboveThreshold;
+
+    public NoiseFloor() {
+        this.lastUpdateMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Restores a persisted estimate.
+     */
+    public NoiseFloor(final double floorMeanSquare, final long samples, final long lastUpdateMillis) {
+        this.floorMeanSquare = floorMeanSquare;
+        this.samples = samples;
+        this.lastUpdateMillis = lastUpdateMillis;
+    }
+
+    /**
+     * Feeds one decoded frame. Digital silence (level 0) carries no information about the microphone and is ignored.
+     *
+     * @param frameMeanSquare     mean square of the frame
+     * @param thresholdMeanSquare speaker's current activation threshold; louder frames count as speech
+     */
+    public synchronized void update(final double frameMeanSquare, final double thresholdMeanSquare) {
+        lastUpdateMillis = System.currentTimeMillis();
+        if (frameMeanSquare <= 0.0) {
+            return;
+        }
+        if (frameMeanSquare >= thresholdMeanSquare) {
+            quietestAboveThreshold = framesAboveThreshold == 0
+                    ? frameMeanSquare
+                    : Math.min(quietestAboveThreshold, frameMeanSquare);
+            if (++framesAboveThreshold >= RESEED_FRAMES) {
+                floorMeanSquare = quietestAboveThreshold;
+                samples = Math.max(samples + 1, MIN_SAMPLES);
+                framesAboveThreshold = 0;
+            }
+            return;
+        }
+        framesAboveThreshold = 0;
+        if (samples == 0L) {
+            floorMeanSquare = frameMeanSquare;
+        } else if (frameMeanSquare > floorMeanSquare) {
+            floorMeanSquare *= UP_FACTOR;
+        } else {
+            floorMeanSquare *= DOWN_FACTOR;
+        }
+        samples++;
+    }
+
+    /**
+     * Returns the current floor as mean square, or 0 before the first frame.
+     */
+    public synchronized double floorMeanSquare() {
+        return floorMeanSquare;
+    }
+
+    /**
+     * Returns the activation threshold relative to the floor, within bounds.
+     *
+     * @param marginFactor  mean-square factor between floor and threshold
+     * @param minMeanSquare lowest threshold
+     * @param maxMeanSquare highest threshold
+     */
+    public synchronized double activationThreshold(final double marginFactor, final double minMeanSquare,
+                                                   final double maxMeanSquare) {
+        return Math.max(minMeanSquare, Math.min(maxMeanSquare, floorMeanSquare * marginFactor));
+    }
+
+    /**
+     * Returns the number of frames that fed the estimate.
+     */
+    public synchronized long samples() {
+        return samples;
+    }
+
+    /**
+     * Returns the {@link System#currentTimeMillis()} of the speaker's last frame.
+     */
+    public synchronized long lastUpdateMillis() {
+        return lastUpdateMillis;
+    }
+
+    /**
+     * Returns whether enough frames were seen for the estimate to be used.
+     */
+    public synchronized boolean isCalibrated() {
+        return samples >= MIN_SAMPLES;
+    }
+}
@@ -0,0 +1,142 @@
+package de.slimenest.voicechatinteraction.util;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-player {@link NoiseFloor} estimates, persisted across sessions.
+ * Estimates are kept after a player leaves so they are saved and resumed on the next join,
+ * until they have not been updated for a while ({@link #evictIdle}).
+ * The file is a header and a snapshot of fixed-size records rewritten atomically by {@link #save()}.
+ */
+public final class NoiseFloorRegistry {
+
+    /** "NFL2": file header. */
+    static final int MAGIC = 0x4E464C32;
+
+    private final Path file;
+    private final ConcurrentHashMap<UUID, NoiseFloor> floors = new ConcurrentHashMap<>();
+
+    public NoiseFloorRegistry(final Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the estimate of a player, creating an empty one if needed.
+     */
+    public NoiseFloor getOrCreate(final UUID playerUuid) {
+        return floors.computeIfAbsent(playerUuid, uuid -> new NoiseFloor());
+    }
+
+    /**
+     * Returns the estimate of a player, or null if none exists.
+     */
+    @Nullable
+    public NoiseFloor get(final UUID playerUuid) {
+        return floors.get(playerUuid);
+    }
+
+    /**
+     * Discards the estimate of a player; calibration starts over with the next frame.
+     *
+     * @return true if an estimate existed
+     */
+    public boolean reset(final UUID playerUuid) {
+        return floors.remove(playerUuid) != null;
+    }
+
+    /**
+     * Discards estimates not updated within the given time, e.g. of players who stopped playing.
+     *
+     * @param maxIdleMillis time since the last frame after which an estimate is dropped
+     * @return number of discarded estimates
+     */
+    public int evictIdle(final long maxIdleMillis) {
+        final long cutoff = System.currentTimeMillis() - maxIdleMillis;
+        int evicted = 0;
+        for (final Map.Entry<UUID, NoiseFloor> entry : floors.entrySet()) {
+            if (entry.getValue().lastUpdateMillis() < cutoff && floors.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns the number of players with an estimate.
+     */
+    public int size() {
+        return floors.size();
+    }
+
+    /**
+     * Loads persisted estimates, replacing those in memory. An empty file holds no estimates,
+     * and a truncated trailing record is ignored.
+     *
+     * @return number of loaded estimates
+     * @throws IOException if the file exists but cannot be read or does not start with the header
+     */
+    public synchronized int load() throws IOException {
+        floors.clear();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            final int magic;
+            try {
+                magic = in.readInt();
+            } catch (final EOFException e) {
+                return 0;
+            }
+            if (magic != MAGIC) {
+                throw new IOException(file.getFileName() + " is not a noise floor file or is corrupt");
+            }
+            while (true) {
+                try {
+                    final UUID playerUuid = new UUID(in.readLong(), in.readLong());
+                    final double floorMeanSquare = in.readDouble();
+                    final long samples = in.readLong();
+                    final long lastUpdateMillis = in.readLong();
+                    floors.put(playerUuid, new NoiseFloor(floorMeanSquare, samples, lastUpdateMillis));
+                } catch (final EOFException e) {
+                    break;
+                }
+            }
+        } catch (final NoSuchFileException e) {
+            // First start: nothing stored yet
+        }
+        return floors.size();
+    }
+
+    /**
+     * Writes all estimates to a temporary file and moves it over the previous snapshot.
+     * Blocking file I/O; call from an async task or on shutdown.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public synchronized void save() throws IOException {
+        Files.createDirectories(file.getParent());
+        final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            for (final Map.Entry<UUID, NoiseFloor> entry : floors.entrySet()) {
+                final NoiseFloor floor = entry.getValue();
+                out.writeLong(entry.getKey().getMostSignificantBits());
+                out.writeLong(entry.getKey().getLeastSignificantBits());
+                out.writeDouble(floor.floorMeanSquare());
+                out.writeLong(floor.samples());
+                out.writeLong(floor.lastUpdateMillis());
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,105 @@
+package de.slimenest.voicechatinteraction.util;
+
+/**
+ * Classifies Opus packets by their TOC byte and payload size without decoding them.
+ * All methods are thread-safe and stateless.
+ *
+ * <p>Opus packets start with a TOC byte: the upper five bits select the coding mode and frame
+ * duration, the lowest two bits the number of frames (RFC 6716, section 3.1). Silence and
+ * DTX/comfort-noise frames compress to a couple of bytes, while loud, broadband speech needs
+ * many more bytes per unit of time.</p>
+ */
+public final class OpusPacketClassifier {
+
+    /**
+     * Result of the pre-classification.
+     */
+    public enum Verdict {
+        /** Packet is near-silence and can be rejected without decoding. */
+        SILENT,
+        /** Packet is clearly loud and can be accepted without decoding. */
+        LOUD,
+        /** Packet must be decoded to decide. */
+        AMBIGUOUS
+    }
+
+    /** Pre-classified loud packets are treated as 6 dB (factor 4 in mean square) above the activation threshold. */
+    public static final double LOUD_LEVEL_FACTOR = 4.0;
+
+    private static final int REFERENCE_FRAME_MICROS = 20_000;
+
+    // Prevent instantiation
+    private OpusPacketClassifier() {
+    }
+
+    /**
+     * Classifies an Opus packet.
+     *
+     * @param packet               Opus encoded packet including the TOC byte
+     * @param silenceMaxBytes      payload bytes (per 20 ms) at or below which a packet counts as silence
+     * @param loudMinBytesPer20ms  payload bytes per 20 ms at or above which a packet counts as loud; 0 disables
+     * @return classification verdict
+     */
+    public static Verdict classify(final byte[] packet, final int silenceMaxBytes, final int loudMinBytesPer20ms) {
+        if (packet.length <= 1) {
+            // TOC only: DTX / packet loss concealment frame
+            return Verdict.SILENT;
+        }
+        final int durationMicros = packetDurationMicros(packet);
+        if (durationMicros <= 0) {
+            return Verdict.AMBIGUOUS;
+        }
+        final long payloadPer20ms = (long) (packet.length - 1) * REFERENCE_FRAME_MICROS / durationMicros;
+        if (payloadPer20ms <= silenceMaxBytes) {
+            return Verdict.SILENT;
+        }
+        if (loudMinBytesPer20ms > 0 && payloadPer20ms >= loudMinBytesPer20ms) {
+            return Verdict.LOUD;
+        }
+        return Verdict.AMBIGUOUS;
+    }
+
+    /**
+     * Returns the total audio duration of a packet in microseconds, or 0 if the header is malformed.
+     */
+    public static int packetDurationMicros(final byte[] packet) {
+        if (packet.length == 0) {
+            return 0;
+        }
+        final int toc = packet[0] & 0xFF;
+        final int frames = frameCount(packet, toc);
+        return frames <= 0 ? 0 : frames * frameDurationMicros(toc >> 3);
+    }
+
+    /**
+     * Returns the duration of a single frame for a TOC configuration number (0-31).
+     */
+    private static int frameDurationMicros(final int config) {
+        if (config < 12) {
+            // SILK-only: 10, 20, 40, 60 ms
+            return switch (config & 3) {
+                case 0 -> 10_000;
+                case 1 -> 20_000;
+                case 2 -> 40_000;
+                default -> 60_000;
+            };
+        }
+        if (config < 16) {
+            // Hybrid: 10, 20 ms
+            return (config & 1) == 0 ? 10_000 : 20_000;
+        }
+        // CELT-only: 2.5, 5, 10, 20 ms
+        return 2_500 << (config & 3);
+    }
+
+    /**
+     * Returns the number of frames in the packet according to the TOC frame count code.
+     */
+    private static int frameCount(final byte[] packet, final int toc) {
+        return switch (toc & 3) {
+            case 0 -> 1;
+            case 1, 2 -> 2;
+            default -> packet.length > 1 ? packet[1] & 0x3F : 0;
+        };
+    }
+}
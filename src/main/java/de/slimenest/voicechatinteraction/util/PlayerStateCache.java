@@ -0,0 +1,82 @@
+package de.slimenest.voicechatinteraction.util;
+
+import de.slimenest.voicechatinteraction.config.RuleProfile;
+
+import javax.annotation.Nullable;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe cache of immutable per-player state snapshots.
+ * Snapshots are written on the main thread from Bukkit events and read from voice threads,
+ * so the voice path never touches the Bukkit API.
+ */
+public final class PlayerStateCache {
+
+    /**
+     * Immutable view of the player state relevant for voice processing.
+     *
+     * @param toggleEnabled whether voice interaction is enabled for the player
+     * @param sneaking      whether the player is currently sneaking
+     * @param worldId       UID of the world the player is in
+     * @param blockX        block X coordinate at the last refresh
+     * @param blockZ        block Z coordinate at the last refresh
+     * @param profile       rule profile resolved for the player's world and permissions
+     */
+    public record Snapshot(boolean toggleEnabled, boolean sneaking, UUID worldId, int blockX, int blockZ,
+                           RuleProfile profile) {
+
+        /**
+         * Returns a copy with a different sneak state.
+         */
+        public Snapshot withSneaking(final boolean newSneaking) {
+            return newSneaking == sneaking ? this : new Snapshot(toggleEnabled, newSneaking, worldId, blockX, blockZ, profile);
+        }
+
+        /**
+         * Returns a copy with a different position in the same world.
+         */
+        public Snapshot withPosition(final int newBlockX, final int newBlockZ) {
+            return newBlockX == blockX && newBlockZ == blockZ
+                    ? this : new Snapshot(toggleEnabled, sneaking, worldId, newBlockX, newBlockZ, profile);
+        }
+    }
+
+    private final ConcurrentHashMap<UUID, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the latest snapshot of a player, or null if the player is not tracked.
+     */
+    @Nullable
+    public Snapshot get(final UUID playerUuid) {
+        return snapshots.get(playerUuid);
+    }
+
+    /**
+     * Publishes a new snapshot for a player.
+     */
+    public void put(final UUID playerUuid, final Snapshot snapshot) {
+        snapshots.put(playerUuid, snapshot);
+    }
+
+    /**
+     * Stops tracking a player.
+     */
+    public void remove(final UUID playerUuid) {
+        snapshots.remove(playerUuid);
+    }
+
+    /**
+     * Removes all snapshots.
+     */
+    public void clear() {
+        snapshots.clear();
+    }
+
+    /**
+     * Returns the number of tracked players.
+     */
+    public int size() {
+        return snapshots.size();
+    }
+}
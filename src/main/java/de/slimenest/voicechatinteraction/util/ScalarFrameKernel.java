@@ -0,0 +1,38 @@
+package de.slimenest.voicechatinteraction.util;
+
+/**
+ * Portable single-pass frame kernel using integer arithmetic only.
+ */
+final class ScalarFrameKernel implements FrameKernel {
+
+    static final ScalarFrameKernel INSTANCE = new ScalarFrameKernel();
+
+    private ScalarFrameKernel() {
+    }
+
+    @Override
+    public FrameFeatures analyze(final short[] pcmSamples, final int offset, final int length) {
+        if (length <= 0) {
+            return new FrameFeatures(0L, 0, 0, 0);
+        }
+        long sumSquares = 0L;
+        int peak = 0;
+        int zeroCrossings = 0;
+        int previous = pcmSamples[offset];
+        final int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            final int s = pcmSamples[i];
+            sumSquares += s * s;
+            peak = Math.max(peak, Math.abs(s));
+            // A crossing is a change of the sign bit; zero counts as positive
+            zeroCrossings += (s ^ previous) >>> 31;
+            previous = s;
+        }
+        return new FrameFeatures(sumSquares, peak, zeroCrossings, length);
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -1,16 +1,90 @@
 package de.slimenest.voicechatinteraction.util;
 
+import java.util.SplittableRandom;
+
 /**
  * Provides static methods for analyzing audio sample arrays.
  * All methods are thread-safe and stateless.
  *
+ * <p>Frame analysis runs on the SIMD {@link FrameKernel} when the {@code jdk.incubator.vector} module
+ * is available and matches the scalar kernel on a self-check at class initialization; otherwise on the scalar one.</p>
+ *
  * @author SlimeNest (restructured)
  */
 public final class SoundAnalyzer {
+    /** Lowest dB value reported by the analyzer. */
+    public static final double MIN_DECIBEL = -127D;
+    private static final double FULL_SCALE_SQUARED = (double) Short.MAX_VALUE * Short.MAX_VALUE;
+    private static final FrameKernel VECTOR = FrameKernel.vector();
+    /** The vector kernel is only used if it agrees with the scalar kernel in a startup self-check. */
+    private static final boolean VECTOR_REJECTED = VECTOR != null && !agrees(VECTOR, FrameKernel.scalar());
+    private static final FrameKernel KERNEL = VECTOR != null && !VECTOR_REJECTED ? VECTOR : FrameKernel.scalar();
+
     // Prevent instantiation
     private SoundAnalyzer() {
     }
 
+    /**
+     * Compares two kernels on random frames of every length up to 64 samples plus common frame sizes,
+     * at varying offsets and including the extreme sample values.
+     */
+    private static boolean agrees(final FrameKernel candidate, final FrameKernel reference) {
+        final SplittableRandom random = new SplittableRandom(0x5EED);
+        final short[] samples = new short[1920 + 3];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = switch (random.nextInt(4)) {
+                case 0 -> Short.MIN_VALUE;
+                case 1 -> Short.MAX_VALUE;
+                case 2 -> 0;
+                default -> (short) random.nextInt(Short.MIN_VALUE, Short.MAX_VALUE + 1);
+            };
+        }
+        for (int length = 0; length <= 64; length++) {
+            if (!sameFeatures(candidate, reference, samples, length % 3, length)) {
+                return false;
+            }
+        }
+        for (final int length : new int[] {127, 480, 481, 960, 1920}) {
+            if (!sameFeatures(candidate, reference, samples, length % 3, length)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameFeatures(final FrameKernel candidate, final FrameKernel reference,
+                                        final short[] samples, final int offset, final int length) {
+        return candidate.analyze(samples, offset, length).equals(reference.analyze(samples, offset, length));
+    }
+
+    /**
+     * Returns the name of the frame kernel in use, e.g. for the startup log.
+     */
+    public static String kernelName() {
+        return KERNEL.name();
+    }
+
+    /**
+     * Returns whether the vector kernel was available but failed the startup self-check against the scalar kernel.
+     */
+    public static boolean isVectorKernelRejected() {
+        return VECTOR_REJECTED;
+    }
+
+    /**
+     * Computes sum of squares, peak and zero crossings of a PCM frame region in a single pass.
+     * The sum is accumulated in integers and cannot overflow for any realistic frame size.
+     * The returned 32-byte record is the only allocation.
+     *
+     * @param pcmSamples array of signed 16-bit PCM samples
+     * @param offset     index of the first sample
+     * @param length     number of samples to include
+     * @return the frame features
+     */
+    public static FrameFeatures analyzeFrame(final short[] pcmSamples, final int offset, final int length) {
+        return KERNEL.analyze(pcmSamples, offset, length);
+    }
+
     /**
      * Computes the decibel (dB) value of a PCM sample array.
      * Returns -127 if the array is null or empty.
@@ -21,21 +95,35 @@ public final class SoundAnalyzer {
     public static double computeDecibelLevel(short[] pcmSamples) {
         if (pcmSamples == null || pcmSamples.length == 0)
             return -127D;
-        double sumSquares = 0.0;
-        int count = 0;
-        for (short s : pcmSamples) {
-            double normalized = s / (double) Short.MAX_VALUE;
-            sumSquares += normalized * normalized;
-            count++;
+        return meanSquareToDecibel(analyzeFrame(pcmSamples, 0, pcmSamples.length).meanSquare());
+    }
+
+    /**
+     * Converts a dB threshold into the mean of squared raw sample values it corresponds to.
+     * Comparing against this value avoids {@code Math.log10} and {@code Math.sqrt} per frame.
+     * Returns 0 for thresholds at or below {@link #MIN_DECIBEL}, which every frame satisfies.
+     *
+     * @param decibelThreshold threshold in range [-127, 0]
+     * @return mean-square threshold in raw sample units
+     */
+    public static double decibelToMeanSquare(final double decibelThreshold) {
+        if (decibelThreshold <= MIN_DECIBEL) {
+            return 0.0;
         }
-        if (count == 0)
-            return -127D;
-        double rms = Math.sqrt(sumSquares / count);
-        double db = (rms > 0.0) ? 20.0 * Math.log10(rms) : -127.0;
-        if (db < -127.0)
-            db = -127.0;
-        if (db > 0.0)
-            db = 0.0;
-        return db;
+        return Math.pow(10.0, decibelThreshold / 10.0) * FULL_SCALE_SQUARED;
+    }
+
+    /**
+     * Converts a mean square in raw sample units back into dB, clamped to [-127, 0].
+     * Inverse of {@link #decibelToMeanSquare(double)}; meant for display, not for the packet path.
+     *
+     * @param meanSquare mean square in raw sample units
+     * @return decibel value in range [-127, 0]
+     */
+    public static double meanSquareToDecibel(final double meanSquare) {
+        if (meanSquare <= 0.0) {
+            return MIN_DECIBEL;
+        }
+        return Math.max(MIN_DECIBEL, Math.min(0.0, 10.0 * Math.log10(meanSquare / FULL_SCALE_SQUARED)));
     }
 }
@@ -0,0 +1,134 @@
+package de.slimenest.voicechatinteraction.util;
+
+/**
+ * Compares the energy of a PCM frame inside the speech band with the energy above it,
+ * so broadband transients (keyboard clatter, clicks, mic bumps) can be told apart from voice.
+ *
+ * <p>Uses a bank of Goertzel filters at fixed frequencies with precomputed coefficients and a precomputed
+ * Hann window. The frame is split into segments whose filter powers are summed (Welch averaging);
+ * short segments give wide bins, so voice harmonics always fall into a speech bin whatever the pitch.
+ * At most {@link #MAX_SEGMENTS} segments are analyzed, so the cost per frame is fixed regardless of
+ * frame length. Each band's six filters run in one pass to keep independent recurrences in flight.</p>
+ *
+ * <p>Stateless and allocation-free; safe from any thread.</p>
+ */
+public final class SpeechBandAnalyzer {
+
+    /** Samples per segment: 5 ms at 48 kHz, i.e. 200 Hz bin spacing. */
+    public static final int SEGMENT_SAMPLES = 240;
+    /** Segments per frame; four cover a 20 ms frame, longer frames are cut for a fixed budget. */
+    public static final int MAX_SEGMENTS = 4;
+    private static final double SAMPLE_RATE = 48_000.0;
+    /** Filter frequencies inside the speech band (voice harmonics and formants); bins overlap at 200 Hz spacing. */
+    private static final double[] SPEECH_BAND_HZ = {300, 700, 1100, 1600, 2200, 3000};
+    /** Filter frequencies above the speech band, where clicks and clatter carry much of their energy. */
+    private static final double[] OUT_OF_BAND_HZ = {4500, 6000, 8000, 10000, 12500, 15000};
+    private static final double[] SPEECH_COEFFICIENTS = coefficients(SPEECH_BAND_HZ);
+    private static final double[] OUT_OF_BAND_COEFFICIENTS = coefficients(OUT_OF_BAND_HZ);
+    private static final double[] WINDOW = hannWindow();
+
+    private SpeechBandAnalyzer() {
+    }
+
+    /**
+     * Precomputes the Goertzel coefficients 2cos(w) of a filter bank.
+     */
+    private static double[] coefficients(final double[] frequencies) {
+        final double[] coefficients = new double[frequencies.length];
+        for (int i = 0; i < frequencies.length; i++) {
+            coefficients[i] = 2.0 * Math.cos(2.0 * Math.PI * frequencies[i] / SAMPLE_RATE);
+        }
+        return coefficients;
+    }
+
+    private static double[] hannWindow() {
+        final double[] window = new double[SEGMENT_SAMPLES];
+        for (int i = 0; i < SEGMENT_SAMPLES; i++) {
+            window[i] = 0.5 - 0.5 * Math.cos(2.0 * Math.PI * i / (SEGMENT_SAMPLES - 1));
+        }
+        return window;
+    }
+
+    /**
+     * Returns the mean filter power inside the speech band divided by the mean filter power above it.
+     * Frames shorter than one segment cannot be judged and return positive infinity.
+     *
+     * @param pcmSamples array of signed 16-bit PCM samples
+     * @param offset     index of the first sample
+     * @param length     number of samples in the frame
+     * @return power ratio (1.0 is 0 dB), NaN for a silent frame
+     */
+    public static double bandRatio(final short[] pcmSamples, final int offset, final int length) {
+        final int segments = Math.min(MAX_SEGMENTS, length / SEGMENT_SAMPLES);
+        if (segments == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double speechPower = 0.0;
+        double outOfBandPower = 0.0;
+        for (int segment = 0; segment < segments; segment++) {
+            final int start = offset + segment * SEGMENT_SAMPLES;
+            speechPower += bankPower(pcmSamples, start, SPEECH_COEFFICIENTS);
+            outOfBandPower += bankPower(pcmSamples, start, OUT_OF_BAND_COEFFICIENTS);
+        }
+        // Both banks have the same number of filters, so the ratio of sums is the ratio of means
+        return speechPower / outOfBandPower;
+    }
+
+    /**
+     * Checks whether a frame is speech-dominant, i.e. its speech band is at least the given factor
+     * above the band above it. Frames too short to judge count as speech.
+     *
+     * @param minRatio minimum power ratio, e.g. from {@code 10^(dB/10)}
+     */
+    public static boolean isSpeechDominant(final short[] pcmSamples, final int offset, final int length,
+                                           final double minRatio) {
+        // NaN (silence) fails the comparison, which is fine: silent frames never count as talking anyway
+        return bandRatio(pcmSamples, offset, length) >= minRatio;
+    }
+
+    /**
+     * Runs the six Goertzel filters of a bank over one windowed segment and returns the sum of their powers.
+     * The recurrence is written as {@code (x - s2) + c * s1} so only one multiply-add sits on the dependency chain.
+     */
+    private static double bankPower(final short[] pcmSamples, final int start, final double[] coefficients) {
+        final double c0 = coefficients[0];
+        final double c1 = coefficients[1];
+        final double c2 = coefficients[2];
+        final double c3 = coefficients[3];
+        final double c4 = coefficients[4];
+        final double c5 = coefficients[5];
+        double a1 = 0.0, a2 = 0.0;
+        double b1 = 0.0, b2 = 0.0;
+        double d1 = 0.0, d2 = 0.0;
+        double e1 = 0.0, e2 = 0.0;
+        double f1 = 0.0, f2 = 0.0;
+        double g1 = 0.0, g2 = 0.0;
+        for (int i = 0; i < SEGMENT_SAMPLES; i++) {
+            final double x = pcmSamples[start + i] * WINDOW[i];
+            final double a0 = (x - a2) + c0 * a1;
+            final double b0 = (x - b2) + c1 * b1;
+            final double d0 = (x - d2) + c2 * d1;
+            final double e0 = (x - e2) + c3 * e1;
+            final double f0 = (x - f2) + c4 * f1;
+            final double g0 = (x - g2) + c5 * g1;
+            a2 = a1;
+            a1 = a0;
+            b2 = b1;
+            b1 = b0;
+            d2 = d1;
+            d1 = d0;
+            e2 = e1;
+            e1 = e0;
+            f2 = f1;
+            f1 = f0;
+            g2 = g1;
+            g1 = g0;
+        }
+        return power(a1, a2, c0) + power(b1, b2, c1) + power(d1, d2, c2)
+                + power(e1, e2, c3) + power(f1, f2, c4) + power(g1, g2, c5);
+    }
+
+    private static double power(final double s1, final double s2, final double coefficient) {
+        return s1 * s1 + s2 * s2 - coefficient * s1 * s2;
+    }
+}
@@ -0,0 +1,222 @@
+package de.slimenest.voicechatinteraction.util;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Plugin-owned store of per-player toggle states, independent of whether the player is online.
+ *
+ * <p>States live in memory and are persisted to an append-only log of fixed-size records
+ * (UUID + state byte). Changes are queued and appended by {@link #flush()}, which runs off the
+ * main thread. Replaying the log is last-write-wins; once it holds far more records than players,
+ * {@link #flush()} compacts it into a fresh file that replaces the old one atomically.</p>
+ *
+ * <p>A record for the nil UUID marks that toggle states stored by older versions in player data were imported.</p>
+ */
+public final class ToggleStore {
+
+    private static final int RECORD_BYTES = Long.BYTES * 2 + 1;
+    /** Compaction starts once the log holds this many more records than live entries. */
+    private static final int COMPACTION_SLACK = 1024;
+    /** Reserved player ID of the legacy import marker record. */
+    private static final UUID LEGACY_IMPORT_MARKER = new UUID(0L, 0L);
+
+    /**
+     * A change waiting to be appended to the log.
+     */
+    private record Change(UUID playerUuid, boolean enabled) {
+    }
+
+    private final Path file;
+    private final ConcurrentHashMap<UUID, Boolean> states = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Change> pendingChanges = new ConcurrentLinkedQueue<>();
+    /** Number of records in the log file; only touched under the instance lock. */
+    private long logRecords;
+    private volatile boolean legacyImported;
+
+    public ToggleStore(final Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Replays the log into memory. A truncated trailing record (e.g. after a crash) is ignored.
+     *
+     * @return number of players with a stored state
+     * @throws IOException if the file exists but cannot be read
+     */
+    public synchronized int load() throws IOException {
+        states.clear();
+        logRecords = 0;
+        legacyImported = false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                final long msb;
+                final long lsb;
+                final byte state;
+                try {
+                    msb = in.readLong();
+                    lsb = in.readLong();
+                    state = in.readByte();
+                } catch (final EOFException e) {
+                    break;
+                }
+                final UUID playerUuid = new UUID(msb, lsb);
+                if (playerUuid.equals(LEGACY_IMPORT_MARKER)) {
+                    legacyImported = true;
+                } else {
+                    states.put(playerUuid, state != 0);
+                }
+                logRecords++;
+            }
+        } catch (final NoSuchFileException e) {
+            // First start: nothing stored yet
+        }
+        return states.size();
+    }
+
+    /**
+     * Returns the stored state of a player, or null if none was stored. O(1), safe from any thread.
+     */
+    @Nullable
+    public Boolean get(final UUID playerUuid) {
+        return states.get(playerUuid);
+    }
+
+    /**
+     * Stores a player's state in memory and queues it for the next {@link #flush()}. Safe from any thread.
+     */
+    public void set(final UUID playerUuid, final boolean enabled) {
+        final Boolean previous = states.put(playerUuid, enabled);
+        if (previous == null || previous != enabled) {
+            pendingChanges.offer(new Change(playerUuid, enabled));
+        }
+    }
+
+    /**
+     * Stores a player's state unless one is already stored, e.g. when importing a legacy state.
+     *
+     * @return true if the state was stored
+     */
+    public boolean setIfAbsent(final UUID playerUuid, final boolean enabled) {
+        if (states.putIfAbsent(playerUuid, enabled) != null) {
+            return false;
+        }
+        pendingChanges.offer(new Change(playerUuid, enabled));
+        return true;
+    }
+
+    /**
+     * Returns whether the toggle states of older versions were imported from player data.
+     */
+    public boolean isLegacyImported() {
+        return legacyImported;
+    }
+
+    /**
+     * Records that the legacy import is done, so it is not repeated on the next start.
+     */
+    public void markLegacyImported() {
+        if (!legacyImported) {
+            legacyImported = true;
+            pendingChanges.offer(new Change(LEGACY_IMPORT_MARKER, true));
+        }
+    }
+
+    /**
+     * Sets the state of every stored player.
+     *
+     * @return number of changed entries
+     */
+    public int setAll(final boolean enabled) {
+        int changed = 0;
+        for (final Map.Entry<UUID, Boolean> entry : states.entrySet()) {
+            if (entry.getValue() != enabled) {
+                set(entry.getKey(), enabled);
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the number of players with a stored state.
+     */
+    public int size() {
+        return states.size();
+    }
+
+    /**
+     * Appends queued changes to the log and compacts it if it has grown too large.
+     * Blocking file I/O; call from an async task or on shutdown.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        final List<Change> changes = new ArrayList<>();
+        Change change;
+        while ((change = pendingChanges.poll()) != null) {
+            changes.add(change);
+        }
+        if (!changes.isEmpty()) {
+            Files.createDirectories(file.getParent());
+            try (DataOutputStream out = open(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (final Change pending : changes) {
+                    writeRecord(out, pending.playerUuid(), pending.enabled());
+                }
+            }
+            logRecords += changes.size();
+        }
+        if (logRecords > states.size() + 1L + COMPACTION_SLACK) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites the log with one record per player. Changes queued concurrently are appended by a later flush,
+     * which keeps replay correct because the newest record wins.
+     */
+    private void compact() throws IOException {
+        final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long written = 0;
+        try (DataOutputStream out = open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (final Map.Entry<UUID, Boolean> entry : states.entrySet()) {
+                writeRecord(out, entry.getKey(), entry.getValue());
+                written++;
+            }
+            if (legacyImported) {
+                writeRecord(out, LEGACY_IMPORT_MARKER, true);
+                written++;
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logRecords = written;
+    }
+
+    private static DataOutputStream open(final Path path, final StandardOpenOption... options) throws IOException {
+        final OutputStream stream = Files.newOutputStream(path, options);
+        return new DataOutputStream(new BufferedOutputStream(stream, RECORD_BYTES * 256));
+    }
+
+    private static void writeRecord(final DataOutputStream out, final UUID playerUuid, final boolean enabled) throws IOException {
+        out.writeLong(playerUuid.getMostSignificantBits());
+        out.writeLong(playerUuid.getLeastSignificantBits());
+        out.writeByte(enabled ? 1 : 0);
+    }
+}
@@ -0,0 +1,71 @@
+package de.slimenest.voicechatinteraction.util;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD frame kernel on the incubating Vector API. Only loaded through {@link FrameKernel#vector()}.
+ *
+ * <p>Samples are widened to int lanes before squaring and to long lanes before accumulating,
+ * so the sum of squares is exact and matches {@link ScalarFrameKernel} bit for bit.
+ * Zero crossings compare each vector with the same vector shifted back by one sample.</p>
+ */
+final class VectorFrameKernel implements FrameKernel {
+
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = SHORTS.withLanes(int.class);
+    private static final VectorSpecies<Long> LONGS = SHORTS.withLanes(long.class);
+
+    @Override
+    public FrameFeatures analyze(final short[] pcmSamples, final int offset, final int length) {
+        if (length <= 0) {
+            return new FrameFeatures(0L, 0, 0, 0);
+        }
+        // The first sample has no predecessor, so the vector loop starts one sample in
+        final int first = pcmSamples[offset];
+        long sumSquares = (long) first * first;
+        int peak = Math.abs(first);
+        int zeroCrossings = 0;
+
+        final int end = offset + length;
+        int i = offset + 1;
+        final int upper = i + SHORTS.loopBound(end - i);
+        LongVector sumLanes = LongVector.zero(LONGS);
+        IntVector peakLanes = IntVector.zero(INTS);
+        for (; i < upper; i += SHORTS.length()) {
+            final ShortVector current = ShortVector.fromArray(SHORTS, pcmSamples, i);
+            final ShortVector previous = ShortVector.fromArray(SHORTS, pcmSamples, i - 1);
+            zeroCrossings += current.lanewise(VectorOperators.XOR, previous)
+                    .compare(VectorOperators.LT, (short) 0)
+                    .trueCount();
+            for (int intPart = 0; intPart < 2; intPart++) {
+                final IntVector ints = (IntVector) current.convertShape(VectorOperators.S2I, INTS, intPart);
+                peakLanes = peakLanes.max(ints.abs());
+                final IntVector squares = ints.mul(ints);
+                for (int longPart = 0; longPart < 2; longPart++) {
+                    sumLanes = sumLanes.add((LongVector) squares.convertShape(VectorOperators.I2L, LONGS, longPart));
+                }
+            }
+        }
+        sumSquares += sumLanes.reduceLanes(VectorOperators.ADD);
+        peak = Math.max(peak, peakLanes.reduceLanes(VectorOperators.MAX));
+
+        int previous = pcmSamples[i - 1];
+        for (; i < end; i++) {
+            final int s = pcmSamples[i];
+            sumSquares += s * s;
+            peak = Math.max(peak, Math.abs(s));
+            zeroCrossings += (s ^ previous) >>> 31;
+            previous = s;
+        }
+        return new FrameFeatures(sumSquares, peak, zeroCrossings, length);
+    }
+
+    @Override
+    public String name() {
+        return "vector (" + SHORTS.vectorBitSize() + "-bit)";
+    }
+}
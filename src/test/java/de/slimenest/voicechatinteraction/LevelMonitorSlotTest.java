@@ -0,0 +1,85 @@
+package de.slimenest.voicechatinteraction;
+
+import de.slimenest.voicechatinteraction.stats.RejectReason;
+import de.slimenest.voicechatinteraction.util.SoundAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LevelMonitorSlotTest {
+
+    @Test
+    void startsEmpty() {
+        final long packed = new LevelMonitor.Slot().packed();
+        assertEquals(LevelMonitor.UNKNOWN_LEVEL, LevelMonitor.Slot.level(packed));
+        assertEquals(LevelMonitor.UNKNOWN_LEVEL, LevelMonitor.Slot.threshold(packed));
+        assertEquals(0, LevelMonitor.Slot.reason(packed));
+        assertEquals(0, LevelMonitor.Slot.sequence(packed));
+        assertFalse(LevelMonitor.Slot.triggered(packed));
+    }
+
+    @Test
+    void packsAllFieldsOfAnOutcome() {
+        final LevelMonitor.Slot slot = new LevelMonitor.Slot();
+        slot.publishOutcome(meanSquare(-42.25), meanSquare(-50.0), LevelMonitor.EnvelopeState.TALKING, RejectReason.COOLDOWN);
+
+        final long packed = slot.packed();
+        assertEquals(-4225, LevelMonitor.Slot.level(packed));
+        assertEquals(-5000, LevelMonitor.Slot.threshold(packed));
+        assertEquals(RejectReason.COOLDOWN.ordinal() + 1, LevelMonitor.Slot.reason(packed));
+        assertEquals(LevelMonitor.EnvelopeState.TALKING.ordinal(), LevelMonitor.Slot.envelope(packed));
+        assertFalse(LevelMonitor.Slot.triggered(packed));
+        assertEquals(1, LevelMonitor.Slot.sequence(packed));
+    }
+
+    @Test
+    void triggerKeepsLastRejectReason() {
+        final LevelMonitor.Slot slot = new LevelMonitor.Slot();
+        slot.publishOutcome(meanSquare(-60.0), meanSquare(-50.0), LevelMonitor.EnvelopeState.QUIET, RejectReason.THRESHOLD);
+        slot.publishOutcome(meanSquare(-40.0), meanSquare(-50.0), LevelMonitor.EnvelopeState.TALKING, null);
+
+        final long packed = slot.packed();
+        assertTrue(LevelMonitor.Slot.triggered(packed));
+        assertEquals(RejectReason.THRESHOLD.ordinal() + 1, LevelMonitor.Slot.reason(packed));
+        assertEquals(-4000, LevelMonitor.Slot.level(packed));
+    }
+
+    @Test
+    void unmeasuredOutcomeKeepsLevelAndLevelUpdateKeepsSequence() {
+        final LevelMonitor.Slot slot = new LevelMonitor.Slot();
+        slot.publishOutcome(meanSquare(-30.0), meanSquare(-50.0), LevelMonitor.EnvelopeState.OFF, null);
+        slot.publishOutcome(Double.NaN, Double.NaN, LevelMonitor.EnvelopeState.OFF, RejectReason.TOGGLE);
+
+        long packed = slot.packed();
+        assertEquals(-3000, LevelMonitor.Slot.level(packed));
+        assertEquals(-5000, LevelMonitor.Slot.threshold(packed));
+        assertEquals(RejectReason.TOGGLE.ordinal() + 1, LevelMonitor.Slot.reason(packed));
+        assertEquals(2, LevelMonitor.Slot.sequence(packed));
+
+        slot.publishLevel(meanSquare(-70.0), meanSquare(-45.0));
+        packed = slot.packed();
+        assertEquals(-7000, LevelMonitor.Slot.level(packed));
+        assertEquals(-4500, LevelMonitor.Slot.threshold(packed));
+        assertEquals(2, LevelMonitor.Slot.sequence(packed));
+    }
+
+    @Test
+    void sequenceWrapsWithoutCorruptingOtherFields() {
+        final LevelMonitor.Slot slot = new LevelMonitor.Slot();
+        for (int i = 0; i < 0x10000; i++) {
+            slot.publishOutcome(meanSquare(-20.0), meanSquare(-127.0), LevelMonitor.EnvelopeState.QUIET, RejectReason.DECODE_FAILED);
+        }
+        final long packed = slot.packed();
+        assertEquals(0, LevelMonitor.Slot.sequence(packed));
+        assertEquals(-2000, LevelMonitor.Slot.level(packed));
+        assertEquals(-12700, LevelMonitor.Slot.threshold(packed));
+        assertEquals(RejectReason.DECODE_FAILED.ordinal() + 1, LevelMonitor.Slot.reason(packed));
+        assertEquals(LevelMonitor.EnvelopeState.QUIET.ordinal(), LevelMonitor.Slot.envelope(packed));
+    }
+
+    private static double meanSquare(final double decibel) {
+        return SoundAnalyzer.decibelToMeanSquare(decibel);
+    }
+}
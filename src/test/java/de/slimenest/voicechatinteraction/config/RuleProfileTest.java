@@ -0,0 +1,48 @@
+package de.slimenest.voicechatinteraction.config;
+
+import de.slimenest.voicechatinteraction.util.NoiseFloor;
+import de.slimenest.voicechatinteraction.util.SoundAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuleProfileTest {
+
+    private static final double MIN = SoundAnalyzer.decibelToMeanSquare(-60.0);
+    private static final double MAX = SoundAnalyzer.decibelToMeanSquare(-30.0);
+    private static final double MARGIN = Math.pow(10.0, 15 / 10.0);
+
+    @Test
+    void offsetIsTheDecibelDistanceToTheGlobalThreshold() {
+        assertEquals(1.0, RuleProfile.noiseFloorOffsetFactor(-50, -50));
+        assertEquals(10.0, RuleProfile.noiseFloorOffsetFactor(-40, -50), 1e-12);
+        assertEquals(0.1, RuleProfile.noiseFloorOffsetFactor(-60, -50), 1e-12);
+    }
+
+    @Test
+    void silentGlobalThresholdKeepsCalibratedThresholdsFinite() {
+        // -127 dB is a mean square of 0; a ratio of mean squares would be NaN or infinite here
+        assertEquals(0.0, SoundAnalyzer.decibelToMeanSquare(-127));
+        final NoiseFloor floor = calibrated(SoundAnalyzer.decibelToMeanSquare(-70.0));
+
+        final double sameAsGlobal = floor.activationThreshold(MARGIN * RuleProfile.noiseFloorOffsetFactor(-127, -127), MIN, MAX);
+        assertEquals(SoundAnalyzer.decibelToMeanSquare(-55.0), sameAsGlobal, 1e-6);
+
+        final double stricter = floor.activationThreshold(MARGIN * RuleProfile.noiseFloorOffsetFactor(-40, -127), MIN, MAX);
+        assertTrue(Double.isFinite(stricter));
+        assertEquals(MAX, stricter);
+    }
+
+    @Test
+    void calibratedThresholdStaysWithinBounds() {
+        final NoiseFloor quiet = calibrated(SoundAnalyzer.decibelToMeanSquare(-100.0));
+        assertEquals(MIN, quiet.activationThreshold(MARGIN, MIN, MAX));
+        final NoiseFloor noisy = calibrated(SoundAnalyzer.decibelToMeanSquare(-20.0));
+        assertEquals(MAX, noisy.activationThreshold(MARGIN, MIN, MAX));
+    }
+
+    private static NoiseFloor calibrated(final double floorMeanSquare) {
+        return new NoiseFloor(floorMeanSquare, NoiseFloor.MIN_SAMPLES, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,57 @@
+package de.slimenest.voicechatinteraction.stats;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class StatsFileWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsSmallFiles() throws IOException {
+        final Path file = write("stats.log", "current");
+        StatsFileWriter.rotateIfFull(file, 100, 3);
+        assertEquals("current", Files.readString(file));
+        assertFalse(Files.exists(directory.resolve("stats.log.1")));
+    }
+
+    @Test
+    void shiftsFilesAndDropsTheOldest() throws IOException {
+        final Path file = write("stats.log", "current");
+        write("stats.log.1", "previous");
+        write("stats.log.2", "oldest");
+
+        StatsFileWriter.rotateIfFull(file, 4, 3);
+
+        assertFalse(Files.exists(file));
+        assertEquals("current", Files.readString(directory.resolve("stats.log.1")));
+        assertEquals("previous", Files.readString(directory.resolve("stats.log.2")));
+        assertFalse(Files.exists(directory.resolve("stats.log.3")));
+    }
+
+    @Test
+    void singleFileIsStartedOver() throws IOException {
+        final Path file = write("stats.log", "current");
+        StatsFileWriter.rotateIfFull(file, 4, 1);
+        assertFalse(Files.exists(file));
+        assertFalse(Files.exists(directory.resolve("stats.log.1")));
+    }
+
+    @Test
+    void missingFileIsIgnored() throws IOException {
+        StatsFileWriter.rotateIfFull(directory.resolve("stats.log"), 0, 3);
+        assertFalse(Files.exists(directory.resolve("stats.log.1")));
+    }
+
+    private Path write(final String name, final String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content);
+    }
+}
@@ -0,0 +1,115 @@
+package de.slimenest.voicechatinteraction.stats;
+
+import de.slimenest.voicechatinteraction.config.RuleProfile;
+import de.slimenest.voicechatinteraction.util.SoundAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceRecorderTest {
+
+    private static final RuleProfile DEFAULT = profile("default", -50, 20);
+    private static final RuleProfile QUIET = profile("quiet", -60, 40);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesHeaderAndRecords() throws IOException {
+        final Path file = directory.resolve("nested/test.trace");
+        final UUID first = UUID.randomUUID();
+        final UUID second = UUID.randomUUID();
+        final long start = System.nanoTime();
+        try (TraceRecorder recorder = new TraceRecorder(file, TraceRecorder.HEADER_BYTES + 4L * TraceRecorder.RECORD_BYTES)) {
+            assertEquals(4, recorder.getCapacity());
+            recorder.record(first, start, SoundAnalyzer.decibelToMeanSquare(-42.5), SoundAnalyzer.decibelToMeanSquare(-50.0),
+                    null, 0, DEFAULT);
+            recorder.record(second, start, Double.NaN, Double.NaN, RejectReason.TOGGLE, TraceRecorder.FLAG_PROFILED, QUIET);
+            recorder.record(first, start, SoundAnalyzer.decibelToMeanSquare(-60.0), SoundAnalyzer.decibelToMeanSquare(-50.0),
+                    RejectReason.THRESHOLD, 0, DEFAULT);
+            assertEquals(3, recorder.getRecordedCount());
+        }
+
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertEquals(TraceRecorder.MAGIC, buffer.getInt(0));
+        assertEquals(TraceRecorder.VERSION, buffer.getInt(4));
+        assertEquals(TraceRecorder.RECORD_BYTES, buffer.getInt(8));
+        assertEquals(4, buffer.getInt(12));
+
+        final int triggered = TraceRecorder.HEADER_BYTES;
+        assertTrue(buffer.getLong(triggered) > 0L);
+        assertEquals(0, buffer.getInt(triggered + 8));
+        assertEquals(-4250, buffer.getShort(triggered + 12));
+        assertEquals(-50, buffer.get(triggered + 14));
+        assertEquals(TraceRecorder.OUTCOME_TRIGGERED, buffer.get(triggered + 15));
+        assertEquals(0, buffer.get(triggered + 16));
+        assertEquals(-50, buffer.get(triggered + 17));
+        assertEquals(20, buffer.getShort(triggered + 18));
+
+        final int unmeasured = triggered + TraceRecorder.RECORD_BYTES;
+        assertEquals(1, buffer.getInt(unmeasured + 8));
+        assertEquals(TraceRecorder.UNKNOWN_LEVEL, buffer.getShort(unmeasured + 12));
+        assertEquals(TraceRecorder.UNKNOWN_THRESHOLD, buffer.get(unmeasured + 14));
+        assertEquals(RejectReason.TOGGLE.ordinal() + 1, buffer.get(unmeasured + 15));
+        assertEquals(TraceRecorder.FLAG_PROFILED, buffer.get(unmeasured + 16));
+        assertEquals(-60, buffer.get(unmeasured + 17));
+        assertEquals(40, buffer.getShort(unmeasured + 18));
+
+        // Players keep their index
+        assertEquals(0, buffer.getInt(unmeasured + TraceRecorder.RECORD_BYTES + 8));
+        // Unused slots have no timestamp
+        assertEquals(0L, buffer.getLong(triggered + 3 * TraceRecorder.RECORD_BYTES));
+    }
+
+    @Test
+    void preclassifiedFramesHaveNoLevel() throws IOException {
+        final Path file = directory.resolve("preclassified.trace");
+        final UUID player = UUID.randomUUID();
+        final double threshold = SoundAnalyzer.decibelToMeanSquare(-50.0);
+        try (TraceRecorder recorder = new TraceRecorder(file, TraceRecorder.HEADER_BYTES + 2L * TraceRecorder.RECORD_BYTES)) {
+            // The level the server judged a loud frame by is synthetic and must not look measured
+            recorder.record(player, System.nanoTime(), threshold * 4.0, threshold, null,
+                    TraceRecorder.FLAG_PRECLASSIFIED_LOUD, DEFAULT);
+            recorder.record(player, System.nanoTime(), 0.0, threshold, RejectReason.THRESHOLD,
+                    TraceRecorder.FLAG_PRECLASSIFIED_SILENT, DEFAULT);
+        }
+
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        final int loud = TraceRecorder.HEADER_BYTES;
+        assertEquals(TraceRecorder.UNKNOWN_LEVEL, buffer.getShort(loud + 12));
+        assertEquals(-50, buffer.get(loud + 14));
+        assertEquals(TraceRecorder.FLAG_PRECLASSIFIED_LOUD, buffer.get(loud + 16));
+        final int silent = loud + TraceRecorder.RECORD_BYTES;
+        assertEquals(TraceRecorder.UNKNOWN_LEVEL, buffer.getShort(silent + 12));
+        assertEquals(TraceRecorder.FLAG_PRECLASSIFIED_SILENT, buffer.get(silent + 16));
+    }
+
+    @Test
+    void overwritesOldestRecordsWhenFull() throws IOException {
+        final Path file = directory.resolve("ring.trace");
+        final UUID player = UUID.randomUUID();
+        try (TraceRecorder recorder = new TraceRecorder(file, TraceRecorder.HEADER_BYTES + 2L * TraceRecorder.RECORD_BYTES)) {
+            for (final RejectReason reason : new RejectReason[] {RejectReason.GROUP, RejectReason.WHISPER, RejectReason.SNEAK}) {
+                recorder.record(player, System.nanoTime(), Double.NaN, Double.NaN, reason, 0, DEFAULT);
+            }
+        }
+
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertEquals(TraceRecorder.HEADER_BYTES + 2 * TraceRecorder.RECORD_BYTES, buffer.limit());
+        assertEquals(RejectReason.SNEAK.ordinal() + 1, buffer.get(TraceRecorder.HEADER_BYTES + 15));
+        assertEquals(RejectReason.WHISPER.ordinal() + 1, buffer.get(TraceRecorder.HEADER_BYTES + TraceRecorder.RECORD_BYTES + 15));
+    }
+
+    private static RuleProfile profile(final String name, final int dbThreshold, final int cooldownTicks) {
+        return new RuleProfile(name, true, true, true, dbThreshold, SoundAnalyzer.decibelToMeanSquare(dbThreshold),
+                cooldownTicks, cooldownTicks * 50_000_000L, 1.0);
+    }
+}
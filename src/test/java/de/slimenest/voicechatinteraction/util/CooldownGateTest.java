@@ -0,0 +1,104 @@
+package de.slimenest.voicechatinteraction.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CooldownGateTest {
+
+    private static final long COOLDOWN = 1_000L;
+
+    @Test
+    void acquiresOncePerWindow() {
+        final CooldownGate gate = new CooldownGate();
+        final UUID key = UUID.randomUUID();
+
+        assertTrue(gate.tryAcquire(key, 0L, COOLDOWN));
+        assertFalse(gate.tryAcquire(key, COOLDOWN - 1, COOLDOWN));
+        assertTrue(gate.isCoolingDown(key, COOLDOWN - 1, COOLDOWN));
+        assertTrue(gate.tryAcquire(key, COOLDOWN, COOLDOWN));
+    }
+
+    @Test
+    void releaseGivesBackOnlyTheAcquiredWindow() {
+        final CooldownGate gate = new CooldownGate();
+        final UUID key = UUID.randomUUID();
+
+        assertTrue(gate.tryAcquire(key, 100L, COOLDOWN));
+        assertFalse(gate.release(key, 50L));
+        assertTrue(gate.release(key, 100L));
+        assertFalse(gate.isCoolingDown(key, 101L, COOLDOWN));
+        assertTrue(gate.tryAcquire(key, 101L, COOLDOWN));
+        assertFalse(gate.release(key, 100L));
+        assertEquals(1, gate.size());
+    }
+
+    @Test
+    void evictsOnlyExpiredSlots() {
+        final CooldownGate gate = new CooldownGate();
+        final long hour = 3_600_000_000_000L;
+        final long now = System.nanoTime();
+        gate.tryAcquire(UUID.randomUUID(), now - 2 * hour, hour);
+        gate.tryAcquire(UUID.randomUUID(), now, hour);
+
+        assertEquals(1, gate.evictExpired(hour));
+        assertEquals(1, gate.size());
+    }
+
+    @Test
+    void evictionNeverLetsTwoThreadsWinTheSameWindow() throws InterruptedException {
+        // Each round starts from an expired slot that the evictor races to remove while acquirers claim it
+        final CooldownGate gate = new CooldownGate();
+        final UUID key = UUID.randomUUID();
+        final long window = 3_600_000_000_000L;
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final Thread evictor = new Thread(() -> {
+            while (running.get()) {
+                gate.evictExpired(window);
+            }
+        });
+        evictor.start();
+
+        try {
+            for (int round = 0; round < 2_000; round++) {
+                gate.remove(key);
+                gate.tryAcquire(key, System.nanoTime() - 2 * window, window);
+                final AtomicInteger winners = new AtomicInteger();
+                final CountDownLatch ready = new CountDownLatch(1);
+                final Thread[] acquirers = new Thread[4];
+                for (int i = 0; i < acquirers.length; i++) {
+                    acquirers[i] = new Thread(() -> {
+                        awaitQuietly(ready);
+                        if (gate.tryAcquire(key, System.nanoTime(), window)) {
+                            winners.incrementAndGet();
+                        }
+                    });
+                    acquirers[i].start();
+                }
+                ready.countDown();
+                for (final Thread acquirer : acquirers) {
+                    acquirer.join();
+                }
+                assertEquals(1, winners.get(), "round " + round);
+            }
+        } finally {
+            running.set(false);
+            evictor.join();
+        }
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
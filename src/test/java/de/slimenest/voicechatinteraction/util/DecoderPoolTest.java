@@ -0,0 +1,136 @@
+package de.slimenest.voicechatinteraction.util;
+
+import de.maxhenkel.voicechat.api.VoicechatApi;
+import de.maxhenkel.voicechat.api.opus.OpusDecoder;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DecoderPoolTest {
+
+    private static final byte[] FRAME = {1, 2, 3};
+    private static final short[] PCM = {10, 20, 30};
+
+    private final List<String> warnings = new ArrayList<>();
+    private final Logger logger = capturingLogger();
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+
+    @Test
+    void reusesOneDecoderPerSender() {
+        final DecoderPool pool = new DecoderPool(logger);
+        final VoicechatApi api = api(true);
+        final UUID sender = UUID.randomUUID();
+
+        assertArrayEquals(PCM, pool.decode(api, sender, FRAME));
+        assertArrayEquals(PCM, pool.decode(api, sender, FRAME));
+        pool.decode(api, UUID.randomUUID(), FRAME);
+
+        assertEquals(2, created.get());
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    void evictionClosesAndRecreates() {
+        final DecoderPool pool = new DecoderPool(logger);
+        final VoicechatApi api = api(true);
+        final UUID sender = UUID.randomUUID();
+
+        pool.decode(api, sender, FRAME);
+        pool.evict(sender);
+        assertEquals(1, closed.get());
+        assertEquals(0, pool.size());
+
+        assertArrayEquals(PCM, pool.decode(api, sender, FRAME));
+        assertEquals(2, created.get());
+        assertTrue(warnings.isEmpty());
+    }
+
+    @Test
+    void idleDecodersAreEvicted() throws InterruptedException {
+        final DecoderPool pool = new DecoderPool(logger);
+        pool.decode(api(true), UUID.randomUUID(), FRAME);
+
+        assertEquals(0, pool.evictIdle(60_000_000_000L));
+        Thread.sleep(5);
+        assertEquals(1, pool.evictIdle(1_000_000L));
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    void closeAllClosesEveryDecoder() {
+        final DecoderPool pool = new DecoderPool(logger);
+        final VoicechatApi api = api(true);
+        pool.decode(api, UUID.randomUUID(), FRAME);
+        pool.decode(api, UUID.randomUUID(), FRAME);
+
+        assertEquals(2, pool.closeAll());
+        assertEquals(2, closed.get());
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    void creationFailureIsLoggedOncePerSender() {
+        final DecoderPool pool = new DecoderPool(logger);
+        final VoicechatApi api = api(false);
+        final UUID sender = UUID.randomUUID();
+
+        assertNull(pool.decode(api, sender, FRAME));
+        assertNull(pool.decode(api, sender, FRAME));
+        assertEquals(1, warnings.size());
+
+        pool.decode(api, UUID.randomUUID(), FRAME);
+        assertEquals(2, warnings.size());
+    }
+
+    private VoicechatApi api(final boolean canCreate) {
+        return (VoicechatApi) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {VoicechatApi.class},
+                (proxy, method, args) -> "createDecoder".equals(method.getName()) && canCreate ? decoder() : null);
+    }
+
+    private OpusDecoder decoder() {
+        created.incrementAndGet();
+        return (OpusDecoder) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {OpusDecoder.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "decode" -> PCM.clone();
+                    case "close" -> {
+                        closed.incrementAndGet();
+                        yield null;
+                    }
+                    case "isClosed" -> false;
+                    default -> null;
+                });
+    }
+
+    private Logger capturingLogger() {
+        final Logger captured = Logger.getAnonymousLogger();
+        captured.setUseParentHandlers(false);
+        captured.addHandler(new Handler() {
+            @Override
+            public void publish(final LogRecord record) {
+                warnings.add(record.getMessage());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        return captured;
+    }
+}
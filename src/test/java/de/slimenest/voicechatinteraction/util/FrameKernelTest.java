@@ -0,0 +1,63 @@
+package de.slimenest.voicechatinteraction.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FrameKernelTest {
+
+    @Test
+    void scalarKernelComputesAllFeatures() {
+        final short[] frame = {0, 3, -4, Short.MIN_VALUE, Short.MAX_VALUE, 0, -1};
+        final FrameFeatures features = FrameKernel.scalar().analyze(frame, 1, 5);
+
+        assertEquals(9L + 16L + 32768L * 32768L + 32767L * 32767L, features.sumOfSquares());
+        assertEquals(32768, features.peak());
+        assertEquals(2, features.zeroCrossings());
+        assertEquals(5, features.length());
+    }
+
+    @Test
+    void vectorKernelMatchesScalarOnRandomFrames() {
+        final FrameKernel vector = FrameKernel.vector();
+        assumeTrue(vector != null, "jdk.incubator.vector is not available");
+        final FrameKernel scalar = FrameKernel.scalar();
+
+        final SplittableRandom random = new SplittableRandom(20261017L);
+        for (int run = 0; run < 5_000; run++) {
+            final int length = random.nextInt(4) == 0 ? random.nextInt(2_000) : random.nextInt(80);
+            final int offset = random.nextInt(17);
+            final short[] frame = randomFrame(random, offset + length + random.nextInt(17));
+            assertEquals(scalar.analyze(frame, offset, length), vector.analyze(frame, offset, length),
+                    () -> "offset " + offset + ", length " + length);
+        }
+    }
+
+    @Test
+    void vectorKernelPassesStartupSelfCheck() {
+        assumeTrue(FrameKernel.vector() != null, "jdk.incubator.vector is not available");
+        assertFalse(SoundAnalyzer.isVectorKernelRejected());
+        assertEquals(FrameKernel.vector().name(), SoundAnalyzer.kernelName());
+    }
+
+    /**
+     * Mixes full-scale extremes, silence, small values around zero and uniform noise,
+     * so sign changes and overflow-prone sums are both exercised.
+     */
+    private static short[] randomFrame(final SplittableRandom random, final int length) {
+        final short[] frame = new short[length];
+        for (int i = 0; i < length; i++) {
+            frame[i] = switch (random.nextInt(5)) {
+                case 0 -> random.nextBoolean() ? Short.MIN_VALUE : Short.MAX_VALUE;
+                case 1 -> 0;
+                case 2 -> (short) random.nextInt(-2, 3);
+                default -> (short) random.nextInt(Short.MIN_VALUE, Short.MAX_VALUE + 1);
+            };
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,128 @@
+package de.slimenest.voicechatinteraction.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NoiseFloorTest {
+
+    private static final double NOISE = SoundAnalyzer.decibelToMeanSquare(-60.0);
+    private static final double THRESHOLD = SoundAnalyzer.decibelToMeanSquare(-45.0);
+    private static final double SPEECH = SoundAnalyzer.decibelToMeanSquare(-20.0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void speechAboveTheThresholdDoesNotMoveTheFloor() {
+        final NoiseFloor floor = new NoiseFloor();
+        for (int i = 0; i < (int) NoiseFloor.MIN_SAMPLES; i++) {
+            floor.update(NOISE, THRESHOLD);
+        }
+        assertTrue(floor.isCalibrated());
+        final double calibrated = floor.floorMeanSquare();
+
+        for (int i = 0; i < NoiseFloor.RESEED_FRAMES - 1; i++) {
+            floor.update(SPEECH, THRESHOLD);
+        }
+        assertEquals(calibrated, floor.floorMeanSquare());
+        assertEquals(NoiseFloor.MIN_SAMPLES, floor.samples());
+    }
+
+    @Test
+    void quietFramesBetweenSpeechRestartTheReseedCount() {
+        final NoiseFloor floor = new NoiseFloor();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < NoiseFloor.RESEED_FRAMES - 1; i++) {
+                floor.update(SPEECH, THRESHOLD);
+            }
+            floor.update(NOISE, THRESHOLD);
+        }
+        assertEquals(3, floor.samples());
+        assertFalse(floor.isCalibrated());
+    }
+
+    @Test
+    void noiseAboveTheThresholdReseedsAtTheQuietestFrame() {
+        final NoiseFloor floor = new NoiseFloor();
+        final double loudNoise = SoundAnalyzer.decibelToMeanSquare(-35.0);
+        for (int i = 0; i < NoiseFloor.RESEED_FRAMES; i++) {
+            floor.update(i == 100 ? loudNoise : SPEECH, THRESHOLD);
+        }
+        assertTrue(floor.isCalibrated());
+        assertEquals(loudNoise, floor.floorMeanSquare());
+    }
+
+    @Test
+    void digitalSilenceIsIgnored() {
+        final NoiseFloor floor = new NoiseFloor();
+        floor.update(0.0, THRESHOLD);
+        assertEquals(0L, floor.samples());
+        assertEquals(0.0, floor.floorMeanSquare());
+    }
+
+    @Test
+    void idleEstimatesAreEvicted() {
+        final NoiseFloorRegistry registry = new NoiseFloorRegistry(directory.resolve("noise_floors.dat"));
+        final UUID active = UUID.randomUUID();
+        registry.getOrCreate(active).update(NOISE, THRESHOLD);
+
+        assertEquals(0, registry.evictIdle(60_000L));
+        assertEquals(1, registry.evictIdle(-1L));
+        assertNull(registry.get(active));
+    }
+
+    @Test
+    void savesAndRestoresUpdateTimes() throws IOException {
+        final Path file = directory.resolve("noise_floors.dat");
+        final NoiseFloorRegistry registry = new NoiseFloorRegistry(file);
+        final UUID player = UUID.randomUUID();
+        registry.getOrCreate(player).update(NOISE, THRESHOLD);
+        final long lastUpdate = registry.get(player).lastUpdateMillis();
+        registry.save();
+
+        final NoiseFloorRegistry restored = new NoiseFloorRegistry(file);
+        assertEquals(1, restored.load());
+        final NoiseFloor floor = restored.get(player);
+        assertNotNull(floor);
+        assertEquals(NOISE, floor.floorMeanSquare());
+        assertEquals(1L, floor.samples());
+        assertEquals(lastUpdate, floor.lastUpdateMillis());
+    }
+
+    @Test
+    void rejectsFilesWithoutHeader() throws IOException {
+        final Path file = directory.resolve("noise_floors.dat");
+        final UUID player = UUID.randomUUID();
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeLong(player.getMostSignificantBits());
+            out.writeLong(player.getLeastSignificantBits());
+            out.writeDouble(NOISE);
+            out.writeLong(NoiseFloor.MIN_SAMPLES);
+        }
+
+        final NoiseFloorRegistry registry = new NoiseFloorRegistry(file);
+        registry.getOrCreate(UUID.randomUUID());
+        assertThrows(IOException.class, registry::load);
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void emptyFileHoldsNoEstimates() throws IOException {
+        final Path file = directory.resolve("noise_floors.dat");
+        Files.createFile(file);
+        assertEquals(0, new NoiseFloorRegistry(file).load());
+    }
+}
@@ -0,0 +1,72 @@
+package de.slimenest.voicechatinteraction.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OpusPacketClassifierTest {
+
+    /** SILK-only, 20 ms per frame. */
+    private static final int SILK_20MS = 1;
+    /** CELT-only, 10 ms per frame. */
+    private static final int CELT_10MS = 18;
+
+    @Test
+    void tocOnlyPacketIsSilent() {
+        assertEquals(OpusPacketClassifier.Verdict.SILENT, OpusPacketClassifier.classify(new byte[] {toc(SILK_20MS, 0)}, 3, 0));
+    }
+
+    @Test
+    void classifiesByPayloadPer20ms() {
+        assertEquals(OpusPacketClassifier.Verdict.SILENT, OpusPacketClassifier.classify(packet(SILK_20MS, 0, 3), 3, 40));
+        assertEquals(OpusPacketClassifier.Verdict.AMBIGUOUS, OpusPacketClassifier.classify(packet(SILK_20MS, 0, 39), 3, 40));
+        assertEquals(OpusPacketClassifier.Verdict.LOUD, OpusPacketClassifier.classify(packet(SILK_20MS, 0, 40), 3, 40));
+    }
+
+    @Test
+    void loudVerdictIsDisabledByZero() {
+        assertEquals(OpusPacketClassifier.Verdict.AMBIGUOUS, OpusPacketClassifier.classify(packet(SILK_20MS, 0, 200), 3, 0));
+    }
+
+    @Test
+    void payloadIsNormalizedToPacketDuration() {
+        // 20 bytes in 10 ms are 40 bytes per 20 ms
+        assertEquals(OpusPacketClassifier.Verdict.LOUD, OpusPacketClassifier.classify(packet(CELT_10MS, 0, 20), 3, 40));
+        // Two 20 ms frames: 6 bytes in 40 ms are 3 bytes per 20 ms
+        assertEquals(OpusPacketClassifier.Verdict.SILENT, OpusPacketClassifier.classify(packet(SILK_20MS, 1, 6), 3, 40));
+    }
+
+    @Test
+    void decodesPacketDuration() {
+        assertEquals(20_000, OpusPacketClassifier.packetDurationMicros(packet(SILK_20MS, 0, 10)));
+        assertEquals(20_000, OpusPacketClassifier.packetDurationMicros(packet(CELT_10MS, 2, 10)));
+        final byte[] arbitrary = packet(CELT_10MS, 3, 10);
+        arbitrary[1] = 6;
+        assertEquals(60_000, OpusPacketClassifier.packetDurationMicros(arbitrary));
+        assertEquals(2_500, OpusPacketClassifier.packetDurationMicros(packet(16, 0, 10)));
+        assertEquals(0, OpusPacketClassifier.packetDurationMicros(new byte[0]));
+    }
+
+    @Test
+    void malformedFrameCountIsAmbiguous() {
+        final byte[] packet = packet(CELT_10MS, 3, 10);
+        packet[1] = 0;
+        assertEquals(OpusPacketClassifier.Verdict.AMBIGUOUS, OpusPacketClassifier.classify(packet, 3, 40));
+    }
+
+    private static byte toc(final int config, final int frameCountCode) {
+        return (byte) (config << 3 | frameCountCode);
+    }
+
+    /**
+     * Builds a packet with a TOC byte and the given number of payload bytes.
+     */
+    private static byte[] packet(final int config, final int frameCountCode, final int payloadBytes) {
+        final byte[] packet = new byte[payloadBytes + 1];
+        packet[0] = toc(config, frameCountCode);
+        for (int i = 1; i < packet.length; i++) {
+            packet[i] = (byte) 0x55;
+        }
+        return packet;
+    }
+}
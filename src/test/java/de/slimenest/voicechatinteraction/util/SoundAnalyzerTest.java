@@ -0,0 +1,134 @@
+package de.slimenest.voicechatinteraction.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SoundAnalyzerTest {
+
+    private static final int[] FRAME_LENGTHS = {0, 1, 7, 480, 960, 1920};
+
+    @Test
+    void meanSquareThresholdMatchesDecibelComparison() {
+        final SplittableRandom random = new SplittableRandom(42);
+        for (int run = 0; run < 2_000; run++) {
+            final short[] frame = randomFrame(random, FRAME_LENGTHS[random.nextInt(FRAME_LENGTHS.length)]);
+            final double decibel = SoundAnalyzer.computeDecibelLevel(frame);
+            final double threshold = -127.0 + random.nextDouble() * 127.0;
+            if (Math.abs(decibel - threshold) < 1e-9) {
+                // Both sides round differently exactly at the boundary
+                continue;
+            }
+            final double meanSquareThreshold = SoundAnalyzer.decibelToMeanSquare(threshold);
+            assertEquals(decibel >= threshold, meetsThreshold(frame, 0, frame.length, meanSquareThreshold),
+                    () -> "frame at " + decibel + " dB against threshold " + threshold + " dB");
+        }
+    }
+
+    @Test
+    void thresholdExtremes() {
+        final short[] silence = new short[960];
+        final short[] fullScale = new short[960];
+        Arrays.fill(fullScale, Short.MIN_VALUE);
+
+        assertTrue(meetsThreshold(silence, 0, silence.length, SoundAnalyzer.decibelToMeanSquare(-127.0)));
+        assertFalse(meetsThreshold(silence, 0, silence.length, SoundAnalyzer.decibelToMeanSquare(-126.0)));
+        assertTrue(meetsThreshold(fullScale, 0, fullScale.length, SoundAnalyzer.decibelToMeanSquare(0.0)));
+        assertEquals(SoundAnalyzer.MIN_DECIBEL, SoundAnalyzer.computeDecibelLevel(silence));
+        assertEquals(0.0, SoundAnalyzer.computeDecibelLevel(fullScale));
+        assertEquals(SoundAnalyzer.MIN_DECIBEL, SoundAnalyzer.computeDecibelLevel(new short[0]));
+    }
+
+    @Test
+    void emptyRegionOnlyPassesZeroThreshold() {
+        final short[] frame = {1000, 2000};
+        assertTrue(meetsThreshold(frame, 1, 0, 0.0));
+        assertFalse(meetsThreshold(frame, 1, 0, 1.0));
+    }
+
+    @Test
+    void regionOffsetIsRespected() {
+        final short[] frame = {Short.MAX_VALUE, 0, 0, 0};
+        assertEquals(0L, SoundAnalyzer.analyzeFrame(frame, 1, 3).sumOfSquares());
+        assertEquals((long) Short.MAX_VALUE * Short.MAX_VALUE, SoundAnalyzer.analyzeFrame(frame, 0, 1).sumOfSquares());
+    }
+
+    @Test
+    void decibelConversionRoundTrips() {
+        for (int decibel = -126; decibel <= 0; decibel++) {
+            assertEquals(decibel, SoundAnalyzer.meanSquareToDecibel(SoundAnalyzer.decibelToMeanSquare(decibel)), 1e-9);
+        }
+        assertEquals(0.0, SoundAnalyzer.decibelToMeanSquare(SoundAnalyzer.MIN_DECIBEL));
+        assertEquals(SoundAnalyzer.MIN_DECIBEL, SoundAnalyzer.meanSquareToDecibel(0.0));
+    }
+
+    @Test
+    void analyzeFrameMatchesReferenceSumOfSquares() {
+        final SplittableRandom random = new SplittableRandom(7);
+        for (final int length : FRAME_LENGTHS) {
+            final short[] frame = randomFrame(random, length + 2);
+            final FrameFeatures features = SoundAnalyzer.analyzeFrame(frame, 2, length);
+            assertEquals(referenceSumOfSquares(frame, 2, length), features.sumOfSquares());
+            assertEquals(length, features.length());
+        }
+    }
+
+    @Test
+    void frameAnalysisAllocatesOnlyItsResult() {
+        final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().threadId();
+        final short[] frame = randomFrame(new SplittableRandom(1), 960);
+        final double threshold = SoundAnalyzer.decibelToMeanSquare(-50.0);
+        final int iterations = 100_000;
+
+        int hits = 0;
+        // Warm up the analysis and the allocation counter itself
+        for (int i = 0; i < iterations; i++) {
+            hits += meetsThreshold(frame, 0, frame.length, threshold) ? 1 : 0;
+        }
+        threads.getThreadAllocatedBytes(threadId);
+
+        final long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            hits += meetsThreshold(frame, 0, frame.length, threshold) ? 1 : 0;
+        }
+        final long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // The 32-byte FrameFeatures is the only allocation; samples and accumulators must not be copied or boxed
+        assertTrue(allocated <= 32L * iterations + 4096, () -> allocated + " bytes allocated in " + iterations + " frames");
+        assertTrue(hits == 0 || hits == 2 * iterations);
+    }
+
+    /**
+     * The threshold check of the packet path: analyze the frame, compare its mean square.
+     */
+    private static boolean meetsThreshold(final short[] frame, final int offset, final int length,
+                                          final double meanSquareThreshold) {
+        return SoundAnalyzer.analyzeFrame(frame, offset, length).meanSquare() >= meanSquareThreshold;
+    }
+
+    private static long referenceSumOfSquares(final short[] frame, final int offset, final int length) {
+        long sum = 0L;
+        for (int i = offset; i < offset + length; i++) {
+            sum += frame[i] * frame[i];
+        }
+        return sum;
+    }
+
+    private static short[] randomFrame(final SplittableRandom random, final int length) {
+        final short[] frame = new short[length];
+        // Random amplitude so levels spread over the whole dB range
+        final int amplitude = 1 << random.nextInt(16);
+        for (int i = 0; i < length; i++) {
+            frame[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, random.nextInt(-amplitude, amplitude + 1)));
+        }
+        return frame;
+    }
+}
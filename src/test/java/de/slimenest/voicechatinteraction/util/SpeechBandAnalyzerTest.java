@@ -0,0 +1,73 @@
+package de.slimenest.voicechatinteraction.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpeechBandAnalyzerTest {
+
+    private static final int FRAME = 960;
+    /** Default {@code speech_band_min_ratio_db} of 10 dB. */
+    private static final double MIN_RATIO = Math.pow(10.0, 10 / 10.0);
+
+    @Test
+    void voicedFramesPass() {
+        for (final int fundamental : new int[] {120, 220}) {
+            final short[] frame = voiced(fundamental);
+            assertTrue(SpeechBandAnalyzer.isSpeechDominant(frame, 0, frame.length, MIN_RATIO),
+                    () -> fundamental + " Hz voice at ratio " + SpeechBandAnalyzer.bandRatio(frame, 0, frame.length));
+        }
+    }
+
+    @Test
+    void whiteNoiseFails() {
+        final SplittableRandom random = new SplittableRandom(3);
+        final short[] frame = new short[FRAME];
+        for (int i = 0; i < frame.length; i++) {
+            frame[i] = (short) random.nextInt(-8000, 8001);
+        }
+        assertFalse(SpeechBandAnalyzer.isSpeechDominant(frame, 0, frame.length, MIN_RATIO));
+    }
+
+    @Test
+    void singleSampleClickFails() {
+        final short[] frame = new short[FRAME];
+        // Mid-segment, where the window does not hide it
+        frame[SpeechBandAnalyzer.SEGMENT_SAMPLES / 2] = Short.MAX_VALUE;
+        assertFalse(SpeechBandAnalyzer.isSpeechDominant(frame, 0, frame.length, MIN_RATIO));
+    }
+
+    @Test
+    void silenceHasNoRatio() {
+        final short[] frame = new short[FRAME];
+        assertTrue(Double.isNaN(SpeechBandAnalyzer.bandRatio(frame, 0, frame.length)));
+        assertFalse(SpeechBandAnalyzer.isSpeechDominant(frame, 0, frame.length, MIN_RATIO));
+    }
+
+    @Test
+    void shortFrameCountsAsSpeech() {
+        final short[] frame = new short[SpeechBandAnalyzer.SEGMENT_SAMPLES - 1];
+        frame[frame.length / 2] = Short.MAX_VALUE;
+        assertEquals(Double.POSITIVE_INFINITY, SpeechBandAnalyzer.bandRatio(frame, 0, frame.length));
+        assertTrue(SpeechBandAnalyzer.isSpeechDominant(frame, 0, frame.length, MIN_RATIO));
+    }
+
+    /**
+     * Harmonic series of a voiced sound, falling off with frequency up to 8 kHz.
+     */
+    private static short[] voiced(final int fundamental) {
+        final short[] frame = new short[FRAME];
+        for (int i = 0; i < frame.length; i++) {
+            double value = 0.0;
+            for (int harmonic = 1; harmonic * fundamental < 8000; harmonic++) {
+                value += Math.sin(2.0 * Math.PI * harmonic * fundamental * i / 48_000.0) / harmonic;
+            }
+            frame[i] = (short) (value * 5000);
+        }
+        return frame;
+    }
+}
@@ -0,0 +1,131 @@
+package de.slimenest.voicechatinteraction.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ToggleStoreTest {
+
+    private static final int RECORD_BYTES = 17;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayIsLastWriteWins() throws IOException {
+        final Path file = directory.resolve("toggles.dat");
+        final UUID first = UUID.randomUUID();
+        final UUID second = UUID.randomUUID();
+        final ToggleStore store = new ToggleStore(file);
+        store.set(first, false);
+        store.set(second, true);
+        store.flush();
+        store.set(first, true);
+        store.set(second, false);
+        store.flush();
+
+        final ToggleStore reloaded = new ToggleStore(file);
+        assertEquals(2, reloaded.load());
+        assertEquals(Boolean.TRUE, reloaded.get(first));
+        assertEquals(Boolean.FALSE, reloaded.get(second));
+        assertNull(reloaded.get(UUID.randomUUID()));
+    }
+
+    @Test
+    void unchangedStatesAreNotAppended() throws IOException {
+        final Path file = directory.resolve("toggles.dat");
+        final UUID player = UUID.randomUUID();
+        final ToggleStore store = new ToggleStore(file);
+        store.set(player, true);
+        store.set(player, true);
+        store.flush();
+        assertEquals(RECORD_BYTES, Files.size(file));
+    }
+
+    @Test
+    void truncatedTrailingRecordIsIgnored() throws IOException {
+        final Path file = directory.resolve("toggles.dat");
+        final UUID player = UUID.randomUUID();
+        final ToggleStore store = new ToggleStore(file);
+        store.set(player, false);
+        store.set(UUID.randomUUID(), true);
+        store.flush();
+        final byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+
+        final ToggleStore reloaded = new ToggleStore(file);
+        assertEquals(1, reloaded.load());
+        assertEquals(Boolean.FALSE, reloaded.get(player));
+    }
+
+    @Test
+    void missingFileLoadsEmpty() throws IOException {
+        final ToggleStore store = new ToggleStore(directory.resolve("missing/toggles.dat"));
+        assertEquals(0, store.load());
+        assertFalse(store.isLegacyImported());
+    }
+
+    @Test
+    void compactionKeepsOneRecordPerPlayer() throws IOException {
+        final Path file = directory.resolve("toggles.dat");
+        final UUID player = UUID.randomUUID();
+        final ToggleStore store = new ToggleStore(file);
+        // Compaction starts once the log holds more than 1024 records beyond the live entries
+        for (int i = 0; i < 1_027; i++) {
+            store.set(player, i % 2 == 0);
+            store.flush();
+        }
+
+        assertEquals(RECORD_BYTES, Files.size(file));
+        final ToggleStore reloaded = new ToggleStore(file);
+        assertEquals(1, reloaded.load());
+        assertEquals(Boolean.TRUE, reloaded.get(player));
+    }
+
+    @Test
+    void setAllOnlyChangesDifferingEntries() {
+        final ToggleStore store = new ToggleStore(directory.resolve("toggles.dat"));
+        store.set(UUID.randomUUID(), true);
+        store.set(UUID.randomUUID(), false);
+        store.set(UUID.randomUUID(), false);
+        assertEquals(2, store.setAll(true));
+        assertEquals(0, store.setAll(true));
+    }
+
+    @Test
+    void legacyImportMarkerSurvivesReloadAndCompaction() throws IOException {
+        final Path file = directory.resolve("toggles.dat");
+        final UUID player = UUID.randomUUID();
+        final ToggleStore store = new ToggleStore(file);
+        assertTrue(store.setIfAbsent(player, false));
+        store.set(player, true);
+        assertFalse(store.setIfAbsent(player, false));
+        store.markLegacyImported();
+        store.flush();
+
+        final ToggleStore reloaded = new ToggleStore(file);
+        assertEquals(1, reloaded.load());
+        assertTrue(reloaded.isLegacyImported());
+        assertEquals(Boolean.TRUE, reloaded.get(player));
+
+        // Three records so far; the 1024th toggle pushes the log over the compaction limit
+        for (int i = 0; i < 1_024; i++) {
+            reloaded.set(player, i % 2 != 0);
+            reloaded.flush();
+        }
+        assertEquals(2L * RECORD_BYTES, Files.size(file));
+        final ToggleStore compacted = new ToggleStore(file);
+        assertEquals(1, compacted.load());
+        assertTrue(compacted.isLegacyImported());
+    }
+}